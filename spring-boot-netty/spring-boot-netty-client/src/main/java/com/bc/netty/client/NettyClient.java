@@ -1,19 +1,37 @@
 package com.bc.netty.client;
 
+import com.bc.netty.protobuf.UserMsg;
+import com.bc.netty.rpc.Envelopes;
+import com.bc.netty.rpc.RpcException;
+import com.bc.netty.transport.NettyTransport;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
 import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.PromiseCombiner;
+import io.netty.util.concurrent.ScheduledFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Netty客户端
@@ -30,20 +48,66 @@ public class NettyClient {
     @Value("${server.bind_port}")
     private Integer port;
 
+    /**
+     * 传输层: auto/epoll/nio
+     */
+    @Value("${server.netty.transport:auto}")
+    private String transportName;
+
+    /**
+     * 是否合并flush
+     */
+    @Value("${server.netty.flush_consolidation:true}")
+    private Boolean flushConsolidation;
+
+    /**
+     * 合并flush时最多合并的次数
+     */
+    @Value("${server.netty.explicit_flush_after_flushes:256}")
+    private Integer explicitFlushAfterFlushes;
+
+    /**
+     * RPC请求的默认超时时间(毫秒)
+     */
+    @Value("${server.netty.rpc_timeout:3000}")
+    private Long rpcTimeout;
+
+    /**
+     * 重连时使用的eventLoop来自group，channel类型必须与group属于同一种传输层
+     */
+    private NettyTransport transport;
+
     /**
      * 唯一标记
      */
     private boolean initFalg = true;
 
     private EventLoopGroup group;
-    private ChannelFuture f;
+    private volatile ChannelFuture f;
+
+    /**
+     * 已建立的连接，由NettyClientHandler在连接建立时设置，重连后替换
+     */
+    private volatile Channel channel;
+
+    /**
+     * 请求ID生成器，0保留给单向消息
+     */
+    private final AtomicLong requestIdGenerator = new AtomicLong();
+
+    /**
+     * 已发送但未收到响应的请求，按请求ID对应响应
+     */
+    private final ConcurrentMap<Long, CompletableFuture<ByteString>> pendingRequests = new ConcurrentHashMap<>();
 
     /**
      * Netty创建全部都是实现自AbstractBootstrap。 客户端的是Bootstrap，服务端的则是 ServerBootstrap。
      **/
     @PostConstruct
     public void init() {
-        group = new NioEventLoopGroup();
+        transport = NettyTransport.select(transportName);
+        log.info("Netty客户端传输层: {}", transport);
+        group = transport.newEventLoopGroup(0);
         doConnect(new Bootstrap(), group);
     }
 
@@ -65,9 +129,10 @@ public class NettyClient {
         try {
             if (bootstrap != null) {
                 bootstrap.group(eventLoopGroup);
-                bootstrap.channel(NioSocketChannel.class);
+                bootstrap.channel(transport.channelClass());
                 bootstrap.option(ChannelOption.SO_KEEPALIVE, true);
-                bootstrap.handler(new NettyClientInitializer());
+                bootstrap.handler(new NettyClientInitializer(this,
+                        flushConsolidation ? explicitFlushAfterFlushes : 0));
                 bootstrap.remoteAddress(host, port);
                 f = bootstrap.connect().addListener((ChannelFuture futureListener) -> {
                     final EventLoop eventLoop = futureListener.channel().eventLoop();
@@ -86,4 +151,153 @@ public class NettyClient {
         }
 
     }
+
+    /**
+     * 发送一条单向消息，不等待响应
+     * 开启合并flush时，同一个eventLoop任务中的多次发送会合并为一次写出
+     *
+     * @param user 消息
+     * @return 写出结果
+     */
+    public ChannelFuture send(UserMsg.User user) {
+        return activeChannel().writeAndFlush(Envelopes.oneway(user));
+    }
+
+    /**
+     * 批量发送单向消息，所有消息在eventLoop中依次write，最后只flush一次，一次系统调用写出
+     * 不依赖是否开启合并flush
+     *
+     * @param users 消息
+     * @return 全部写出后完成，任一条失败时失败
+     */
+    public ChannelFuture sendBatch(List<UserMsg.User> users) {
+        Channel channel = activeChannel();
+        ChannelPromise promise = channel.newPromise();
+        channel.eventLoop().execute(() -> {
+            // PromiseCombiner只能在eventLoop中使用
+            PromiseCombiner combiner = new PromiseCombiner();
+            for (UserMsg.User user : users) {
+                combiner.add(channel.write(Envelopes.oneway(user)));
+            }
+            combiner.finish(promise);
+            channel.flush();
+        });
+        return promise;
+    }
+
+    /**
+     * 异步调用服务端方法，使用默认超时时间
+     *
+     * @param method  方法名
+     * @param payload 请求体
+     * @return 响应体
+     */
+    public CompletableFuture<ByteString> call(String method, ByteString payload) {
+        return call(method, payload, rpcTimeout);
+    }
+
+    /**
+     * 异步调用服务端方法
+     * 不等待上一个请求的响应，同一个连接上可以同时有多个未完成的请求，响应按请求ID对应
+     * 超时抛出TimeoutException，服务端处理失败抛出RpcException，连接断开抛出IllegalStateException
+     * 回调在I/O线程中执行，不能阻塞
+     *
+     * @param method        方法名
+     * @param payload       请求体
+     * @param timeoutMillis 超时时间(毫秒)
+     * @return 响应体
+     */
+    public CompletableFuture<ByteString> call(String method, ByteString payload, long timeoutMillis) {
+        CompletableFuture<ByteString> future = new CompletableFuture<>();
+        Channel channel;
+        try {
+            channel = activeChannel();
+        } catch (IllegalStateException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        long requestId = requestIdGenerator.incrementAndGet();
+        pendingRequests.put(requestId, future);
+        ScheduledFuture<?> timeoutTask = channel.eventLoop().schedule(() -> {
+            CompletableFuture<ByteString> timedOut = pendingRequests.remove(requestId);
+            if (timedOut != null) {
+                timedOut.completeExceptionally(new TimeoutException(
+                        "RPC请求超时,方法:" + method + ",请求ID:" + requestId + ",超时时间:" + timeoutMillis + "ms"));
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        future.whenComplete((response, cause) -> timeoutTask.cancel(false));
+        channel.writeAndFlush(Envelopes.request(requestId, method, payload)).addListener(writeFuture -> {
+            if (!writeFuture.isSuccess()) {
+                CompletableFuture<ByteString> failed = pendingRequests.remove(requestId);
+                if (failed != null) {
+                    failed.completeExceptionally(writeFuture.cause());
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 异步调用服务端方法，请求和响应都是protobuf消息
+     *
+     * @param method  方法名
+     * @param request 请求
+     * @param parser  响应的解析器，如UserMsg.User.parser()
+     * @return 响应
+     */
+    public <T extends Message> CompletableFuture<T> call(String method, Message request, Parser<T> parser) {
+        return call(method, request.toByteString()).thenApply(payload -> {
+            try {
+                return parser.parseFrom(payload);
+            } catch (InvalidProtocolBufferException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * 收到响应，完成对应的请求
+     *
+     * @param response 响应
+     */
+    void complete(UserMsg.Envelope response) {
+        CompletableFuture<ByteString> future = pendingRequests.remove(response.getRequestId());
+        if (future == null) {
+            log.info("请求已超时或不存在,请求ID:" + response.getRequestId());
+            return;
+        }
+        if (response.getError().isEmpty()) {
+            future.complete(response.getPayload());
+        } else {
+            future.completeExceptionally(new RpcException(response.getError()));
+        }
+    }
+
+    /**
+     * 连接建立，之后的消息和请求通过该连接发送
+     *
+     * @param channel 连接
+     */
+    void channelActive(Channel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * 连接断开，所有未完成的请求失败
+     */
+    void failPendingRequests() {
+        for (Map.Entry<Long, CompletableFuture<ByteString>> entry : pendingRequests.entrySet()) {
+            if (pendingRequests.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().completeExceptionally(new IllegalStateException("与服务端的连接已断开"));
+            }
+        }
+    }
+
+    private Channel activeChannel() {
+        Channel active = channel;
+        if (active == null || !active.isActive()) {
+            throw new IllegalStateException("未连接到服务端");
+        }
+        return active;
+    }
 }
@@ -1,6 +1,7 @@
 package com.bc.netty.client;
 
 import com.bc.netty.protobuf.UserMsg;
+import com.bc.netty.rpc.Envelopes;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
@@ -10,7 +11,6 @@ import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
 import io.netty.util.ReferenceCountUtil;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.Date;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -23,20 +23,24 @@ import java.util.concurrent.atomic.AtomicInteger;
 @ChannelHandler.Sharable
 @Slf4j
 public class NettyClientHandler extends ChannelInboundHandlerAdapter {
-    @Autowired
-    private NettyClient nettyClient;
+    private final NettyClient nettyClient;
 
     /**
      * 循环次数
      */
     private AtomicInteger fcount = new AtomicInteger(1);
 
+    public NettyClientHandler(NettyClient nettyClient) {
+        this.nettyClient = nettyClient;
+    }
+
     /**
      * 建立连接时
      */
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         log.info("建立连接时：" + new Date());
+        nettyClient.channelActive(ctx.channel());
         ctx.fireChannelActive();
     }
 
@@ -46,6 +50,7 @@ public class NettyClientHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         log.info("关闭连接时：" + new Date());
+        nettyClient.failPendingRequests();
         final EventLoop eventLoop = ctx.channel().eventLoop();
         nettyClient.doConnect(new Bootstrap(), eventLoop);
         super.channelInactive(ctx);
@@ -61,8 +66,8 @@ public class NettyClientHandler extends ChannelInboundHandlerAdapter {
             IdleStateEvent event = (IdleStateEvent) obj;
             // 如果写通道处于空闲状态,就发送心跳命令
             if (IdleState.WRITER_IDLE.equals(event.state())) {
-                UserMsg.User.Builder userState = UserMsg.User.newBuilder().setState(2);
-                ctx.channel().writeAndFlush(userState);
+                UserMsg.User userState = UserMsg.User.newBuilder().setState(2).build();
+                ctx.channel().writeAndFlush(Envelopes.oneway(userState));
                 fcount.getAndIncrement();
             }
         }
@@ -74,23 +79,32 @@ public class NettyClientHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         // 如果不是protobuf类型的数据
-        if (!(msg instanceof UserMsg.User)) {
+        if (!(msg instanceof UserMsg.Envelope)) {
             log.info("未知数据!" + msg);
             return;
         }
         try {
-
-            // 得到protobuf的数据
-            UserMsg.User userMsg = (UserMsg.User) msg;
-            // 进行相应的业务处理。。。
-            // 这里就从简了，只是打印而已
-            log.info(
-                    "客户端接受到的用户信息。编号:" + userMsg.getId() + ",姓名:" + userMsg.getName() + ",年龄:" + userMsg.getAge());
-
-            // 这里返回一个已经接受到数据的状态
-            UserMsg.User.Builder userState = UserMsg.User.newBuilder().setState(1);
-            ctx.writeAndFlush(userState);
-            log.info("成功发送给服务端!");
+            UserMsg.Envelope envelope = (UserMsg.Envelope) msg;
+            switch (envelope.getType()) {
+                case RESPONSE:
+                    // RPC响应，按请求ID交给对应的请求
+                    nettyClient.complete(envelope);
+                    break;
+                case ONEWAY:
+                    if (Envelopes.USER.equals(envelope.getMethod())) {
+                        handleUser(ctx, envelope);
+                    } else {
+                        log.warn("未知的单向消息,方法:{}", envelope.getMethod());
+                    }
+                    break;
+                case REQUEST:
+                    // 客户端不提供RPC方法，返回错误响应，服务端不必等到超时
+                    ctx.writeAndFlush(Envelopes.error(envelope, "客户端不支持RPC请求:" + envelope.getMethod()));
+                    break;
+                default:
+                    log.warn("未知的消息类型:{}", envelope.getType());
+                    break;
+            }
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
@@ -98,4 +112,20 @@ public class NettyClientHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    /**
+     * 服务端推送的用户信息
+     */
+    private void handleUser(ChannelHandlerContext ctx, UserMsg.Envelope envelope) throws Exception {
+        // 得到protobuf的数据
+        UserMsg.User userMsg = UserMsg.User.parseFrom(envelope.getPayload());
+        // 进行相应的业务处理。。。
+        // 这里就从简了，只是打印而已
+        log.info(
+                "客户端接受到的用户信息。编号:" + userMsg.getId() + ",姓名:" + userMsg.getName() + ",年龄:" + userMsg.getAge());
+
+        // 这里返回一个已经接受到数据的状态
+        UserMsg.User userState = UserMsg.User.newBuilder().setState(1).build();
+        ctx.writeAndFlush(Envelopes.oneway(userState));
+        log.info("成功发送给服务端!");
+    }
 }
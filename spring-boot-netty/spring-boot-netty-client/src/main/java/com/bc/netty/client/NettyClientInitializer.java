@@ -8,6 +8,7 @@ import io.netty.handler.codec.protobuf.ProtobufDecoder;
 import io.netty.handler.codec.protobuf.ProtobufEncoder;
 import io.netty.handler.codec.protobuf.ProtobufVarint32FrameDecoder;
 import io.netty.handler.codec.protobuf.ProtobufVarint32LengthFieldPrepender;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.timeout.IdleStateHandler;
 
 import java.util.concurrent.TimeUnit;
@@ -19,9 +20,25 @@ import java.util.concurrent.TimeUnit;
  */
 public class NettyClientInitializer extends ChannelInitializer<SocketChannel> {
 
+    /**
+     * 合并flush时最多合并的次数，0表示不合并
+     */
+    private final int explicitFlushAfterFlushes;
+
+    private final NettyClient nettyClient;
+
+    public NettyClientInitializer(NettyClient nettyClient, int explicitFlushAfterFlushes) {
+        this.nettyClient = nettyClient;
+        this.explicitFlushAfterFlushes = explicitFlushAfterFlushes;
+    }
+
     @Override
     protected void initChannel(SocketChannel ch) {
         ChannelPipeline ph = ch.pipeline();
+        // 合并flush，必须在其他会flush的处理器之前
+        if (explicitFlushAfterFlushes > 0) {
+            ph.addLast("flushConsolidationHandler", new FlushConsolidationHandler(explicitFlushAfterFlushes, true));
+        }
         /*
          * 解码和编码，应和服务端一致
          * */
@@ -30,12 +47,12 @@ public class NettyClientInitializer extends ChannelInitializer<SocketChannel> {
 
         //传输的协议 Protobuf
         ph.addLast(new ProtobufVarint32FrameDecoder());
-        ph.addLast(new ProtobufDecoder(UserMsg.User.getDefaultInstance()));
+        ph.addLast(new ProtobufDecoder(UserMsg.Envelope.getDefaultInstance()));
         ph.addLast(new ProtobufVarint32LengthFieldPrepender());
         ph.addLast(new ProtobufEncoder());
 
         //业务逻辑实现类
-        ph.addLast("nettyClientHandler", new NettyClientHandler());
+        ph.addLast("nettyClientHandler", new NettyClientHandler(nettyClient));
 
     }
 
@@ -0,0 +1,104 @@
+package com.bc.netty.client;
+
+import com.bc.netty.protobuf.UserMsg;
+import com.bc.netty.rpc.Envelopes;
+import com.bc.netty.rpc.RpcException;
+import com.google.protobuf.ByteString;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 测试客户端RPC调用: 按请求ID对应响应、超时和收到未知消息
+ * 使用EmbeddedChannel代替真实连接，出站的Envelope直接从channel读取
+ *
+ * @author zhou
+ */
+public class TestNettyClientRpc {
+
+    private NettyClient nettyClient;
+
+    private EmbeddedChannel channel;
+
+    @Before
+    public void setUp() {
+        nettyClient = new NettyClient();
+        channel = new EmbeddedChannel(new NettyClientHandler(nettyClient));
+    }
+
+    @After
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    /**
+     * 测试多个请求同时未完成时，响应按请求ID完成对应的请求
+     */
+    @Test
+    public void testCallAndComplete() throws Exception {
+        CompletableFuture<ByteString> first = nettyClient.call("echo", ByteString.copyFromUtf8("first"), 1000);
+        CompletableFuture<ByteString> second = nettyClient.call("echo", ByteString.copyFromUtf8("second"), 1000);
+        UserMsg.Envelope firstRequest = channel.readOutbound();
+        UserMsg.Envelope secondRequest = channel.readOutbound();
+        Assert.assertEquals(UserMsg.Envelope.Type.REQUEST, firstRequest.getType());
+        Assert.assertNotEquals(firstRequest.getRequestId(), secondRequest.getRequestId());
+
+        channel.writeInbound(Envelopes.response(secondRequest, secondRequest.getPayload()));
+        Assert.assertFalse(first.isDone());
+        Assert.assertEquals("second", second.get().toStringUtf8());
+
+        channel.writeInbound(Envelopes.error(firstRequest, "failed"));
+        try {
+            first.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RpcException);
+            Assert.assertEquals("failed", e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * 测试超时后请求失败，之后到达的响应被忽略
+     */
+    @Test
+    public void testTimeout() throws Exception {
+        CompletableFuture<ByteString> future = nettyClient.call("echo", ByteString.copyFromUtf8("slow"), 10);
+        UserMsg.Envelope request = channel.readOutbound();
+        Thread.sleep(50);
+        channel.runScheduledPendingTasks();
+        Assert.assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        channel.writeInbound(Envelopes.response(request, request.getPayload()));
+        Assert.assertTrue(future.isCompletedExceptionally());
+    }
+
+    /**
+     * 测试客户端拒绝服务端的RPC请求，忽略未知方法的单向消息
+     */
+    @Test
+    public void testUnknownMessages() {
+        channel.writeInbound(Envelopes.request(1, "echo", ByteString.copyFromUtf8("request")));
+        UserMsg.Envelope response = channel.readOutbound();
+        Assert.assertEquals(UserMsg.Envelope.Type.RESPONSE, response.getType());
+        Assert.assertEquals(1, response.getRequestId());
+        Assert.assertFalse(response.getError().isEmpty());
+
+        channel.writeInbound(UserMsg.Envelope.newBuilder()
+                .setType(UserMsg.Envelope.Type.ONEWAY)
+                .setMethod("unknown")
+                .setPayload(ByteString.copyFromUtf8("not a user"))
+                .build());
+        Assert.assertNull(channel.readOutbound());
+    }
+}
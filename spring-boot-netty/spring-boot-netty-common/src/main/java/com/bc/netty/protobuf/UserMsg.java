@@ -851,11 +851,1222 @@ public final class UserMsg {
 
   }
 
+  public interface EnvelopeOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:Envelope)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <pre>
+     *请求ID，响应中与请求相同，单向消息为0
+     * </pre>
+     *
+     * <code>int64 request_id = 1;</code>
+     */
+    long getRequestId();
+
+    /**
+     * <pre>
+     *消息类型
+     * </pre>
+     *
+     * <code>.Envelope.Type type = 2;</code>
+     */
+    int getTypeValue();
+    /**
+     * <pre>
+     *消息类型
+     * </pre>
+     *
+     * <code>.Envelope.Type type = 2;</code>
+     */
+    Envelope.Type getType();
+
+    /**
+     * <pre>
+     *方法名
+     * </pre>
+     *
+     * <code>string method = 3;</code>
+     */
+    String getMethod();
+    /**
+     * <pre>
+     *方法名
+     * </pre>
+     *
+     * <code>string method = 3;</code>
+     */
+    com.google.protobuf.ByteString
+        getMethodBytes();
+
+    /**
+     * <pre>
+     *消息体，如序列化后的User
+     * </pre>
+     *
+     * <code>bytes payload = 4;</code>
+     */
+    com.google.protobuf.ByteString getPayload();
+
+    /**
+     * <pre>
+     *错误信息，只在处理失败的响应中设置
+     * </pre>
+     *
+     * <code>string error = 5;</code>
+     */
+    String getError();
+    /**
+     * <pre>
+     *错误信息，只在处理失败的响应中设置
+     * </pre>
+     *
+     * <code>string error = 5;</code>
+     */
+    com.google.protobuf.ByteString
+        getErrorBytes();
+  }
+  /**
+   * <pre>
+   *RPC消息信封，连接上传输的都是Envelope，请求和响应通过request_id对应
+   * </pre>
+   *
+   * Protobuf type {@code Envelope}
+   */
+  public  static final class Envelope extends
+      com.google.protobuf.GeneratedMessageV3 implements
+      // @@protoc_insertion_point(message_implements:Envelope)
+      EnvelopeOrBuilder {
+  private static final long serialVersionUID = 0L;
+    // Use Envelope.newBuilder() to construct.
+    private Envelope(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+      super(builder);
+    }
+    private Envelope() {
+      type_ = 0;
+      method_ = "";
+      payload_ = com.google.protobuf.ByteString.EMPTY;
+      error_ = "";
+    }
+
+    @Override
+    @SuppressWarnings({"unused"})
+    protected Object newInstance(
+        UnusedPrivateParameter unused) {
+      return new Envelope();
+    }
+
+    @Override
+    public final com.google.protobuf.UnknownFieldSet
+    getUnknownFields() {
+      return this.unknownFields;
+    }
+    private Envelope(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      this();
+      if (extensionRegistry == null) {
+        throw new NullPointerException();
+      }
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            case 8: {
+
+              requestId_ = input.readInt64();
+              break;
+            }
+            case 16: {
+              int rawValue = input.readEnum();
+
+              type_ = rawValue;
+              break;
+            }
+            case 26: {
+              String s = input.readStringRequireUtf8();
+
+              method_ = s;
+              break;
+            }
+            case 34: {
+
+              payload_ = input.readBytes();
+              break;
+            }
+            case 42: {
+              String s = input.readStringRequireUtf8();
+
+              error_ = s;
+              break;
+            }
+            default: {
+              if (!parseUnknownField(
+                  input, unknownFields, extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return UserMsg.internal_static_Envelope_descriptor;
+    }
+
+    @Override
+    protected FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return UserMsg.internal_static_Envelope_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              Envelope.class, Builder.class);
+    }
+
+    /**
+     * <pre>
+     *消息类型
+     * </pre>
+     *
+     * Protobuf enum {@code Envelope.Type}
+     */
+    public enum Type
+        implements com.google.protobuf.ProtocolMessageEnum {
+      /**
+       * <pre>
+       *单向消息，不需要响应
+       * </pre>
+       *
+       * <code>ONEWAY = 0;</code>
+       */
+      ONEWAY(0),
+      /**
+       * <pre>
+       *请求
+       * </pre>
+       *
+       * <code>REQUEST = 1;</code>
+       */
+      REQUEST(1),
+      /**
+       * <pre>
+       *响应
+       * </pre>
+       *
+       * <code>RESPONSE = 2;</code>
+       */
+      RESPONSE(2),
+      UNRECOGNIZED(-1),
+      ;
+
+      /**
+       * <pre>
+       *单向消息，不需要响应
+       * </pre>
+       *
+       * <code>ONEWAY = 0;</code>
+       */
+      public static final int ONEWAY_VALUE = 0;
+      /**
+       * <pre>
+       *请求
+       * </pre>
+       *
+       * <code>REQUEST = 1;</code>
+       */
+      public static final int REQUEST_VALUE = 1;
+      /**
+       * <pre>
+       *响应
+       * </pre>
+       *
+       * <code>RESPONSE = 2;</code>
+       */
+      public static final int RESPONSE_VALUE = 2;
+
+
+      public final int getNumber() {
+        if (this == UNRECOGNIZED) {
+          throw new IllegalArgumentException(
+              "Can't get the number of an unknown enum value.");
+        }
+        return value;
+      }
+
+      /**
+       * @deprecated Use {@link #forNumber(int)} instead.
+       */
+      @Deprecated
+      public static Type valueOf(int value) {
+        return forNumber(value);
+      }
+
+      public static Type forNumber(int value) {
+        switch (value) {
+          case 0: return ONEWAY;
+          case 1: return REQUEST;
+          case 2: return RESPONSE;
+          default: return null;
+        }
+      }
+
+      public static com.google.protobuf.Internal.EnumLiteMap<Type>
+          internalGetValueMap() {
+        return internalValueMap;
+      }
+      private static final com.google.protobuf.Internal.EnumLiteMap<
+          Type> internalValueMap =
+            new com.google.protobuf.Internal.EnumLiteMap<Type>() {
+              public Type findValueByNumber(int number) {
+                return Type.forNumber(number);
+              }
+            };
+
+      public final com.google.protobuf.Descriptors.EnumValueDescriptor
+          getValueDescriptor() {
+        return getDescriptor().getValues().get(ordinal());
+      }
+      public final com.google.protobuf.Descriptors.EnumDescriptor
+          getDescriptorForType() {
+        return getDescriptor();
+      }
+      public static final com.google.protobuf.Descriptors.EnumDescriptor
+          getDescriptor() {
+        return Envelope.getDescriptor().getEnumTypes().get(0);
+      }
+
+      private static final Type[] VALUES = values();
+
+      public static Type valueOf(
+          com.google.protobuf.Descriptors.EnumValueDescriptor desc) {
+        if (desc.getType() != getDescriptor()) {
+          throw new IllegalArgumentException(
+            "EnumValueDescriptor is not for this type.");
+        }
+        if (desc.getIndex() == -1) {
+          return UNRECOGNIZED;
+        }
+        return VALUES[desc.getIndex()];
+      }
+
+      private final int value;
+
+      private Type(int value) {
+        this.value = value;
+      }
+
+      // @@protoc_insertion_point(enum_scope:Envelope.Type)
+    }
+
+    public static final int REQUEST_ID_FIELD_NUMBER = 1;
+    private long requestId_;
+    /**
+     * <pre>
+     *请求ID，响应中与请求相同，单向消息为0
+     * </pre>
+     *
+     * <code>int64 request_id = 1;</code>
+     */
+    public long getRequestId() {
+      return requestId_;
+    }
+
+    public static final int TYPE_FIELD_NUMBER = 2;
+    private int type_;
+    /**
+     * <pre>
+     *消息类型
+     * </pre>
+     *
+     * <code>.Envelope.Type type = 2;</code>
+     */
+    public int getTypeValue() {
+      return type_;
+    }
+    /**
+     * <pre>
+     *消息类型
+     * </pre>
+     *
+     * <code>.Envelope.Type type = 2;</code>
+     */
+    public Envelope.Type getType() {
+      @SuppressWarnings("deprecation")
+      Envelope.Type result = Envelope.Type.valueOf(type_);
+      return result == null ? Envelope.Type.UNRECOGNIZED : result;
+    }
+
+    public static final int METHOD_FIELD_NUMBER = 3;
+    private volatile Object method_;
+    /**
+     * <pre>
+     *方法名
+     * </pre>
+     *
+     * <code>string method = 3;</code>
+     */
+    public String getMethod() {
+      Object ref = method_;
+      if (ref instanceof String) {
+        return (String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        String s = bs.toStringUtf8();
+        method_ = s;
+        return s;
+      }
+    }
+    /**
+     * <pre>
+     *方法名
+     * </pre>
+     *
+     * <code>string method = 3;</code>
+     */
+    public com.google.protobuf.ByteString
+        getMethodBytes() {
+      Object ref = method_;
+      if (ref instanceof String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (String) ref);
+        method_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    public static final int PAYLOAD_FIELD_NUMBER = 4;
+    private com.google.protobuf.ByteString payload_;
+    /**
+     * <pre>
+     *消息体，如序列化后的User
+     * </pre>
+     *
+     * <code>bytes payload = 4;</code>
+     */
+    public com.google.protobuf.ByteString getPayload() {
+      return payload_;
+    }
+
+    public static final int ERROR_FIELD_NUMBER = 5;
+    private volatile Object error_;
+    /**
+     * <pre>
+     *错误信息，只在处理失败的响应中设置
+     * </pre>
+     *
+     * <code>string error = 5;</code>
+     */
+    public String getError() {
+      Object ref = error_;
+      if (ref instanceof String) {
+        return (String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        String s = bs.toStringUtf8();
+        error_ = s;
+        return s;
+      }
+    }
+    /**
+     * <pre>
+     *错误信息，只在处理失败的响应中设置
+     * </pre>
+     *
+     * <code>string error = 5;</code>
+     */
+    public com.google.protobuf.ByteString
+        getErrorBytes() {
+      Object ref = error_;
+      if (ref instanceof String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (String) ref);
+        error_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    private byte memoizedIsInitialized = -1;
+    @Override
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    @Override
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      if (requestId_ != 0L) {
+        output.writeInt64(1, requestId_);
+      }
+      if (type_ != Envelope.Type.ONEWAY.getNumber()) {
+        output.writeEnum(2, type_);
+      }
+      if (!getMethodBytes().isEmpty()) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 3, method_);
+      }
+      if (!payload_.isEmpty()) {
+        output.writeBytes(4, payload_);
+      }
+      if (!getErrorBytes().isEmpty()) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 5, error_);
+      }
+      unknownFields.writeTo(output);
+    }
+
+    @Override
+    public int getSerializedSize() {
+      int size = memoizedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (requestId_ != 0L) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(1, requestId_);
+      }
+      if (type_ != Envelope.Type.ONEWAY.getNumber()) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeEnumSize(2, type_);
+      }
+      if (!getMethodBytes().isEmpty()) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(3, method_);
+      }
+      if (!payload_.isEmpty()) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(4, payload_);
+      }
+      if (!getErrorBytes().isEmpty()) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(5, error_);
+      }
+      size += unknownFields.getSerializedSize();
+      memoizedSize = size;
+      return size;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (obj == this) {
+       return true;
+      }
+      if (!(obj instanceof Envelope)) {
+        return super.equals(obj);
+      }
+      Envelope other = (Envelope) obj;
+
+      if (getRequestId()
+          != other.getRequestId()) return false;
+      if (type_ != other.type_) return false;
+      if (!getMethod()
+          .equals(other.getMethod())) return false;
+      if (!getPayload()
+          .equals(other.getPayload())) return false;
+      if (!getError()
+          .equals(other.getError())) return false;
+      if (!unknownFields.equals(other.unknownFields)) return false;
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      if (memoizedHashCode != 0) {
+        return memoizedHashCode;
+      }
+      int hash = 41;
+      hash = (19 * hash) + getDescriptor().hashCode();
+      hash = (37 * hash) + REQUEST_ID_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+          getRequestId());
+      hash = (37 * hash) + TYPE_FIELD_NUMBER;
+      hash = (53 * hash) + type_;
+      hash = (37 * hash) + METHOD_FIELD_NUMBER;
+      hash = (53 * hash) + getMethod().hashCode();
+      hash = (37 * hash) + PAYLOAD_FIELD_NUMBER;
+      hash = (53 * hash) + getPayload().hashCode();
+      hash = (37 * hash) + ERROR_FIELD_NUMBER;
+      hash = (53 * hash) + getError().hashCode();
+      hash = (29 * hash) + unknownFields.hashCode();
+      memoizedHashCode = hash;
+      return hash;
+    }
+
+    public static Envelope parseFrom(
+        java.nio.ByteBuffer data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static Envelope parseFrom(
+        java.nio.ByteBuffer data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static Envelope parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static Envelope parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static Envelope parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static Envelope parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static Envelope parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static Envelope parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static Envelope parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input);
+    }
+    public static Envelope parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static Envelope parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static Envelope parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+
+    @Override
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder() {
+      return DEFAULT_INSTANCE.toBuilder();
+    }
+    public static Builder newBuilder(Envelope prototype) {
+      return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+    }
+    @Override
+    public Builder toBuilder() {
+      return this == DEFAULT_INSTANCE
+          ? new Builder() : new Builder().mergeFrom(this);
+    }
+
+    @Override
+    protected Builder newBuilderForType(
+        BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * <pre>
+     *RPC消息信封，连接上传输的都是Envelope，请求和响应通过request_id对应
+     * </pre>
+     *
+     * Protobuf type {@code Envelope}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:Envelope)
+        EnvelopeOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return UserMsg.internal_static_Envelope_descriptor;
+      }
+
+      @Override
+      protected FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return UserMsg.internal_static_Envelope_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                Envelope.class, Builder.class);
+      }
+
+      // Construct using com.bc.netty.protobuf.UserMsg.Envelope.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessageV3
+                .alwaysUseFieldBuilders) {
+        }
+      }
+      @Override
+      public Builder clear() {
+        super.clear();
+        requestId_ = 0L;
+
+        type_ = 0;
+
+        method_ = "";
+
+        payload_ = com.google.protobuf.ByteString.EMPTY;
+
+        error_ = "";
+
+        return this;
+      }
+
+      @Override
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return UserMsg.internal_static_Envelope_descriptor;
+      }
+
+      @Override
+      public Envelope getDefaultInstanceForType() {
+        return Envelope.getDefaultInstance();
+      }
+
+      @Override
+      public Envelope build() {
+        Envelope result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      @Override
+      public Envelope buildPartial() {
+        Envelope result = new Envelope(this);
+        result.requestId_ = requestId_;
+        result.type_ = type_;
+        result.method_ = method_;
+        result.payload_ = payload_;
+        result.error_ = error_;
+        onBuilt();
+        return result;
+      }
+
+      @Override
+      public Builder clone() {
+        return super.clone();
+      }
+      @Override
+      public Builder setField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          Object value) {
+        return super.setField(field, value);
+      }
+      @Override
+      public Builder clearField(
+          com.google.protobuf.Descriptors.FieldDescriptor field) {
+        return super.clearField(field);
+      }
+      @Override
+      public Builder clearOneof(
+          com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+        return super.clearOneof(oneof);
+      }
+      @Override
+      public Builder setRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          int index, Object value) {
+        return super.setRepeatedField(field, index, value);
+      }
+      @Override
+      public Builder addRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          Object value) {
+        return super.addRepeatedField(field, value);
+      }
+      @Override
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof Envelope) {
+          return mergeFrom((Envelope)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(Envelope other) {
+        if (other == Envelope.getDefaultInstance()) return this;
+        if (other.getRequestId() != 0L) {
+          setRequestId(other.getRequestId());
+        }
+        if (other.type_ != 0) {
+          setTypeValue(other.getTypeValue());
+        }
+        if (!other.getMethod().isEmpty()) {
+          method_ = other.method_;
+          onChanged();
+        }
+        if (other.getPayload() != com.google.protobuf.ByteString.EMPTY) {
+          setPayload(other.getPayload());
+        }
+        if (!other.getError().isEmpty()) {
+          error_ = other.error_;
+          onChanged();
+        }
+        this.mergeUnknownFields(other.unknownFields);
+        onChanged();
+        return this;
+      }
+
+      @Override
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      @Override
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        Envelope parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (Envelope) e.getUnfinishedMessage();
+          throw e.unwrapIOException();
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+
+      private long requestId_ ;
+      /**
+       * <pre>
+       *请求ID，响应中与请求相同，单向消息为0
+       * </pre>
+       *
+       * <code>int64 request_id = 1;</code>
+       */
+      public long getRequestId() {
+        return requestId_;
+      }
+      /**
+       * <pre>
+       *请求ID，响应中与请求相同，单向消息为0
+       * </pre>
+       *
+       * <code>int64 request_id = 1;</code>
+       */
+      public Builder setRequestId(long value) {
+        
+        requestId_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       *请求ID，响应中与请求相同，单向消息为0
+       * </pre>
+       *
+       * <code>int64 request_id = 1;</code>
+       */
+      public Builder clearRequestId() {
+        
+        requestId_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      private int type_ = 0;
+      /**
+       * <pre>
+       *消息类型
+       * </pre>
+       *
+       * <code>.Envelope.Type type = 2;</code>
+       */
+      public int getTypeValue() {
+        return type_;
+      }
+      /**
+       * <pre>
+       *消息类型
+       * </pre>
+       *
+       * <code>.Envelope.Type type = 2;</code>
+       */
+      public Builder setTypeValue(int value) {
+        type_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       *消息类型
+       * </pre>
+       *
+       * <code>.Envelope.Type type = 2;</code>
+       */
+      public Envelope.Type getType() {
+        @SuppressWarnings("deprecation")
+        Envelope.Type result = Envelope.Type.valueOf(type_);
+        return result == null ? Envelope.Type.UNRECOGNIZED : result;
+      }
+      /**
+       * <pre>
+       *消息类型
+       * </pre>
+       *
+       * <code>.Envelope.Type type = 2;</code>
+       */
+      public Builder setType(Envelope.Type value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        
+        type_ = value.getNumber();
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       *消息类型
+       * </pre>
+       *
+       * <code>.Envelope.Type type = 2;</code>
+       */
+      public Builder clearType() {
+        
+        type_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private Object method_ = "";
+      /**
+       * <pre>
+       *方法名
+       * </pre>
+       *
+       * <code>string method = 3;</code>
+       */
+      public String getMethod() {
+        Object ref = method_;
+        if (!(ref instanceof String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          String s = bs.toStringUtf8();
+          method_ = s;
+          return s;
+        } else {
+          return (String) ref;
+        }
+      }
+      /**
+       * <pre>
+       *方法名
+       * </pre>
+       *
+       * <code>string method = 3;</code>
+       */
+      public com.google.protobuf.ByteString
+          getMethodBytes() {
+        Object ref = method_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (String) ref);
+          method_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <pre>
+       *方法名
+       * </pre>
+       *
+       * <code>string method = 3;</code>
+       */
+      public Builder setMethod(
+          String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  
+        method_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       *方法名
+       * </pre>
+       *
+       * <code>string method = 3;</code>
+       */
+      public Builder clearMethod() {
+        
+        method_ = getDefaultInstance().getMethod();
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       *方法名
+       * </pre>
+       *
+       * <code>string method = 3;</code>
+       */
+      public Builder setMethodBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  checkByteStringIsUtf8(value);
+        
+        method_ = value;
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString payload_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <pre>
+       *消息体，如序列化后的User
+       * </pre>
+       *
+       * <code>bytes payload = 4;</code>
+       */
+      public com.google.protobuf.ByteString getPayload() {
+        return payload_;
+      }
+      /**
+       * <pre>
+       *消息体，如序列化后的User
+       * </pre>
+       *
+       * <code>bytes payload = 4;</code>
+       */
+      public Builder setPayload(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  
+        payload_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       *消息体，如序列化后的User
+       * </pre>
+       *
+       * <code>bytes payload = 4;</code>
+       */
+      public Builder clearPayload() {
+        
+        payload_ = getDefaultInstance().getPayload();
+        onChanged();
+        return this;
+      }
+
+      private Object error_ = "";
+      /**
+       * <pre>
+       *错误信息，只在处理失败的响应中设置
+       * </pre>
+       *
+       * <code>string error = 5;</code>
+       */
+      public String getError() {
+        Object ref = error_;
+        if (!(ref instanceof String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          String s = bs.toStringUtf8();
+          error_ = s;
+          return s;
+        } else {
+          return (String) ref;
+        }
+      }
+      /**
+       * <pre>
+       *错误信息，只在处理失败的响应中设置
+       * </pre>
+       *
+       * <code>string error = 5;</code>
+       */
+      public com.google.protobuf.ByteString
+          getErrorBytes() {
+        Object ref = error_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (String) ref);
+          error_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <pre>
+       *错误信息，只在处理失败的响应中设置
+       * </pre>
+       *
+       * <code>string error = 5;</code>
+       */
+      public Builder setError(
+          String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  
+        error_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       *错误信息，只在处理失败的响应中设置
+       * </pre>
+       *
+       * <code>string error = 5;</code>
+       */
+      public Builder clearError() {
+        
+        error_ = getDefaultInstance().getError();
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       *错误信息，只在处理失败的响应中设置
+       * </pre>
+       *
+       * <code>string error = 5;</code>
+       */
+      public Builder setErrorBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  checkByteStringIsUtf8(value);
+        
+        error_ = value;
+        onChanged();
+        return this;
+      }
+      @Override
+      public final Builder setUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.setUnknownFields(unknownFields);
+      }
+
+      @Override
+      public final Builder mergeUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.mergeUnknownFields(unknownFields);
+      }
+
+
+      // @@protoc_insertion_point(builder_scope:Envelope)
+    }
+
+    // @@protoc_insertion_point(class_scope:Envelope)
+    private static final Envelope DEFAULT_INSTANCE;
+    static {
+      DEFAULT_INSTANCE = new Envelope();
+    }
+
+    public static Envelope getDefaultInstance() {
+      return DEFAULT_INSTANCE;
+    }
+
+    private static final com.google.protobuf.Parser<Envelope>
+        PARSER = new com.google.protobuf.AbstractParser<Envelope>() {
+      @Override
+      public Envelope parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new Envelope(input, extensionRegistry);
+      }
+    };
+
+    public static com.google.protobuf.Parser<Envelope> parser() {
+      return PARSER;
+    }
+
+    @Override
+    public com.google.protobuf.Parser<Envelope> getParserForType() {
+      return PARSER;
+    }
+
+    @Override
+    public Envelope getDefaultInstanceForType() {
+      return DEFAULT_INSTANCE;
+    }
+
+  }
+
   private static final com.google.protobuf.Descriptors.Descriptor
     internal_static_User_descriptor;
   private static final 
     com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
       internal_static_User_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_Envelope_descriptor;
+  private static final 
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+      internal_static_Envelope_fieldAccessorTable;
 
   public static com.google.protobuf.Descriptors.FileDescriptor
       getDescriptor() {
@@ -866,8 +2077,12 @@ public final class UserMsg {
   static {
     String[] descriptorData = {
       "\n\nuser.proto\"<\n\004User\022\n\n\002id\030\001 \001(\005\022\014\n\004name" +
-      "\030\002 \001(\t\022\013\n\003age\030\003 \001(\005\022\r\n\005state\030\004 \001(\005B \n\025co" +
-      "m.bc.netty.protobufB\007UserMsgb\006proto3"
+      "\030\002 \001(\t\022\013\n\003age\030\003 \001(\005\022\r\n\005state\030\004 \001(\005\"\233\001\n\010E" +
+      "nvelope\022\022\n\nrequest_id\030\001 \001(\003\022\034\n\004type\030\002 \001(" +
+      "\0162\016.Envelope.Type\022\016\n\006method\030\003 \001(\t\022\017\n\007pay" +
+      "load\030\004 \001(\014\022\r\n\005error\030\005 \001(\t\"-\n\004Type\022\n\n\006ONE" +
+      "WAY\020\000\022\013\n\007REQUEST\020\001\022\014\n\010RESPONSE\020\002B \n\025com." +
+      "bc.netty.protobufB\007UserMsgb\006proto3"
     };
     descriptor = com.google.protobuf.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -879,6 +2094,12 @@ public final class UserMsg {
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_User_descriptor,
         new String[] { "Id", "Name", "Age", "State", });
+    internal_static_Envelope_descriptor =
+      getDescriptor().getMessageTypes().get(1);
+    internal_static_Envelope_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_Envelope_descriptor,
+        new String[] { "RequestId", "Type", "Method", "Payload", "Error", });
   }
 
   // @@protoc_insertion_point(outer_class_scope)
@@ -0,0 +1,83 @@
+package com.bc.netty.rpc;
+
+import com.bc.netty.protobuf.UserMsg;
+import com.google.protobuf.ByteString;
+
+/**
+ * 创建Envelope消息
+ *
+ * @author zhou
+ */
+public final class Envelopes {
+
+    /**
+     * 单向传输User(确认、心跳等)时使用的方法名
+     */
+    public static final String USER = "user";
+
+    private Envelopes() {
+    }
+
+    /**
+     * 单向消息
+     *
+     * @param user 用户消息，state表示命令(1:确认 2:心跳)
+     * @return 信封
+     */
+    public static UserMsg.Envelope oneway(UserMsg.User user) {
+        return UserMsg.Envelope.newBuilder()
+                .setType(UserMsg.Envelope.Type.ONEWAY)
+                .setMethod(USER)
+                .setPayload(user.toByteString())
+                .build();
+    }
+
+    /**
+     * 请求
+     *
+     * @param requestId 请求ID
+     * @param method    方法名
+     * @param payload   请求体
+     * @return 信封
+     */
+    public static UserMsg.Envelope request(long requestId, String method, ByteString payload) {
+        return UserMsg.Envelope.newBuilder()
+                .setRequestId(requestId)
+                .setType(UserMsg.Envelope.Type.REQUEST)
+                .setMethod(method)
+                .setPayload(payload)
+                .build();
+    }
+
+    /**
+     * 成功的响应
+     *
+     * @param request 请求
+     * @param payload 响应体
+     * @return 信封
+     */
+    public static UserMsg.Envelope response(UserMsg.Envelope request, ByteString payload) {
+        return UserMsg.Envelope.newBuilder()
+                .setRequestId(request.getRequestId())
+                .setType(UserMsg.Envelope.Type.RESPONSE)
+                .setMethod(request.getMethod())
+                .setPayload(payload)
+                .build();
+    }
+
+    /**
+     * 失败的响应
+     *
+     * @param request 请求
+     * @param error   错误信息
+     * @return 信封
+     */
+    public static UserMsg.Envelope error(UserMsg.Envelope request, String error) {
+        return UserMsg.Envelope.newBuilder()
+                .setRequestId(request.getRequestId())
+                .setType(UserMsg.Envelope.Type.RESPONSE)
+                .setMethod(request.getMethod())
+                .setError(error)
+                .build();
+    }
+}
@@ -0,0 +1,13 @@
+package com.bc.netty.rpc;
+
+/**
+ * 服务端处理RPC请求失败
+ *
+ * @author zhou
+ */
+public class RpcException extends RuntimeException {
+
+    public RpcException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,113 @@
+package com.bc.netty.transport;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * Netty传输层实现
+ * epoll直接使用linux的epoll(边缘触发)，比NIO的系统调用更少、产生的垃圾更少，并支持SO_REUSEPORT
+ * EventLoopGroup和Channel必须属于同一种传输层
+ *
+ * @author zhou
+ */
+public enum NettyTransport {
+
+    /**
+     * linux原生epoll，需要netty的native库
+     */
+    EPOLL {
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new EpollEventLoopGroup(threads);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> serverChannelClass() {
+            return EpollServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends SocketChannel> channelClass() {
+            return EpollSocketChannel.class;
+        }
+    },
+
+    /**
+     * java NIO，所有平台可用
+     */
+    NIO {
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new NioEventLoopGroup(threads);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> serverChannelClass() {
+            return NioServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends SocketChannel> channelClass() {
+            return NioSocketChannel.class;
+        }
+    };
+
+    /**
+     * 创建EventLoopGroup
+     *
+     * @param threads 线程数 0:使用netty默认值(CPU核数*2)
+     * @return EventLoopGroup
+     */
+    public abstract EventLoopGroup newEventLoopGroup(int threads);
+
+    /**
+     * 服务端Channel的类型
+     *
+     * @return 服务端Channel的类型
+     */
+    public abstract Class<? extends ServerChannel> serverChannelClass();
+
+    /**
+     * 客户端及服务端子Channel的类型
+     *
+     * @return Channel的类型
+     */
+    public abstract Class<? extends SocketChannel> channelClass();
+
+    /**
+     * 是否支持SO_REUSEPORT
+     *
+     * @return true: 支持
+     */
+    public boolean isReusePortSupported() {
+        return this == EPOLL;
+    }
+
+    /**
+     * 按配置选择传输层
+     * auto: epoll可用时使用epoll，否则使用NIO
+     * epoll: 使用epoll，不可用时抛出异常
+     * nio: 使用NIO
+     *
+     * @param name auto/epoll/nio
+     * @return 传输层
+     */
+    public static NettyTransport select(String name) {
+        if ("auto".equalsIgnoreCase(name)) {
+            return Epoll.isAvailable() ? EPOLL : NIO;
+        }
+        NettyTransport transport = valueOf(name.toUpperCase());
+        if (transport == EPOLL && !Epoll.isAvailable()) {
+            throw new IllegalStateException("epoll transport is not available", Epoll.unavailabilityCause());
+        }
+        return transport;
+    }
+}
@@ -0,0 +1,92 @@
+package com.bc.netty.server;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 背压处理，以下两种情况都会暂停读取该客户端的请求，都恢复后才继续读取
+ * 1. 写缓冲: 待发送数据超过高水位时channel变为不可写，降到低水位以下后恢复
+ * 避免慢客户端不断发送请求而不读取响应，导致服务端的发送缓冲无限增长
+ * 2. 业务线程队列: 业务处理在业务线程组中执行时，该channel所在业务线程的待执行任务数达到businessQueueHighWaterMark后暂停，
+ * 同时向该业务线程提交一个恢复任务，排在它前面的任务都执行完后恢复
+ * 避免业务处理慢于读取时，I/O线程不断读取并向业务线程提交任务，导致业务线程的队列无限增长
+ * 暂停时本轮已读入的数据仍会处理完，队列长度最多超出一轮读取的消息数
+ * 每个channel一个实例，状态只在channel的I/O线程中修改
+ *
+ * @author zhou
+ */
+@Slf4j
+public class BackpressureHandler extends ChannelInboundHandlerAdapter {
+
+    /**
+     * 业务处理器的名称，用于找到它所在的业务线程
+     */
+    private final String businessHandlerName;
+
+    /**
+     * 业务线程待执行任务数的高水位，0表示不检查
+     */
+    private final int businessQueueHighWaterMark;
+
+    private SingleThreadEventExecutor businessExecutor;
+
+    private boolean businessQueueFull;
+
+    public BackpressureHandler(String businessHandlerName, int businessQueueHighWaterMark) {
+        this.businessHandlerName = businessHandlerName;
+        this.businessQueueHighWaterMark = businessQueueHighWaterMark;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        super.channelRead(ctx, msg);
+        if (businessQueueHighWaterMark <= 0 || businessQueueFull) {
+            return;
+        }
+        SingleThreadEventExecutor executor = businessExecutor(ctx);
+        if (executor != null && executor.pendingTasks() >= businessQueueHighWaterMark) {
+            businessQueueFull = true;
+            updateAutoRead(ctx);
+            log.info("业务线程队列过长，暂停读取:" + ctx.channel().remoteAddress());
+            // 业务线程按顺序执行任务，执行到这里时之前提交的任务都已执行完
+            executor.execute(() -> ctx.executor().execute(() -> {
+                businessQueueFull = false;
+                updateAutoRead(ctx);
+            }));
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (!ctx.channel().isWritable()) {
+            log.info("客户端接收过慢，暂停读取:" + ctx.channel().remoteAddress());
+        }
+        updateAutoRead(ctx);
+        super.channelWritabilityChanged(ctx);
+    }
+
+    /**
+     * 恢复autoRead时netty会立即发起一次读取
+     */
+    private void updateAutoRead(ChannelHandlerContext ctx) {
+        ctx.channel().config().setAutoRead(ctx.channel().isWritable() && !businessQueueFull);
+    }
+
+    /**
+     * 业务处理器所在的业务线程，业务处理在I/O线程中执行时返回null
+     */
+    private SingleThreadEventExecutor businessExecutor(ChannelHandlerContext ctx) {
+        if (businessExecutor == null) {
+            ChannelHandlerContext businessContext = ctx.pipeline().context(businessHandlerName);
+            EventExecutor executor = businessContext == null ? null : businessContext.executor();
+            if (executor == null || executor == ctx.executor() || !(executor instanceof SingleThreadEventExecutor)) {
+                return null;
+            }
+            businessExecutor = (SingleThreadEventExecutor) executor;
+        }
+        return businessExecutor;
+    }
+}
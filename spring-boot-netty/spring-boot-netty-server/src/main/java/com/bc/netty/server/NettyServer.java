@@ -1,19 +1,34 @@
 package com.bc.netty.server;
 
+import com.bc.netty.transport.NettyTransport;
 import io.netty.bootstrap.ServerBootstrap;
-import io.netty.channel.ChannelFuture;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.EpollChannelOption;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.util.ResourceLeakDetector;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Netty 服务端
@@ -40,9 +55,91 @@ public class NettyServer {
     @Value("${server.netty.max_payload_size}")
     private Integer maxPayloadSize;
 
-    private ChannelFuture channelFuture;
+    /**
+     * 传输层: auto/epoll/nio
+     */
+    @Value("${server.netty.transport:auto}")
+    private String transportName;
+
+    /**
+     * 是否开启SO_REUSEPORT(仅epoll)，开启后每个boss线程绑定一个监听channel，由内核在它们之间分配新连接
+     */
+    @Value("${server.netty.reuse_port:false}")
+    private Boolean reusePort;
+
+    /**
+     * 未完成三次握手和已完成但未accept的连接队列长度，受内核somaxconn限制
+     */
+    @Value("${server.netty.so_backlog:1024}")
+    private Integer soBacklog;
+
+    /**
+     * 是否禁用Nagle算法，小包立即发送
+     */
+    @Value("${server.netty.tcp_nodelay:true}")
+    private Boolean tcpNodelay;
+
+    /**
+     * ByteBuf分配器: pooled/unpooled
+     */
+    @Value("${server.netty.allocator:pooled}")
+    private String allocatorType;
+
+    /**
+     * 是否优先分配堆外内存，堆外内存写入socket时不需要再复制一次
+     */
+    @Value("${server.netty.prefer_direct:true}")
+    private Boolean preferDirect;
+
+    /**
+     * 每个channel待发送数据的低水位(字节)，降到低水位以下时channel恢复可写
+     */
+    @Value("${server.netty.write_buffer_low_water_mark:32768}")
+    private Integer writeBufferLowWaterMark;
+
+    /**
+     * 每个channel待发送数据的高水位(字节)，超过高水位时channel变为不可写
+     */
+    @Value("${server.netty.write_buffer_high_water_mark:65536}")
+    private Integer writeBufferHighWaterMark;
+
+    /**
+     * 是否合并flush
+     */
+    @Value("${server.netty.flush_consolidation:true}")
+    private Boolean flushConsolidation;
+
+    /**
+     * 合并flush时最多合并的次数，达到后立即flush，避免一直有数据可读时响应迟迟不发送
+     */
+    @Value("${server.netty.explicit_flush_after_flushes:256}")
+    private Integer explicitFlushAfterFlushes;
+
+    /**
+     * 业务线程数，0表示业务处理直接在worker线程中执行
+     */
+    @Value("${server.netty.business_group_thread_count:16}")
+    private Integer businessGroupThreadCount;
+
+    /**
+     * 业务线程待执行任务数达到该值时，暂停读取提交任务的channel，0表示不限制
+     */
+    @Value("${server.netty.business_queue_high_water_mark:1024}")
+    private Integer businessQueueHighWaterMark;
+
+    /**
+     * 业务线程队列长度的输出间隔(秒)，0表示不输出
+     */
+    @Value("${server.netty.business_queue_report_interval:60}")
+    private Integer businessQueueReportInterval;
+
+    @Autowired
+    private RpcDispatcher rpcDispatcher;
+
+    private final List<Channel> serverChannels = new ArrayList<>();
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
+    private EventExecutorGroup businessGroup;
 
 
     @PostConstruct
@@ -50,40 +147,134 @@ public class NettyServer {
         log.info("Setting resource leak detector level to {}", leakDetectorLevel);
         ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.valueOf(leakDetectorLevel.toUpperCase()));
 
-        log.info("Starting Server");
+        NettyTransport transport = NettyTransport.select(transportName);
+        log.info("Starting Server, transport: {}", transport);
         //创建boss线程组 用于服务端接受客户端的连接
-        bossGroup = new NioEventLoopGroup(bossGroupThreadCount);
+        bossGroup = transport.newEventLoopGroup(bossGroupThreadCount);
         // 创建 worker 线程组 用于进行 SocketChannel 的数据读写
-        workerGroup = new NioEventLoopGroup(workerGroupThreadCount);
+        workerGroup = transport.newEventLoopGroup(workerGroupThreadCount);
+        // 创建业务线程组 用于执行业务处理，避免慢的业务处理阻塞I/O
+        if (businessGroupThreadCount > 0) {
+            businessGroup = new DefaultEventExecutorGroup(businessGroupThreadCount,
+                    new DefaultThreadFactory("nettyBusinessGroup"));
+            log.info("business group threads: {}, queue high water mark: {}", businessGroupThreadCount,
+                    businessQueueHighWaterMark);
+            if (businessQueueReportInterval > 0) {
+                bossGroup.scheduleAtFixedRate(this::reportBusinessQueue, businessQueueReportInterval,
+                        businessQueueReportInterval, TimeUnit.SECONDS);
+            }
+        }
         // 创建 ServerBootstrap 对象
         ServerBootstrap b = new ServerBootstrap();
         //设置使用的EventLoopGroup
         b.group(bossGroup, workerGroup)
-                //设置要被实例化的为 NioServerSocketChannel 类
-                .channel(NioServerSocketChannel.class)
-                // 设置 NioServerSocketChannel 的处理器
+                //设置要被实例化的服务端 Channel 类
+                .channel(transport.serverChannelClass())
+                // 设置服务端 Channel 的处理器
                 .handler(new LoggingHandler(LogLevel.INFO))
                 // 设置连入服务端的 Client 的 SocketChannel 的处理器
-                .childHandler(new NettyServerInitializer());
+                .childHandler(new NettyServerInitializer(flushConsolidation ? explicitFlushAfterFlushes : 0,
+                        businessGroup, businessQueueHighWaterMark, rpcDispatcher));
+        ByteBufAllocator allocator = "unpooled".equalsIgnoreCase(allocatorType)
+                ? new UnpooledByteBufAllocator(preferDirect) : new PooledByteBufAllocator(preferDirect);
+        b.option(ChannelOption.SO_BACKLOG, soBacklog)
+                .option(ChannelOption.ALLOCATOR, allocator)
+                .childOption(ChannelOption.ALLOCATOR, allocator)
+                .childOption(ChannelOption.TCP_NODELAY, tcpNodelay)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                        new WriteBufferWaterMark(writeBufferLowWaterMark, writeBufferHighWaterMark));
+        log.info("allocator: {}, preferDirect: {}, tcpNodelay: {}, soBacklog: {}, writeBufferWaterMark: {}-{}",
+                allocatorType, preferDirect, tcpNodelay, soBacklog, writeBufferLowWaterMark, writeBufferHighWaterMark);
+        int acceptorCount = 1;
+        if (reusePort) {
+            if (transport.isReusePortSupported()) {
+                b.option(EpollChannelOption.SO_REUSEPORT, true);
+                // 每次bind都创建一个新的监听channel，按顺序注册到不同的boss线程
+                // boss_group_thread_count为0时线程数由netty决定，按boss线程组实际的线程数绑定
+                acceptorCount = executorCount(bossGroup);
+            } else {
+                log.warn("SO_REUSEPORT is only supported by epoll transport, ignored");
+            }
+        }
         // 绑定端口，并同步等待成功，即启动服务端
-        channelFuture = b.bind(port).sync();
+        for (int i = 0; i < acceptorCount; i++) {
+            serverChannels.add(b.bind(port).sync().channel());
+        }
 
-        log.info("Server Started!");
+        log.info("Server Started! acceptors: {}", acceptorCount);
 
     }
 
+    /**
+     * 线程组中的线程数
+     */
+    private static int executorCount(EventExecutorGroup group) {
+        int count = 0;
+        for (EventExecutor ignored : group) {
+            count++;
+        }
+        return count;
+    }
+
     @PreDestroy
     public void shutdown() throws InterruptedException {
         log.info("Stopping Server");
         try {
             // 监听服务端关闭，并阻塞等待
-            channelFuture.channel().closeFuture().sync();
+            for (Channel serverChannel : serverChannels) {
+                serverChannel.closeFuture().sync();
+            }
         } finally {
-            // 优雅关闭两个 EventLoopGroup 对象
+            // 优雅关闭两个 EventLoopGroup 对象和业务线程组
             workerGroup.shutdownGracefully();
             bossGroup.shutdownGracefully();
+            if (businessGroup != null) {
+                businessGroup.shutdownGracefully();
+            }
         }
         log.info("Server Stopped!");
 
     }
+
+    /**
+     * 业务线程组中每个线程等待执行的任务数
+     *
+     * @return 每个线程的队列长度，未使用业务线程组时为空
+     */
+    public List<Integer> getBusinessQueueDepths() {
+        List<Integer> depths = new ArrayList<>();
+        if (businessGroup == null) {
+            return depths;
+        }
+        for (EventExecutor executor : businessGroup) {
+            depths.add(((SingleThreadEventExecutor) executor).pendingTasks());
+        }
+        return depths;
+    }
+
+    /**
+     * channel所在业务线程等待执行的任务数
+     *
+     * @param channel 客户端channel
+     * @return 队列长度，业务处理在I/O线程中执行时为0
+     */
+    public int getBusinessQueueDepth(Channel channel) {
+        ChannelHandlerContext ctx = channel.pipeline().context(NettyServerInitializer.SERVER_HANDLER_NAME);
+        EventExecutor executor = ctx == null ? null : ctx.executor();
+        if (executor == channel.eventLoop() || !(executor instanceof SingleThreadEventExecutor)) {
+            return 0;
+        }
+        return ((SingleThreadEventExecutor) executor).pendingTasks();
+    }
+
+    private void reportBusinessQueue() {
+        List<Integer> depths = getBusinessQueueDepths();
+        int total = 0;
+        int max = 0;
+        for (int depth : depths) {
+            total += depth;
+            max = Math.max(max, depth);
+        }
+        log.info("业务线程队列长度: total={}, max={}, {}", total, max, depths);
+    }
 }
@@ -1,6 +1,7 @@
 package com.bc.netty.server;
 
 import com.bc.netty.protobuf.UserMsg;
+import com.bc.netty.rpc.Envelopes;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.timeout.IdleState;
@@ -26,6 +27,11 @@ public class NettyServerHandler extends ChannelInboundHandlerAdapter {
      */
     private AtomicInteger count = new AtomicInteger(1);
 
+    private final RpcDispatcher rpcDispatcher;
+
+    public NettyServerHandler(RpcDispatcher rpcDispatcher) {
+        this.rpcDispatcher = rpcDispatcher;
+    }
 
     /**
      * 建立连接时，发送一条消息
@@ -35,7 +41,7 @@ public class NettyServerHandler extends ChannelInboundHandlerAdapter {
         log.info("连接的客户端地址:" + ctx.channel().remoteAddress());
         UserMsg.User user = UserMsg.User.newBuilder().setId(1).
                 setAge(24).setName("张三").setState(0).build();
-        ctx.writeAndFlush(user);
+        ctx.writeAndFlush(Envelopes.oneway(user));
         super.channelActive(ctx);
     }
 
@@ -68,14 +74,25 @@ public class NettyServerHandler extends ChannelInboundHandlerAdapter {
         log.info("第" + count.get() + "次" + ",服务端接受的消息:" + msg);
         try {
             // 如果是protobuf类型的数据
-            if (msg instanceof UserMsg.User) {
-                UserMsg.User user = (UserMsg.User) msg;
-                if (user.getState() == 1) {
-                    log.info("客户端业务处理成功!");
-                } else if (user.getState() == 2) {
-                    log.info("接受到客户端发送的心跳!");
-                } else {
-                    log.info("未知命令!");
+            if (msg instanceof UserMsg.Envelope) {
+                UserMsg.Envelope envelope = (UserMsg.Envelope) msg;
+                switch (envelope.getType()) {
+                    case REQUEST:
+                        // RPC请求，处理后返回相同request_id的响应
+                        // 在业务线程中创建的promise完成时会向业务线程提交一个通知任务，不需要结果时使用voidPromise
+                        ctx.writeAndFlush(rpcDispatcher.dispatch(envelope), ctx.voidPromise());
+                        return;
+                    case ONEWAY:
+                        if (Envelopes.USER.equals(envelope.getMethod())) {
+                            handleUser(envelope);
+                        } else {
+                            log.warn("未知的单向消息,方法:{}", envelope.getMethod());
+                        }
+                        break;
+                    default:
+                        // 服务端不发送请求，不应收到响应
+                        log.warn("未知的消息类型:{}", envelope.getType());
+                        break;
                 }
             } else {
                 log.info("未知数据!" + msg);
@@ -89,6 +106,20 @@ public class NettyServerHandler extends ChannelInboundHandlerAdapter {
         count.getAndIncrement();
     }
 
+    /**
+     * 客户端发送的确认和心跳
+     */
+    private void handleUser(UserMsg.Envelope envelope) throws Exception {
+        UserMsg.User user = UserMsg.User.parseFrom(envelope.getPayload());
+        if (user.getState() == 1) {
+            log.info("客户端业务处理成功!");
+        } else if (user.getState() == 2) {
+            log.info("接受到客户端发送的心跳!");
+        } else {
+            log.info("未知命令!");
+        }
+    }
+
     /**
      * 异常处理
      */
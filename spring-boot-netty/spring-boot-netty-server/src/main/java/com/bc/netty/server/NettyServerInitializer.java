@@ -8,7 +8,9 @@ import io.netty.handler.codec.protobuf.ProtobufDecoder;
 import io.netty.handler.codec.protobuf.ProtobufEncoder;
 import io.netty.handler.codec.protobuf.ProtobufVarint32FrameDecoder;
 import io.netty.handler.codec.protobuf.ProtobufVarint32LengthFieldPrepender;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.EventExecutorGroup;
 
 
 import java.util.concurrent.TimeUnit;
@@ -20,20 +22,62 @@ import java.util.concurrent.TimeUnit;
  */
 public class NettyServerInitializer extends ChannelInitializer<SocketChannel> {
 
+    /**
+     * 业务处理器在pipeline中的名称
+     */
+    static final String SERVER_HANDLER_NAME = "nettyServerHandler";
+
+    /**
+     * 合并flush时最多合并的次数，0表示不合并
+     */
+    private final int explicitFlushAfterFlushes;
+
+    /**
+     * 执行业务处理的线程组，为null时在I/O线程中执行
+     */
+    private final EventExecutorGroup businessGroup;
+
+    /**
+     * 业务线程待执行任务数达到该值时暂停读取，0表示不检查
+     */
+    private final int businessQueueHighWaterMark;
+
+    private final RpcDispatcher rpcDispatcher;
+
+    public NettyServerInitializer(int explicitFlushAfterFlushes, EventExecutorGroup businessGroup,
+                                  int businessQueueHighWaterMark, RpcDispatcher rpcDispatcher) {
+        this.explicitFlushAfterFlushes = explicitFlushAfterFlushes;
+        this.businessGroup = businessGroup;
+        this.businessQueueHighWaterMark = businessQueueHighWaterMark;
+        this.rpcDispatcher = rpcDispatcher;
+    }
+
     @Override
     protected void initChannel(SocketChannel ch) {
         ChannelPipeline ph = ch.pipeline();
 
+        // 合并flush，必须在其他会flush的处理器之前
+        // 读取过程中的flush推迟到本轮读取结束，读取之外的flush推迟到eventLoop的下一个任务，多条消息一次系统调用写出
+        if (explicitFlushAfterFlushes > 0) {
+            ph.addLast("flushConsolidationHandler", new FlushConsolidationHandler(explicitFlushAfterFlushes, true));
+        }
+
+        // 发送缓冲超过高水位或业务线程队列过长时暂停读取
+        ph.addLast("backpressureHandler", new BackpressureHandler(SERVER_HANDLER_NAME,
+                businessGroup == null ? 0 : businessQueueHighWaterMark));
+
         //入参说明: 读超时时间、写超时时间、所有类型的超时时间、时间格式
         ph.addLast(new IdleStateHandler(5, 0, 0, TimeUnit.SECONDS));
         // 解码和编码，应和客户端一致
         //传输的协议 Protobuf
         ph.addLast(new ProtobufVarint32FrameDecoder());
-        ph.addLast(new ProtobufDecoder(UserMsg.User.getDefaultInstance()));
+        ph.addLast(new ProtobufDecoder(UserMsg.Envelope.getDefaultInstance()));
         ph.addLast(new ProtobufVarint32LengthFieldPrepender());
         ph.addLast(new ProtobufEncoder());
 
         //业务逻辑实现类
-        ph.addLast("nettyServerHandler", new NettyServerHandler());
+        // 指定businessGroup时，每个channel固定分配给组内的一个线程，同一个channel的消息仍按顺序处理
+        // 慢的业务处理只会阻塞同一线程上的其他channel的业务处理，不会阻塞I/O线程上所有channel的读写
+        ph.addLast(businessGroup, SERVER_HANDLER_NAME, new NettyServerHandler(rpcDispatcher));
     }
 }
\ No newline at end of file
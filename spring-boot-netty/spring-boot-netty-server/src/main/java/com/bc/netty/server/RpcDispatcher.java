@@ -0,0 +1,58 @@
+package com.bc.netty.server;
+
+import com.bc.netty.protobuf.UserMsg;
+import com.bc.netty.rpc.Envelopes;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RPC请求分发
+ * 按方法名找到注册的RpcMethod执行，执行结果或异常信息作为响应返回，响应的request_id与请求相同
+ *
+ * @author zhou
+ */
+@Component
+@Slf4j
+public class RpcDispatcher {
+
+    private final Map<String, RpcMethod> methods = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        // 原样返回请求体
+        register("echo", payload -> payload);
+    }
+
+    /**
+     * 注册方法，相同方法名覆盖
+     *
+     * @param method    方法名
+     * @param rpcMethod 方法
+     */
+    public void register(String method, RpcMethod rpcMethod) {
+        methods.put(method, rpcMethod);
+    }
+
+    /**
+     * 执行请求
+     *
+     * @param request 请求
+     * @return 响应
+     */
+    public UserMsg.Envelope dispatch(UserMsg.Envelope request) {
+        RpcMethod rpcMethod = methods.get(request.getMethod());
+        if (rpcMethod == null) {
+            return Envelopes.error(request, "未知方法:" + request.getMethod());
+        }
+        try {
+            return Envelopes.response(request, rpcMethod.invoke(request.getPayload()));
+        } catch (Exception e) {
+            log.warn("RPC处理失败,方法:{}", request.getMethod(), e);
+            return Envelopes.error(request, e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+}
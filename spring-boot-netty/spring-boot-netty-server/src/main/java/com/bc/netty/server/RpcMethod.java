@@ -0,0 +1,21 @@
+package com.bc.netty.server;
+
+import com.google.protobuf.ByteString;
+
+/**
+ * RPC方法
+ *
+ * @author zhou
+ */
+@FunctionalInterface
+public interface RpcMethod {
+
+    /**
+     * 处理请求
+     *
+     * @param payload 请求体
+     * @return 响应体
+     * @throws Exception 处理失败，异常信息返回给客户端
+     */
+    ByteString invoke(ByteString payload) throws Exception;
+}
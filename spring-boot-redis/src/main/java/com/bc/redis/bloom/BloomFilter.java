@@ -0,0 +1,78 @@
+package com.bc.redis.bloom;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 布隆过滤器
+ * 判断元素一定不存在或可能存在，不支持删除
+ *
+ * @author zhou
+ */
+public interface BloomFilter {
+
+    /**
+     * 获取布隆过滤器的名称
+     *
+     * @return 名称
+     */
+    String getName();
+
+    /**
+     * 添加元素
+     *
+     * @param value 元素
+     * @return true: 元素之前一定不存在  false: 元素之前可能已存在
+     */
+    boolean add(Object value);
+
+    /**
+     * 批量添加元素，多个元素的SETBIT合并为BITFIELD发送
+     *
+     * @param values 元素
+     * @return 每个元素的添加结果，顺序与values一致
+     */
+    List<Boolean> addAll(Collection<?> values);
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @param value 元素
+     * @return true: 可能存在  false: 一定不存在
+     */
+    boolean mightContain(Object value);
+
+    /**
+     * 批量判断元素是否可能存在，多个元素的GETBIT合并为BITFIELD发送
+     *
+     * @param values 元素
+     * @return 每个元素的判断结果，顺序与values一致
+     */
+    List<Boolean> mightContainAll(Collection<?> values);
+
+    /**
+     * 根据已设置的位数估算添加过的元素数量
+     *
+     * @return 估算的元素数量
+     */
+    long approximateCount();
+
+    /**
+     * 位数组的长度
+     *
+     * @return 位数
+     */
+    long getBitSize();
+
+    /**
+     * 哈希函数的数量
+     *
+     * @return 哈希函数的数量
+     */
+    int getHashFunctions();
+
+    /**
+     * 删除布隆过滤器
+     */
+    void delete();
+}
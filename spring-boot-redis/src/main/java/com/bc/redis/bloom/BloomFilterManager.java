@@ -0,0 +1,123 @@
+package com.bc.redis.bloom;
+
+import com.bc.redis.dao.RedisDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 布隆过滤器管理器
+ * 位图的key为 {前缀}{name}，参数key为 {前缀}{name}:config，保存位数和哈希函数数量
+ * 第一次创建时写入参数，之后各节点按redis中的参数校验，避免不同参数写入同一个位图
+ *
+ * @author zhou
+ */
+@Component
+public class BloomFilterManager {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(BloomFilterManager.class);
+
+    /**
+     * redis字符串最大512MB
+     */
+    private static final long MAX_BIT_SIZE = 1L << 32;
+
+    @Autowired
+    private RedisDao redisDao;
+
+    /**
+     * 布隆过滤器key的前缀
+     */
+    @Value("${spring.redis.bloom.key-prefix:bloom:}")
+    private String keyPrefix;
+
+    /**
+     * 每条BITFIELD命令最多包含的子命令数量，批量操作按此拆分
+     */
+    @Value("${spring.redis.batch.flush-size:1000}")
+    private int chunkSize;
+
+    private final ConcurrentMap<String, RedisBloomFilter> bloomFilters = new ConcurrentHashMap<>();
+
+    /**
+     * 获取布隆过滤器，相同名称返回同一个对象
+     * 位数 m = -n * ln(p) / (ln2)^2，哈希函数数量 k = m / n * ln2，
+     * 例如1亿个元素、1%误判率约需要114MB，远小于用集合保存相同数量的元素
+     *
+     * @param name               名称
+     * @param expectedInsertions 预计元素数量
+     * @param fpp                期望的误判率，0到1之间
+     * @return 布隆过滤器
+     * @throws IllegalStateException 同名布隆过滤器已按不同参数创建
+     */
+    public BloomFilter getBloomFilter(String name, long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be greater than 0");
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("fpp must be between 0 and 1: " + fpp);
+        }
+        long bitSize = optimalBitSize(expectedInsertions, fpp);
+        if (bitSize > MAX_BIT_SIZE) {
+            throw new IllegalArgumentException("bloom filter too large: " + bitSize + " bits, max: " + MAX_BIT_SIZE);
+        }
+        int hashFunctions = optimalHashFunctions(expectedInsertions, bitSize);
+        RedisBloomFilter bloomFilter = bloomFilters.computeIfAbsent(name,
+                filterName -> create(filterName, bitSize, hashFunctions));
+        if (bloomFilter.getBitSize() != bitSize || bloomFilter.getHashFunctions() != hashFunctions) {
+            throw new IllegalStateException("bloom filter " + name + " already exists with bitSize: "
+                    + bloomFilter.getBitSize() + ", hashFunctions: " + bloomFilter.getHashFunctions());
+        }
+        return bloomFilter;
+    }
+
+    static long optimalBitSize(long expectedInsertions, double fpp) {
+        return (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+    }
+
+    static int optimalHashFunctions(long expectedInsertions, long bitSize) {
+        return Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    private RedisBloomFilter create(String name, long bitSize, int hashFunctions) {
+        String key = keyPrefix + name;
+        String config = bitSize + ":" + hashFunctions;
+        String configKey = key + ":config";
+        if (!redisDao.setIfAbsent(configKey, config)) {
+            Object existing = redisDao.get(configKey);
+            if (existing != null && !config.equals(existing)) {
+                String[] parts = existing.toString().split(":");
+                logger.warn("bloom filter " + name + " exists in redis with config: " + existing);
+                return new RedisBloomFilter(name, key, Long.parseLong(parts[0]), Integer.parseInt(parts[1]), this);
+            }
+        }
+        return new RedisBloomFilter(name, key, bitSize, hashFunctions, this);
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    List<Long> bitField(String key, BitFieldSubCommands subCommands) {
+        return redisDao.bitField(key, subCommands);
+    }
+
+    long bitCount(String key) {
+        return redisDao.bitCount(key);
+    }
+
+    void delete(RedisBloomFilter bloomFilter) {
+        redisDao.delete(Arrays.asList(bloomFilter.getKey(), bloomFilter.getKey() + ":config"));
+        bloomFilters.remove(bloomFilter.getName(), bloomFilter);
+    }
+}
@@ -0,0 +1,121 @@
+package com.bc.redis.bloom;
+
+/**
+ * MurmurHash3 x64 128位哈希
+ * 布隆过滤器的位偏移由哈希值计算，所有节点必须使用相同的哈希算法，因此不能依赖hashCode
+ * 热点key探测的Count-Min Sketch也用它的两个64位结果做双重哈希
+ *
+ * @author zhou
+ */
+public final class Murmur3 {
+
+    private static final long C1 = 0x87C37B91114253D5L;
+
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    private Murmur3() {
+    }
+
+    /**
+     * 计算128位哈希
+     *
+     * @param data 数据
+     * @return 两个64位哈希值
+     */
+    public static long[] hash128(byte[] data) {
+        long h1 = 0;
+        long h2 = 0;
+        int blocks = data.length / 16;
+        for (int i = 0; i < blocks; i++) {
+            long k1 = getLong(data, i * 16);
+            long k2 = getLong(data, i * 16 + 8);
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52DCE729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495AB5;
+        }
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks * 16;
+        switch (data.length & 15) {
+            case 15:
+                k2 ^= (long) (data[tail + 14] & 0xFF) << 48;
+            case 14:
+                k2 ^= (long) (data[tail + 13] & 0xFF) << 40;
+            case 13:
+                k2 ^= (long) (data[tail + 12] & 0xFF) << 32;
+            case 12:
+                k2 ^= (long) (data[tail + 11] & 0xFF) << 24;
+            case 11:
+                k2 ^= (long) (data[tail + 10] & 0xFF) << 16;
+            case 10:
+                k2 ^= (long) (data[tail + 9] & 0xFF) << 8;
+            case 9:
+                k2 ^= data[tail + 8] & 0xFF;
+                h2 ^= mixK2(k2);
+            case 8:
+                k1 ^= (long) (data[tail + 7] & 0xFF) << 56;
+            case 7:
+                k1 ^= (long) (data[tail + 6] & 0xFF) << 48;
+            case 6:
+                k1 ^= (long) (data[tail + 5] & 0xFF) << 40;
+            case 5:
+                k1 ^= (long) (data[tail + 4] & 0xFF) << 32;
+            case 4:
+                k1 ^= (long) (data[tail + 3] & 0xFF) << 24;
+            case 3:
+                k1 ^= (long) (data[tail + 2] & 0xFF) << 16;
+            case 2:
+                k1 ^= (long) (data[tail + 1] & 0xFF) << 8;
+            case 1:
+                k1 ^= data[tail] & 0xFF;
+                h1 ^= mixK1(k1);
+            default:
+                break;
+        }
+        h1 ^= data.length;
+        h2 ^= data.length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[]{h1, h2};
+    }
+
+    private static long getLong(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
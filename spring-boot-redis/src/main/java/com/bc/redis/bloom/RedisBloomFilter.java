@@ -0,0 +1,149 @@
+package com.bc.redis.bloom;
+
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * 基于redis位图的布隆过滤器
+ * 元素按MurmurHash3计算两个64位哈希h1、h2，第i个位偏移为 (h1 + i * h2) % bitSize
+ * 一个元素的k次SETBIT/GETBIT以及批量操作中多个元素的位操作合并为一条BITFIELD命令，
+ * 一次往返完成且在集群模式下同样可用
+ *
+ * @author zhou
+ */
+class RedisBloomFilter implements BloomFilter {
+
+    private static final BitFieldSubCommands.BitFieldType BIT = BitFieldSubCommands.BitFieldType.unsigned(1);
+
+    private final String name;
+
+    private final String key;
+
+    private final long bitSize;
+
+    private final int hashFunctions;
+
+    private final BloomFilterManager manager;
+
+    RedisBloomFilter(String name, String key, long bitSize, int hashFunctions, BloomFilterManager manager) {
+        this.name = name;
+        this.key = key;
+        this.bitSize = bitSize;
+        this.hashFunctions = hashFunctions;
+        this.manager = manager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean add(Object value) {
+        return addAll(Collections.singletonList(value)).get(0);
+    }
+
+    @Override
+    public List<Boolean> addAll(Collection<?> values) {
+        // SETBIT返回原来的值，只要有一位原来为0，元素之前就一定不存在
+        return execute(values, (subCommands, offset) -> subCommands.set(BIT).valueAt(offset).to(1), false);
+    }
+
+    @Override
+    public boolean mightContain(Object value) {
+        return mightContainAll(Collections.singletonList(value)).get(0);
+    }
+
+    @Override
+    public List<Boolean> mightContainAll(Collection<?> values) {
+        // 所有位都为1时元素可能存在
+        return execute(values, (subCommands, offset) -> subCommands.get(BIT).valueAt(offset), true);
+    }
+
+    @Override
+    public long approximateCount() {
+        long bitCount = manager.bitCount(key);
+        if (bitCount >= bitSize) {
+            return Long.MAX_VALUE;
+        }
+        return Math.round(-(double) bitSize / hashFunctions * Math.log(1 - (double) bitCount / bitSize));
+    }
+
+    @Override
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    @Override
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    @Override
+    public void delete() {
+        manager.delete(this);
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * 按chunkSize个子命令一组，把多个元素的位操作合并为BITFIELD发送
+     * 每个元素对应hashFunctions个结果，allSet为true时要求全部为1，为false时要求存在0
+     */
+    private List<Boolean> execute(Collection<?> values,
+                                  BiFunction<BitFieldSubCommands, Long, BitFieldSubCommands> subCommand,
+                                  boolean allSet) {
+        int valuesPerCommand = Math.max(1, manager.getChunkSize() / hashFunctions);
+        List<Boolean> answers = new ArrayList<>(values.size());
+        Iterator<?> iterator = values.iterator();
+        while (iterator.hasNext()) {
+            BitFieldSubCommands subCommands = BitFieldSubCommands.create();
+            int count = 0;
+            while (iterator.hasNext() && count < valuesPerCommand) {
+                for (long offset : offsets(iterator.next())) {
+                    subCommands = subCommand.apply(subCommands, offset);
+                }
+                count++;
+            }
+            List<Long> bits = manager.bitField(key, subCommands);
+            for (int i = 0; i < count; i++) {
+                boolean all = true;
+                for (int j = 0; j < hashFunctions && all; j++) {
+                    all = bits.get(i * hashFunctions + j) == 1;
+                }
+                answers.add(allSet == all);
+            }
+        }
+        return answers;
+    }
+
+    private long[] offsets(Object value) {
+        long[] hash = Murmur3.hash128(toBytes(value));
+        long[] offsets = new long[hashFunctions];
+        long combined = hash[0];
+        for (int i = 0; i < hashFunctions; i++) {
+            offsets[i] = (combined & Long.MAX_VALUE) % bitSize;
+            combined += hash[1];
+        }
+        return offsets;
+    }
+
+    /**
+     * byte[]原样使用，其他元素按字符串计算哈希，结果与value序列化器无关
+     */
+    private static byte[] toBytes(Object value) {
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,29 @@
+package com.bc.redis.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 支持批量读写的缓存
+ *
+ * @author zhou
+ */
+public interface BatchCache extends Cache {
+
+    /**
+     * 批量读取
+     *
+     * @param keys 键
+     * @return 命中的键和值，未命中的键不在结果中；缓存了null值的键对应的ValueWrapper.get()为null
+     */
+    Map<Object, ValueWrapper> getAll(Collection<?> keys);
+
+    /**
+     * 批量写入
+     *
+     * @param entries 键和值
+     */
+    void putAll(Map<?, ?> entries);
+}
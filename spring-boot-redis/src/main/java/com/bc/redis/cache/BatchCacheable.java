@@ -0,0 +1,36 @@
+package com.bc.redis.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 批量缓存
+ * 标注在按一组id批量查询的方法上，方法参数中有一个id集合，返回值为Map(id -> 值)
+ * 先批量读取缓存，只用未命中的id调用方法，再把方法返回的结果批量写入缓存
+ * 每个id单独缓存，key与@Cacheable(cacheNames = "...", key = "#id")一致，单个查询和批量查询可以共用缓存
+ *
+ * @author zhou
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface BatchCacheable {
+
+    /**
+     * 缓存名称
+     */
+    String cacheName();
+
+    /**
+     * id集合在方法参数中的位置
+     */
+    int keysIndex() default 0;
+
+    /**
+     * 缓存key的前缀，默认直接使用id作为key
+     */
+    String keyPrefix() default "";
+}
@@ -0,0 +1,129 @@
+package com.bc.redis.cache;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 处理@BatchCacheable
+ * 缓存读写失败时直接调用方法，不影响业务
+ *
+ * @author zhou
+ */
+@Aspect
+@Component
+public class BatchCacheableAspect {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(BatchCacheableAspect.class);
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Around("@annotation(batchCacheable)")
+    public Object around(ProceedingJoinPoint joinPoint, BatchCacheable batchCacheable) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        int index = batchCacheable.keysIndex();
+        if (index >= args.length || !(args[index] instanceof Collection)) {
+            throw new IllegalStateException("@BatchCacheable requires a Collection argument at index " + index
+                    + ": " + joinPoint.getSignature());
+        }
+        Collection<?> ids = (Collection<?>) args[index];
+        Cache cache = cacheManager.getCache(batchCacheable.cacheName());
+        if (cache == null || ids.isEmpty()) {
+            return joinPoint.proceed();
+        }
+        Map<Object, Object> cacheKeys = new LinkedHashMap<>(ids.size() * 2);
+        for (Object id : ids) {
+            cacheKeys.put(id, cacheKey(batchCacheable.keyPrefix(), id));
+        }
+        Map<Object, Cache.ValueWrapper> cached = getAll(cache, cacheKeys.values());
+
+        List<Object> missingIds = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : cacheKeys.entrySet()) {
+            if (!cached.containsKey(entry.getValue())) {
+                missingIds.add(entry.getKey());
+            }
+        }
+        Map<?, ?> loaded = null;
+        if (!missingIds.isEmpty()) {
+            Object[] missingArgs = args.clone();
+            missingArgs[index] = ids instanceof Set ? new LinkedHashSet<>(missingIds) : missingIds;
+            loaded = (Map<?, ?>) joinPoint.proceed(missingArgs);
+            if (loaded != null && !loaded.isEmpty()) {
+                Map<Object, Object> entries = new LinkedHashMap<>(loaded.size() * 2);
+                for (Object id : missingIds) {
+                    if (loaded.containsKey(id)) {
+                        entries.put(cacheKeys.get(id), loaded.get(id));
+                    }
+                }
+                putAll(cache, entries);
+            }
+        }
+
+        // 按传入id的顺序合并缓存命中和方法返回的结果
+        Map<Object, Object> result = new LinkedHashMap<>(ids.size() * 2);
+        for (Map.Entry<Object, Object> entry : cacheKeys.entrySet()) {
+            Cache.ValueWrapper valueWrapper = cached.get(entry.getValue());
+            if (valueWrapper != null) {
+                result.put(entry.getKey(), valueWrapper.get());
+            } else if (loaded != null && loaded.containsKey(entry.getKey())) {
+                result.put(entry.getKey(), loaded.get(entry.getKey()));
+            }
+        }
+        return result;
+    }
+
+    private static Object cacheKey(String keyPrefix, Object id) {
+        return keyPrefix.isEmpty() ? id : keyPrefix + id;
+    }
+
+    private Map<Object, Cache.ValueWrapper> getAll(Cache cache, Collection<Object> keys) {
+        try {
+            if (cache instanceof BatchCache) {
+                return ((BatchCache) cache).getAll(keys);
+            }
+            Map<Object, Cache.ValueWrapper> result = new HashMap<>(keys.size() * 2);
+            for (Object key : keys) {
+                Cache.ValueWrapper valueWrapper = cache.get(key);
+                if (valueWrapper != null) {
+                    result.put(key, valueWrapper);
+                }
+            }
+            return result;
+        } catch (RuntimeException e) {
+            logger.error("batch cache get error: " + e.getMessage() + ", cacheName: " + cache.getName());
+            return new HashMap<>(0);
+        }
+    }
+
+    private void putAll(Cache cache, Map<Object, Object> entries) {
+        try {
+            if (cache instanceof BatchCache) {
+                ((BatchCache) cache).putAll(entries);
+                return;
+            }
+            for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+                cache.put(entry.getKey(), entry.getValue());
+            }
+        } catch (RuntimeException e) {
+            logger.error("batch cache put error: " + e.getMessage() + ", cacheName: " + cache.getName());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.bc.redis.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 支持批量读写的redis缓存
+ * getAll使用一次MGET，putAll在一个pipeline中发送所有带过期时间的SET，每个key的过期时间单独加随机增量
+ * 键和值的格式与RedisCache一致，可以和@Cacheable等注解共用同一个缓存
+ *
+ * @author zhou
+ */
+public class BatchRedisCache extends RedisCache implements BatchCache {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    /**
+     * 过期时间的随机增量比例
+     */
+    private final double ttlJitter;
+
+    protected BatchRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfig,
+                              RedisConnectionFactory connectionFactory, double ttlJitter) {
+        super(name, cacheWriter, cacheConfig);
+        this.connectionFactory = connectionFactory;
+        this.ttlJitter = ttlJitter;
+    }
+
+    @Override
+    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return new HashMap<>(0);
+        }
+        List<Object> keyList = new ArrayList<>(keys);
+        byte[][] rawKeys = new byte[keyList.size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            rawKeys[i] = serializeCacheKey(createCacheKey(keyList.get(i)));
+        }
+        List<byte[]> rawValues;
+        RedisConnection connection = connectionFactory.getConnection();
+        try {
+            rawValues = connection.mGet(rawKeys);
+        } finally {
+            connection.close();
+        }
+        Map<Object, ValueWrapper> result = new LinkedHashMap<>(keyList.size() * 2);
+        if (rawValues == null) {
+            return result;
+        }
+        for (int i = 0; i < rawKeys.length; i++) {
+            byte[] rawValue = rawValues.get(i);
+            if (rawValue != null) {
+                result.put(keyList.get(i), toValueWrapper(deserializeCacheValue(rawValue)));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Map<byte[], byte[]> rawEntries = new LinkedHashMap<>(entries.size() * 2);
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            Object cacheValue = preProcessCacheValue(entry.getValue());
+            if (!isAllowNullValues() && cacheValue == null) {
+                throw new IllegalArgumentException(String.format(
+                        "Cache '%s' does not allow 'null' values. Avoid storing null via '@Cacheable(unless=\"#result == null\")' or configure RedisCache to allow 'null' via RedisCacheConfiguration.",
+                        getName()));
+            }
+            rawEntries.put(serializeCacheKey(createCacheKey(entry.getKey())), serializeCacheValue(cacheValue));
+        }
+        Duration ttl = getCacheConfiguration().getTtl();
+        boolean shouldExpire = ttl != null && !ttl.isZero() && !ttl.isNegative();
+        RedisConnection connection = connectionFactory.getConnection();
+        try {
+            if (!shouldExpire) {
+                // 集群模式下mSet按slot拆分
+                connection.mSet(rawEntries);
+            } else if (connection instanceof RedisClusterConnection) {
+                // 集群连接不支持pipeline，逐个写入
+                setAll(connection, rawEntries, ttl);
+            } else {
+                connection.openPipeline();
+                try {
+                    setAll(connection, rawEntries, ttl);
+                } finally {
+                    connection.closePipeline();
+                }
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void setAll(RedisConnection connection, Map<byte[], byte[]> rawEntries, Duration ttl) {
+        for (Map.Entry<byte[], byte[]> entry : rawEntries.entrySet()) {
+            Expiration expiration = Expiration.from(JitterRedisCacheWriter.jitter(ttl, ttlJitter).toMillis(),
+                    TimeUnit.MILLISECONDS);
+            connection.set(entry.getKey(), entry.getValue(), expiration, RedisStringCommands.SetOption.upsert());
+        }
+    }
+}
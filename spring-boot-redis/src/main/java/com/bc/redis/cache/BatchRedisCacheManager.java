@@ -0,0 +1,50 @@
+package com.bc.redis.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.util.Map;
+
+/**
+ * 创建BatchRedisCache的redis缓存管理器
+ *
+ * @author zhou
+ */
+public class BatchRedisCacheManager extends RedisCacheManager {
+
+    private final RedisCacheWriter cacheWriter;
+
+    private final RedisConnectionFactory connectionFactory;
+
+    private final RedisCacheConfiguration defaultCacheConfiguration;
+
+    private final CacheExpiryProperties expiryProperties;
+
+    /**
+     * @param connectionFactory           批量读写使用的连接
+     * @param cacheWriter                 单个读写使用的RedisCacheWriter
+     * @param defaultCacheConfiguration   未单独配置的缓存使用的配置
+     * @param initialCacheConfigurations  按缓存名称单独配置
+     * @param expiryProperties            批量写入时过期时间的随机增量
+     */
+    public BatchRedisCacheManager(RedisConnectionFactory connectionFactory, RedisCacheWriter cacheWriter,
+                                  RedisCacheConfiguration defaultCacheConfiguration,
+                                  Map<String, RedisCacheConfiguration> initialCacheConfigurations,
+                                  CacheExpiryProperties expiryProperties) {
+        super(cacheWriter, defaultCacheConfiguration, initialCacheConfigurations);
+        this.cacheWriter = cacheWriter;
+        this.connectionFactory = connectionFactory;
+        this.defaultCacheConfiguration = defaultCacheConfiguration;
+        this.expiryProperties = expiryProperties;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfig) {
+        return new BatchRedisCache(name, cacheWriter,
+                cacheConfig != null ? cacheConfig : defaultCacheConfiguration, connectionFactory,
+                expiryProperties.getJitter(name));
+    }
+}
@@ -0,0 +1,59 @@
+package com.bc.redis.cache;
+
+import java.io.Serializable;
+
+/**
+ * 开启提前刷新时缓存中保存的值
+ * 除了缓存值，还记录加载耗时和逻辑过期时间，用于判断是否提前刷新
+ *
+ * @author zhou
+ */
+public class CacheEnvelope implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Object value;
+
+    /**
+     * 加载耗时(毫秒)
+     */
+    private long delta;
+
+    /**
+     * 逻辑过期时间(毫秒时间戳)
+     */
+    private long expireAt;
+
+    public CacheEnvelope() {
+    }
+
+    public CacheEnvelope(Object value, long delta, long expireAt) {
+        this.value = value;
+        this.delta = delta;
+        this.expireAt = expireAt;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public long getDelta() {
+        return delta;
+    }
+
+    public void setDelta(long delta) {
+        this.delta = delta;
+    }
+
+    public long getExpireAt() {
+        return expireAt;
+    }
+
+    public void setExpireAt(long expireAt) {
+        this.expireAt = expireAt;
+    }
+}
@@ -0,0 +1,147 @@
+package com.bc.redis.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * redis缓存过期配置
+ *
+ * @author zhou
+ */
+@ConfigurationProperties(prefix = "spring.cache.expiry")
+public class CacheExpiryProperties {
+
+    /**
+     * 默认过期时间，为0时不过期
+     */
+    private Duration ttl = Duration.ZERO;
+
+    /**
+     * 过期时间的随机增量比例，实际过期时间在 [ttl, ttl * (1 + jitter)) 之间，避免同一批写入的key同时过期
+     */
+    private double jitter = 0.1;
+
+    /**
+     * 提前刷新(XFetch)的系数，越大越早刷新，为0时不提前刷新
+     */
+    private double earlyRefreshBeta = 1.0;
+
+    /**
+     * 同一个key正在被其他线程加载时的最长等待时间，超时后自己加载
+     */
+    private Duration loadTimeout = Duration.ofSeconds(5);
+
+    /**
+     * 按缓存名称单独配置，未配置的属性使用上面的默认值
+     */
+    private Map<String, Spec> caches = new HashMap<>();
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    public double getEarlyRefreshBeta() {
+        return earlyRefreshBeta;
+    }
+
+    public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+        this.earlyRefreshBeta = earlyRefreshBeta;
+    }
+
+    public Duration getLoadTimeout() {
+        return loadTimeout;
+    }
+
+    public void setLoadTimeout(Duration loadTimeout) {
+        this.loadTimeout = loadTimeout;
+    }
+
+    public Map<String, Spec> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, Spec> caches) {
+        this.caches = caches;
+    }
+
+    /**
+     * 获取指定缓存的过期时间
+     *
+     * @param cacheName 缓存名称
+     * @return 过期时间
+     */
+    public Duration getTtl(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getTtl() != null ? spec.getTtl() : ttl;
+    }
+
+    /**
+     * 获取指定缓存的过期时间随机增量比例
+     *
+     * @param cacheName 缓存名称
+     * @return 随机增量比例
+     */
+    public double getJitter(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getJitter() != null ? spec.getJitter() : jitter;
+    }
+
+    /**
+     * 获取指定缓存的提前刷新系数
+     *
+     * @param cacheName 缓存名称
+     * @return 提前刷新系数
+     */
+    public double getEarlyRefreshBeta(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getEarlyRefreshBeta() != null ? spec.getEarlyRefreshBeta() : earlyRefreshBeta;
+    }
+
+    /**
+     * 单个缓存的配置
+     */
+    public static class Spec {
+        private Duration ttl;
+        private Double jitter;
+        private Double earlyRefreshBeta;
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Double getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(Double jitter) {
+            this.jitter = jitter;
+        }
+
+        public Double getEarlyRefreshBeta() {
+            return earlyRefreshBeta;
+        }
+
+        public void setEarlyRefreshBeta(Double earlyRefreshBeta) {
+            this.earlyRefreshBeta = earlyRefreshBeta;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.bc.redis.cache;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 节点间的缓存失效通知
+ *
+ * @author zhou
+ */
+public class CacheInvalidationMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 发出通知的节点，节点忽略自己发出的通知
+     */
+    private String nodeId;
+
+    /**
+     * 缓存名称
+     */
+    private String cacheName;
+
+    /**
+     * 失效的key，为null时表示清空整个缓存
+     */
+    private Object key;
+
+    /**
+     * 批量失效的key，不为null时忽略key
+     */
+    private List<Object> keys;
+
+    public CacheInvalidationMessage() {
+    }
+
+    public CacheInvalidationMessage(String nodeId, String cacheName, Object key) {
+        this.nodeId = nodeId;
+        this.cacheName = cacheName;
+        this.key = key;
+    }
+
+    public CacheInvalidationMessage(String nodeId, String cacheName, List<Object> keys) {
+        this.nodeId = nodeId;
+        this.cacheName = cacheName;
+        this.keys = keys;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public void setCacheName(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public void setKey(Object key) {
+        this.key = key;
+    }
+
+    public List<Object> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<Object> keys) {
+        this.keys = keys;
+    }
+}
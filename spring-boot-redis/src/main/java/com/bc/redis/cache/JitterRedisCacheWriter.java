@@ -0,0 +1,65 @@
+package com.bc.redis.cache;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 给过期时间加随机增量的RedisCacheWriter
+ * 缓存被清空后同一批重新写入的key过期时间错开，不会在同一时刻一起失效
+ *
+ * @author zhou
+ */
+public class JitterRedisCacheWriter implements RedisCacheWriter {
+
+    private final RedisCacheWriter delegate;
+
+    private final CacheExpiryProperties properties;
+
+    public JitterRedisCacheWriter(RedisCacheWriter delegate, CacheExpiryProperties properties) {
+        this.delegate = delegate;
+        this.properties = properties;
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, jitter(ttl, properties.getJitter(name)));
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return delegate.get(name, key);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.putIfAbsent(name, key, value, jitter(ttl, properties.getJitter(name)));
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        delegate.remove(name, key);
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        delegate.clean(name, pattern);
+    }
+
+    /**
+     * 在 [ttl, ttl * (1 + jitter)) 之间随机取一个过期时间
+     *
+     * @param ttl    过期时间，为null或0时不过期
+     * @param jitter 随机增量比例
+     * @return 加上随机增量的过期时间
+     */
+    static Duration jitter(Duration ttl, double jitter) {
+        if (ttl == null || ttl.isZero() || ttl.isNegative() || jitter <= 0) {
+            return ttl;
+        }
+        long millis = ttl.toMillis();
+        long bound = (long) (millis * jitter);
+        return bound <= 0 ? ttl : Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(bound));
+    }
+}
@@ -0,0 +1,184 @@
+package com.bc.redis.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 二级缓存
+ * 读: 先读本地缓存，未命中再读redis并回填本地缓存
+ * 写: 写redis和本地缓存，并通知其他节点失效本地缓存
+ * redis缓存是BatchCache时，批量读写只对本地未命中的key访问一次redis
+ *
+ * @author zhou
+ */
+public class NearCache implements BatchCache {
+
+    private final Cache redisCache;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache;
+
+    private final NearCacheManager cacheManager;
+
+    NearCache(Cache redisCache, com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache,
+              NearCacheManager cacheManager) {
+        this.redisCache = redisCache;
+        this.localCache = localCache;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String getName() {
+        return redisCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object localValue = localCache.getIfPresent(key);
+        if (localValue != null) {
+            return new SimpleValueWrapper(fromStoreValue(localValue));
+        }
+        ValueWrapper valueWrapper = redisCache.get(key);
+        if (valueWrapper != null) {
+            localCache.put(key, toStoreValue(valueWrapper.get()));
+        }
+        return valueWrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper valueWrapper = get(key);
+        Object value = valueWrapper != null ? valueWrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object localValue = localCache.getIfPresent(key);
+        if (localValue != null) {
+            return (T) fromStoreValue(localValue);
+        }
+        T value = redisCache.get(key, valueLoader);
+        localCache.put(key, toStoreValue(value));
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redisCache.put(key, value);
+        localCache.put(key, toStoreValue(value));
+        cacheManager.publishInvalidation(getName(), key);
+    }
+
+    @Override
+    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+        Map<Object, ValueWrapper> result = new LinkedHashMap<>(keys.size() * 2);
+        List<Object> missingKeys = new ArrayList<>();
+        for (Object key : keys) {
+            Object localValue = localCache.getIfPresent(key);
+            if (localValue != null) {
+                result.put(key, new SimpleValueWrapper(fromStoreValue(localValue)));
+            } else {
+                missingKeys.add(key);
+            }
+        }
+        if (missingKeys.isEmpty()) {
+            return result;
+        }
+        if (redisCache instanceof BatchCache) {
+            Map<Object, ValueWrapper> redisValues = ((BatchCache) redisCache).getAll(missingKeys);
+            for (Map.Entry<Object, ValueWrapper> entry : redisValues.entrySet()) {
+                localCache.put(entry.getKey(), toStoreValue(entry.getValue().get()));
+                result.put(entry.getKey(), entry.getValue());
+            }
+        } else {
+            for (Object key : missingKeys) {
+                ValueWrapper valueWrapper = get(key);
+                if (valueWrapper != null) {
+                    result.put(key, valueWrapper);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (redisCache instanceof BatchCache) {
+            ((BatchCache) redisCache).putAll(entries);
+        } else {
+            for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                redisCache.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            localCache.put(entry.getKey(), toStoreValue(entry.getValue()));
+        }
+        cacheManager.publishInvalidation(getName(), new ArrayList<>(entries.keySet()));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = redisCache.putIfAbsent(key, value);
+        localCache.invalidate(key);
+        if (existing == null) {
+            cacheManager.publishInvalidation(getName(), key);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        localCache.invalidate(key);
+        cacheManager.publishInvalidation(getName(), key);
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        localCache.invalidateAll();
+        cacheManager.publishInvalidation(getName(), null);
+    }
+
+    /**
+     * 只失效本地缓存，收到其他节点的通知时调用
+     *
+     * @param key 键，为null时清空本地缓存
+     */
+    void invalidateLocal(Object key) {
+        if (key == null) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(key);
+        }
+    }
+
+    private static Object toStoreValue(Object value) {
+        return value == null ? NullValue.INSTANCE : value;
+    }
+
+    private static Object fromStoreValue(Object storeValue) {
+        return storeValue == NullValue.INSTANCE ? null : storeValue;
+    }
+}
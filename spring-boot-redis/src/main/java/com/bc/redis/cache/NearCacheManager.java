@@ -0,0 +1,129 @@
+package com.bc.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 二级缓存管理器
+ * 在redis缓存管理器之上为每个缓存加一层有界的本地缓存(caffeine)
+ * 缓存写入或失效时通过redis频道通知其他节点失效本地缓存
+ *
+ * @author zhou
+ */
+public class NearCacheManager implements CacheManager, MessageListener {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheManager.class);
+
+    /**
+     * 当前节点的唯一标识
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final CacheManager redisCacheManager;
+
+    private final NearCacheProperties properties;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final ConcurrentMap<String, NearCache> cacheMap = new ConcurrentHashMap<>();
+
+    public NearCacheManager(CacheManager redisCacheManager, NearCacheProperties properties,
+                            RedisTemplate<String, Object> redisTemplate) {
+        this.redisCacheManager = redisCacheManager;
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        NearCache cache = cacheMap.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        return cacheMap.computeIfAbsent(name, cacheName -> new NearCache(redisCache,
+                Caffeine.newBuilder()
+                        .maximumSize(properties.getMaximumSize(cacheName))
+                        .expireAfterWrite(properties.getExpireAfterWrite(cacheName))
+                        .build(), this));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    /**
+     * 通知其他节点失效本地缓存
+     *
+     * @param cacheName 缓存名称
+     * @param key       键，为null时表示清空整个缓存
+     */
+    void publishInvalidation(String cacheName, Object key) {
+        try {
+            redisTemplate.convertAndSend(properties.getChannel(),
+                    new CacheInvalidationMessage(nodeId, cacheName, key));
+        } catch (Exception e) {
+            logger.error("publish cache invalidation error: " + e.getMessage() + ", cacheName: " + cacheName
+                    + ", key: " + key);
+        }
+    }
+
+    /**
+     * 通知其他节点批量失效本地缓存，所有key合并为一条通知
+     *
+     * @param cacheName 缓存名称
+     * @param keys      键
+     */
+    void publishInvalidation(String cacheName, List<Object> keys) {
+        try {
+            redisTemplate.convertAndSend(properties.getChannel(), new CacheInvalidationMessage(nodeId, cacheName, keys));
+        } catch (Exception e) {
+            logger.error("publish cache invalidation error: " + e.getMessage() + ", cacheName: " + cacheName
+                    + ", keys: " + keys.size());
+        }
+    }
+
+    /**
+     * 收到其他节点的失效通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (!(body instanceof CacheInvalidationMessage)) {
+            return;
+        }
+        CacheInvalidationMessage invalidation = (CacheInvalidationMessage) body;
+        if (nodeId.equals(invalidation.getNodeId())) {
+            return;
+        }
+        NearCache cache = cacheMap.get(invalidation.getCacheName());
+        if (cache == null) {
+            return;
+        }
+        if (invalidation.getKeys() != null) {
+            for (Object key : invalidation.getKeys()) {
+                cache.invalidateLocal(key);
+            }
+        } else {
+            cache.invalidateLocal(invalidation.getKey());
+        }
+    }
+}
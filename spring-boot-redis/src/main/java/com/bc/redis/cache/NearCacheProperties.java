@@ -0,0 +1,127 @@
+package com.bc.redis.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 二级缓存(本地缓存 + redis)配置
+ *
+ * @author zhou
+ */
+@ConfigurationProperties(prefix = "spring.cache.near")
+public class NearCacheProperties {
+
+    /**
+     * 是否启用本地缓存
+     */
+    private boolean enabled = false;
+
+    /**
+     * 每个缓存的本地最大条目数
+     */
+    private long maximumSize = 10000;
+
+    /**
+     * 本地缓存写入后的过期时间
+     */
+    private Duration expireAfterWrite = Duration.ofSeconds(60);
+
+    /**
+     * 节点间缓存失效通知的redis频道
+     */
+    private String channel = "cache:near:invalidate";
+
+    /**
+     * 按缓存名称单独配置，未配置的属性使用上面的默认值
+     */
+    private Map<String, Spec> caches = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public Map<String, Spec> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, Spec> caches) {
+        this.caches = caches;
+    }
+
+    /**
+     * 获取指定缓存的最大条目数
+     *
+     * @param cacheName 缓存名称
+     * @return 最大条目数
+     */
+    public long getMaximumSize(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getMaximumSize() != null ? spec.getMaximumSize() : maximumSize;
+    }
+
+    /**
+     * 获取指定缓存的过期时间
+     *
+     * @param cacheName 缓存名称
+     * @return 过期时间
+     */
+    public Duration getExpireAfterWrite(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getExpireAfterWrite() != null ? spec.getExpireAfterWrite() : expireAfterWrite;
+    }
+
+    /**
+     * 单个缓存的配置
+     */
+    public static class Spec {
+        private Long maximumSize;
+        private Duration expireAfterWrite;
+
+        public Long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(Long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.bc.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 防缓存击穿
+ * 单飞加载: @Cacheable(sync = true)时，同一节点上一个key同时只有一个调用方执行加载，其他调用方等待加载结果
+ * 提前刷新(XFetch): 缓存值记录加载耗时delta和逻辑过期时间expireAt，
+ * 读取时若 now - delta * beta * ln(random) >= expireAt 则由一个调用方提前重新加载，其他调用方继续读旧值
+ * 加载越慢、离过期越近，提前刷新的概率越大；缓存不过期或beta为0时不提前刷新，直接保存原值
+ * <p>
+ * 未加sync的@Cacheable先get再put，get未命中时只记录开始时间用于计算delta，不阻塞其他调用方
+ *
+ * @author zhou
+ */
+public class StampedeProtectedCache implements BatchCache {
+
+    private final Cache delegate;
+
+    /**
+     * 逻辑过期时间(毫秒)，为0时不提前刷新
+     */
+    private final long ttlMillis;
+
+    private final double beta;
+
+    private final long loadTimeoutMillis;
+
+    /**
+     * sync加载中的key
+     */
+    private final ConcurrentMap<Object, Flight> flights = new ConcurrentHashMap<>();
+
+    /**
+     * 非sync方式下get未命中或需要提前刷新的key及开始时间，put时移除
+     * 加载方异常退出不会put，loadTimeout后自动过期
+     */
+    private final ConcurrentMap<Object, Long> loading;
+
+    StampedeProtectedCache(Cache delegate, Duration ttl, double beta, Duration loadTimeout) {
+        this.delegate = delegate;
+        this.ttlMillis = ttl == null || ttl.isNegative() ? 0 : ttl.toMillis();
+        this.beta = beta;
+        this.loadTimeoutMillis = loadTimeout.toMillis();
+        this.loading = Caffeine.newBuilder()
+                .expireAfterWrite(loadTimeout)
+                .maximumSize(10000)
+                .<Object, Long>build()
+                .asMap();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper valueWrapper = delegate.get(key);
+        if (valueWrapper == null) {
+            loading.putIfAbsent(key, System.currentTimeMillis());
+            return null;
+        }
+        Object value = valueWrapper.get();
+        if (!(value instanceof CacheEnvelope)) {
+            return valueWrapper;
+        }
+        CacheEnvelope envelope = (CacheEnvelope) value;
+        // 需要提前刷新且没有其他调用方在刷新时返回未命中，由当前调用方重新加载后put
+        if (shouldRefreshEarly(envelope) && loading.putIfAbsent(key, System.currentTimeMillis()) == null) {
+            return null;
+        }
+        return new SimpleValueWrapper(envelope.getValue());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper valueWrapper = get(key);
+        Object value = valueWrapper != null ? valueWrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper valueWrapper = delegate.get(key);
+        CacheEnvelope stale = null;
+        if (valueWrapper != null) {
+            Object value = valueWrapper.get();
+            if (!(value instanceof CacheEnvelope)) {
+                return (T) value;
+            }
+            stale = (CacheEnvelope) value;
+            if (!shouldRefreshEarly(stale)) {
+                return (T) stale.getValue();
+            }
+        }
+        Flight flight = new Flight();
+        Flight existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            // 其他调用方正在加载: 有旧值时直接返回旧值，否则等待加载结果，加载失败或超时后自己加载
+            if (stale != null) {
+                return (T) stale.getValue();
+            }
+            ValueWrapper loaded = await(existing);
+            if (loaded != null) {
+                return (T) loaded.get();
+            }
+            flight = null;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            T value = valueLoader.call();
+            delegate.put(key, wrap(value, System.currentTimeMillis() - start));
+            if (flight != null) {
+                flight.future.complete(new SimpleValueWrapper(value));
+            }
+            return value;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            if (flight != null) {
+                flights.remove(key, flight);
+                flight.future.complete(null);
+            }
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Long start = loading.remove(key);
+        delegate.put(key, wrap(value, start != null ? System.currentTimeMillis() - start : 0));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, wrap(value, 0));
+        if (existing == null) {
+            return null;
+        }
+        Object existingValue = existing.get();
+        return existingValue instanceof CacheEnvelope
+                ? new SimpleValueWrapper(((CacheEnvelope) existingValue).getValue()) : existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+        Map<Object, ValueWrapper> values;
+        if (delegate instanceof BatchCache) {
+            values = ((BatchCache) delegate).getAll(keys);
+        } else {
+            values = new HashMap<>(keys.size() * 2);
+            for (Object key : keys) {
+                ValueWrapper valueWrapper = delegate.get(key);
+                if (valueWrapper != null) {
+                    values.put(key, valueWrapper);
+                }
+            }
+        }
+        long now = System.currentTimeMillis();
+        Map<Object, ValueWrapper> result = new LinkedHashMap<>(values.size() * 2);
+        for (Object key : keys) {
+            ValueWrapper valueWrapper = values.get(key);
+            if (valueWrapper == null) {
+                loading.putIfAbsent(key, now);
+                continue;
+            }
+            Object value = valueWrapper.get();
+            if (!(value instanceof CacheEnvelope)) {
+                result.put(key, valueWrapper);
+                continue;
+            }
+            CacheEnvelope envelope = (CacheEnvelope) value;
+            // 需要提前刷新的key当作未命中，由调用方重新加载后putAll
+            if (shouldRefreshEarly(envelope) && loading.putIfAbsent(key, now) == null) {
+                continue;
+            }
+            result.put(key, new SimpleValueWrapper(envelope.getValue()));
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        long now = System.currentTimeMillis();
+        Map<Object, Object> wrapped = new LinkedHashMap<>(entries.size() * 2);
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            Long start = loading.remove(entry.getKey());
+            wrapped.put(entry.getKey(), wrap(entry.getValue(), start != null ? now - start : 0));
+        }
+        if (delegate instanceof BatchCache) {
+            ((BatchCache) delegate).putAll(wrapped);
+        } else {
+            for (Map.Entry<Object, Object> entry : wrapped.entrySet()) {
+                delegate.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * XFetch: now - delta * beta * ln(random) >= expireAt
+     */
+    private boolean shouldRefreshEarly(CacheEnvelope envelope) {
+        if (envelope.getDelta() <= 0) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return System.currentTimeMillis() - envelope.getDelta() * beta * Math.log(random) >= envelope.getExpireAt();
+    }
+
+    private Object wrap(Object value, long delta) {
+        if (ttlMillis <= 0 || beta <= 0) {
+            return value;
+        }
+        return new CacheEnvelope(value, delta, System.currentTimeMillis() + ttlMillis);
+    }
+
+    /**
+     * 等待其他调用方的加载结果，超时或加载失败时返回null
+     */
+    private ValueWrapper await(Flight flight) {
+        try {
+            return flight.future.get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 一次sync加载
+     */
+    private static class Flight {
+
+        private final CompletableFuture<ValueWrapper> future = new CompletableFuture<>();
+    }
+}
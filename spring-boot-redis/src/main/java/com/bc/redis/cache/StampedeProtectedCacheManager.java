@@ -0,0 +1,46 @@
+package com.bc.redis.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 为每个缓存加上单飞加载和提前刷新
+ *
+ * @author zhou
+ */
+public class StampedeProtectedCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+
+    private final CacheExpiryProperties properties;
+
+    private final ConcurrentMap<String, StampedeProtectedCache> cacheMap = new ConcurrentHashMap<>();
+
+    public StampedeProtectedCacheManager(CacheManager delegate, CacheExpiryProperties properties) {
+        this.delegate = delegate;
+        this.properties = properties;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        StampedeProtectedCache cache = cacheMap.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache delegateCache = delegate.getCache(name);
+        if (delegateCache == null) {
+            return null;
+        }
+        return cacheMap.computeIfAbsent(name, cacheName -> new StampedeProtectedCache(delegateCache,
+                properties.getTtl(cacheName), properties.getEarlyRefreshBeta(cacheName), properties.getLoadTimeout()));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
@@ -0,0 +1,61 @@
+package com.bc.redis.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.util.Pool;
+
+import java.util.Map;
+
+/**
+ * 启动时预先建立minIdle个jedis连接
+ * 连接池默认在第一次借出时才建立连接，发布后的第一批请求要等待TCP握手和AUTH，造成延迟尖峰
+ * 预热的是JedisConnectionFactory实际处理请求的连接池，集群模式下每个节点的连接池都预热
+ * 所有单例创建完成后、开始接收请求前执行，建立连接失败只打印日志，不影响启动
+ *
+ * @author zhou
+ */
+@Component
+@ConditionalOnProperty(name = "spring.redis.jedis.pool.warm-up", havingValue = "true", matchIfMissing = true)
+public class JedisPoolWarmUp implements SmartInitializingSingleton {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(JedisPoolWarmUp.class);
+
+    @Value("${spring.redis.jedis.pool.min-idle:0}")
+    private int minIdle;
+
+    @Autowired(required = false)
+    private PooledJedisConnectionFactory jedisConnectionFactory;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (minIdle <= 0 || jedisConnectionFactory == null) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Map<String, Pool<Jedis>> pools = jedisConnectionFactory.getPools();
+        for (Map.Entry<String, Pool<Jedis>> entry : pools.entrySet()) {
+            warmUp(entry.getKey(), entry.getValue());
+        }
+        logger.info("warm up jedis pool finished, pools: " + pools.size() + ", minIdle: " + minIdle + ", cost: "
+                + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private void warmUp(String name, Pool<Jedis> pool) {
+        try {
+            int missing = minIdle - pool.getNumIdle();
+            if (missing > 0) {
+                pool.addObjects(missing);
+            }
+        } catch (Exception e) {
+            logger.warn("warm up " + name + " error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.bc.redis.config;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.sentinel.api.StatefulRedisSentinelConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisNode;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 原生lettuce客户端，用于spring-data-redis 2.1和jedis 2.9不支持的命令: stream、CLIENT TRACKING和GEOSEARCH
+ * 按lettuceConnectionFactory的配置(单机/哨兵/集群)创建，与具体功能无关，各功能只使用它的连接和编解码
+ * 非阻塞命令共用一个连接；阻塞命令(如XREADGROUP BLOCK)和有状态的连接(如开启tracking)使用connect()创建的独立连接
+ * key和字段名按UTF-8编码，字段值使用redisTemplate的value序列化器，与RedisDao的其他操作一致
+ *
+ * @author zhou
+ */
+@Component
+public class NativeLettuceClient {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(NativeLettuceClient.class);
+
+    @Autowired
+    private LettuceConnectionFactory lettuceConnectionFactory;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${spring.redis.timeout}")
+    private int timeout;
+
+    private AbstractRedisClient client;
+
+    private StatefulConnection<byte[], byte[]> sharedConnection;
+
+    private RedisClusterCommands<byte[], byte[]> sharedCommands;
+
+    private RedisClusterAsyncCommands<byte[], byte[]> sharedAsyncCommands;
+
+    @PostConstruct
+    public void init() {
+        client = createClient();
+        sharedConnection = connect();
+        sharedCommands = commands(sharedConnection);
+        sharedAsyncCommands = asyncCommands(sharedConnection);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        sharedConnection.close();
+        client.shutdown();
+    }
+
+    /**
+     * 共用连接上的命令，不能执行阻塞命令
+     *
+     * @return 命令
+     */
+    public RedisClusterCommands<byte[], byte[]> commands() {
+        return sharedCommands;
+    }
+
+    /**
+     * 共用连接上的异步命令，连续发送的多个命令不等待响应，相当于pipeline
+     *
+     * @return 异步命令
+     */
+    public RedisClusterAsyncCommands<byte[], byte[]> async() {
+        return sharedAsyncCommands;
+    }
+
+    /**
+     * 共用连接的命令超时时间
+     *
+     * @return 超时时间
+     */
+    public Duration getTimeout() {
+        return sharedConnection.getTimeout();
+    }
+
+    /**
+     * 创建独立连接，用完后需要关闭
+     *
+     * @return 连接
+     */
+    public StatefulConnection<byte[], byte[]> connect() {
+        if (client instanceof RedisClusterClient) {
+            return ((RedisClusterClient) client).connect(ByteArrayCodec.INSTANCE);
+        }
+        return ((RedisClient) client).connect(ByteArrayCodec.INSTANCE);
+    }
+
+    /**
+     * 是否集群模式
+     *
+     * @return true: 集群模式
+     */
+    public boolean isCluster() {
+        return client instanceof RedisClusterClient;
+    }
+
+    /**
+     * 当前主节点的地址，哨兵模式下向哨兵查询
+     *
+     * @return 主节点地址
+     */
+    public InetSocketAddress masterAddress() {
+        if (lettuceConnectionFactory.isRedisSentinelAware()) {
+            String master = lettuceConnectionFactory.getSentinelConfiguration().getMaster().getName();
+            try (StatefulRedisSentinelConnection<String, String> sentinel = ((RedisClient) client).connectSentinel()) {
+                return (InetSocketAddress) sentinel.sync().getMasterAddrByName(master);
+            }
+        }
+        return new InetSocketAddress(lettuceConnectionFactory.getHostName(), lettuceConnectionFactory.getPort());
+    }
+
+    /**
+     * 监听连接的断开和重连
+     *
+     * @param listener 监听器
+     */
+    public void addListener(RedisConnectionStateListener listener) {
+        client.addListener(listener);
+    }
+
+    /**
+     * 连接上的同步命令
+     *
+     * @param connection 连接
+     * @return 命令
+     */
+    @SuppressWarnings("unchecked")
+    public static RedisClusterCommands<byte[], byte[]> commands(StatefulConnection<byte[], byte[]> connection) {
+        if (connection instanceof StatefulRedisClusterConnection) {
+            return ((StatefulRedisClusterConnection<byte[], byte[]>) connection).sync();
+        }
+        return ((StatefulRedisConnection<byte[], byte[]>) connection).sync();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisClusterAsyncCommands<byte[], byte[]> asyncCommands(
+            StatefulConnection<byte[], byte[]> connection) {
+        if (connection instanceof StatefulRedisClusterConnection) {
+            return ((StatefulRedisClusterConnection<byte[], byte[]>) connection).async();
+        }
+        return ((StatefulRedisConnection<byte[], byte[]>) connection).async();
+    }
+
+    // ===== codec begin =====
+
+    public byte[] encode(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String decode(byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<byte[], byte[]> encodeFields(Map<String, Object> fields) {
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        Map<byte[], byte[]> body = new LinkedHashMap<>(fields.size() * 2);
+        for (Map.Entry<String, Object> entry : fields.entrySet()) {
+            body.put(encode(entry.getKey()), serializer.serialize(entry.getValue()));
+        }
+        return body;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> decodeFields(Map<byte[], byte[]> body) {
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        Map<String, Object> fields = new LinkedHashMap<>(body.size() * 2);
+        for (Map.Entry<byte[], byte[]> entry : body.entrySet()) {
+            fields.put(decode(entry.getKey()), serializer.deserialize(entry.getValue()));
+        }
+        return fields;
+    }
+
+    // ===== codec end =====
+
+    private AbstractRedisClient createClient() {
+        // 与lettuceConnectionFactory一致，timeout只作为连接超时，命令超时使用默认的60秒，大于XREADGROUP的阻塞时间
+        SocketOptions socketOptions = SocketOptions.builder().connectTimeout(Duration.ofMillis(timeout)).build();
+        String password = lettuceConnectionFactory.getPassword();
+        if (lettuceConnectionFactory.isClusterAware()) {
+            List<RedisURI> uris = new ArrayList<>();
+            for (RedisNode node : lettuceConnectionFactory.getClusterConfiguration().getClusterNodes()) {
+                uris.add(withPassword(RedisURI.builder().withHost(node.getHost()).withPort(node.getPort()), password)
+                        .build());
+            }
+            RedisClusterClient clusterClient = RedisClusterClient.create(uris);
+            clusterClient.setOptions(ClusterClientOptions.builder().socketOptions(socketOptions).build());
+            logger.info("Create native lettuce client, cluster nodes -> [{}]", uris.size());
+            return clusterClient;
+        }
+        RedisURI.Builder builder;
+        if (lettuceConnectionFactory.isRedisSentinelAware()) {
+            RedisSentinelConfiguration sentinelConfiguration = lettuceConnectionFactory.getSentinelConfiguration();
+            builder = null;
+            for (RedisNode sentinel : sentinelConfiguration.getSentinels()) {
+                builder = builder == null
+                        ? RedisURI.Builder.sentinel(sentinel.getHost(), sentinel.getPort(),
+                        sentinelConfiguration.getMaster().getName())
+                        : builder.withSentinel(sentinel.getHost(), sentinel.getPort());
+            }
+        } else {
+            builder = RedisURI.builder()
+                    .withHost(lettuceConnectionFactory.getHostName())
+                    .withPort(lettuceConnectionFactory.getPort());
+        }
+        RedisClient redisClient = RedisClient.create(withPassword(builder, password)
+                .withDatabase(lettuceConnectionFactory.getDatabase())
+                .build());
+        redisClient.setOptions(ClientOptions.builder().socketOptions(socketOptions).build());
+        logger.info("Create native lettuce client successful");
+        return redisClient;
+    }
+
+    private static RedisURI.Builder withPassword(RedisURI.Builder builder, String password) {
+        return StringUtils.hasText(password) ? builder.withPassword(password) : builder;
+    }
+}
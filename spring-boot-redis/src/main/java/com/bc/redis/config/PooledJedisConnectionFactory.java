@@ -0,0 +1,82 @@
+package com.bc.redis.config;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.util.Pool;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 暴露内部连接池的JedisConnectionFactory
+ * redisTemplate、RedisDao和缓存都从这个工厂的连接池借连接，连接池指标和预热都要针对它
+ * JedisConnectionFactory在afterPropertiesSet时才创建连接池且不对外暴露，这里在创建时记下
+ *
+ * @author zhou
+ */
+public class PooledJedisConnectionFactory extends JedisConnectionFactory {
+
+    private volatile Pool<Jedis> pool;
+
+    private volatile JedisCluster cluster;
+
+    public PooledJedisConnectionFactory(RedisStandaloneConfiguration standaloneConfig,
+                                        JedisClientConfiguration clientConfig) {
+        super(standaloneConfig, clientConfig);
+    }
+
+    public PooledJedisConnectionFactory(RedisSentinelConfiguration sentinelConfig,
+                                        JedisClientConfiguration clientConfig) {
+        super(sentinelConfig, clientConfig);
+    }
+
+    public PooledJedisConnectionFactory(RedisClusterConfiguration clusterConfig,
+                                        JedisClientConfiguration clientConfig) {
+        super(clusterConfig, clientConfig);
+    }
+
+    @Override
+    protected Pool<Jedis> createRedisPool() {
+        pool = super.createRedisPool();
+        return pool;
+    }
+
+    @Override
+    protected Pool<Jedis> createRedisSentinelPool(RedisSentinelConfiguration config) {
+        pool = super.createRedisSentinelPool(config);
+        return pool;
+    }
+
+    @Override
+    protected JedisCluster createCluster(RedisClusterConfiguration clusterConfig,
+                                         GenericObjectPoolConfig poolConfig) {
+        cluster = super.createCluster(clusterConfig, poolConfig);
+        return cluster;
+    }
+
+    /**
+     * 实际处理请求的连接池，单机和哨兵模式只有一个，集群模式每个节点一个
+     * 集群拓扑会变化，每次调用都重新获取
+     *
+     * @return key: 节点地址(哨兵模式为master名称)，value: 连接池
+     */
+    public Map<String, Pool<Jedis>> getPools() {
+        if (cluster != null) {
+            return new LinkedHashMap<>(cluster.getClusterNodes());
+        }
+        if (pool != null) {
+            String name = isRedisSentinelAware()
+                    ? getSentinelConfiguration().getMaster().getName()
+                    : getHostName() + ":" + getPort();
+            return Collections.singletonMap(name, pool);
+        }
+        return Collections.emptyMap();
+    }
+}
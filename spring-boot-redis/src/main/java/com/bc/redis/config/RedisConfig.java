@@ -1,13 +1,28 @@
 package com.bc.redis.config;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.bc.redis.cache.BatchRedisCacheManager;
+import com.bc.redis.cache.CacheExpiryProperties;
+import com.bc.redis.cache.JitterRedisCacheWriter;
+import com.bc.redis.cache.NearCacheManager;
+import com.bc.redis.cache.NearCacheProperties;
+import com.bc.redis.cache.StampedeProtectedCacheManager;
+import com.bc.redis.hotkey.HotKeyProperties;
+import com.bc.redis.metrics.MeteredRedisConnectionFactory;
+import com.bc.redis.metrics.MeteredRedisSerializer;
+import com.bc.redis.serializer.RedisSerializerFactory;
+import com.bc.redis.serializer.RedisSerializerProperties;
+import com.bc.redis.tracking.ClientTrackingProperties;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
@@ -16,19 +31,32 @@ import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
-import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
-import redis.clients.jedis.JedisPool;
+import org.springframework.util.StringUtils;
 import redis.clients.jedis.JedisPoolConfig;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 
 /**
@@ -38,6 +66,8 @@ import java.time.Duration;
  */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties({NearCacheProperties.class, CacheExpiryProperties.class,
+        RedisSerializerProperties.class, HotKeyProperties.class, ClientTrackingProperties.class})
 public class RedisConfig extends CachingConfigurerSupport {
 
     /**
@@ -46,63 +76,127 @@ public class RedisConfig extends CachingConfigurerSupport {
     private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
 
     @Autowired
-    private JedisConnectionFactory jedisConnectionFactory;
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @Autowired
+    private LettuceConnectionFactory lettuceConnectionFactory;
+
+    @Autowired
+    private NearCacheProperties nearCacheProperties;
+
+    @Autowired
+    private CacheExpiryProperties cacheExpiryProperties;
+
+    @Autowired
+    private RedisSerializerProperties redisSerializerProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Bean
     @Override
     public KeyGenerator keyGenerator() {
         //  设置自动key的生成规则，配置spring boot的注解，进行方法级别的缓存
         // 使用：进行分割，可以很多显示出层级关系
-        // 这里其实就是new了一个KeyGenerator对象，只是这是lambda表达式的写法，我感觉很好用，大家感兴趣可以去了解下
+        // 每次缓存读写都会调用，只分配一个StringBuilder，不打印日志
         return (target, method, params) -> {
-            StringBuilder sb = new StringBuilder();
-            sb.append(target.getClass().getName());
-            sb.append(":");
-            sb.append(method.getName());
-            for (Object obj : params) {
-                sb.append(":" + String.valueOf(obj));
+            String className = target.getClass().getName();
+            String methodName = method.getName();
+            StringBuilder sb = new StringBuilder(className.length() + methodName.length() + 16 * params.length + 1);
+            sb.append(className).append(':').append(methodName);
+            for (Object param : params) {
+                sb.append(':').append(param);
             }
-            String rsToUse = String.valueOf(sb);
-            logger.info("自动生成Redis Key -> [{}]", rsToUse);
-            return rsToUse;
+            return sb.toString();
         };
     }
 
     @Bean
     @Override
     public CacheManager cacheManager() {
-        // 初始化缓存管理器，在这里我们可以缓存的整体过期时间什么的，我这里默认没有配置
+        // 初始化缓存管理器，过期时间由spring.cache.expiry.*配置，可以按缓存名称单独配置
         logger.info("初始化 -> [{}]", "CacheManager RedisCacheManager Start");
-        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager
-                .RedisCacheManagerBuilder
-                .fromConnectionFactory(jedisConnectionFactory);
-        return builder.build();
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        for (String cacheName : cacheExpiryProperties.getCaches().keySet()) {
+            cacheConfigurations.put(cacheName, RedisCacheConfiguration.defaultCacheConfig()
+                    .entryTtl(cacheExpiryProperties.getTtl(cacheName)));
+        }
+        // 写入时给过期时间加随机增量；BatchRedisCacheManager创建的缓存支持批量读写(MGET/pipeline SET)
+        RedisCacheWriter cacheWriter = new JitterRedisCacheWriter(
+                RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory), cacheExpiryProperties);
+        RedisCacheManager redisCacheManager = new BatchRedisCacheManager(redisConnectionFactory, cacheWriter,
+                RedisCacheConfiguration.defaultCacheConfig().entryTtl(cacheExpiryProperties.getTtl()),
+                cacheConfigurations, cacheExpiryProperties);
+        redisCacheManager.afterPropertiesSet();
+        CacheManager cacheManager = redisCacheManager;
+        if (nearCacheProperties.isEnabled()) {
+            // 开启本地缓存时，在redis缓存之上再加一层本地缓存，并订阅其他节点的失效通知
+            logger.info("初始化 -> [{}]", "CacheManager NearCacheManager Start");
+            NearCacheManager nearCacheManager = new NearCacheManager(redisCacheManager, nearCacheProperties,
+                    redisTemplate(redisConnectionFactory));
+            redisMessageListenerContainer().addMessageListener(nearCacheManager,
+                    new ChannelTopic(nearCacheProperties.getChannel()));
+            cacheManager = nearCacheManager;
+        }
+        // 最外层处理单飞加载和提前刷新
+        return new StampedeProtectedCacheManager(cacheManager, cacheExpiryProperties);
     }
 
+    /**
+     * 订阅使用lettuce的独立连接，不占用jedis连接池
+     * jedis的订阅连接停止订阅后会归还到连接池，此时订阅线程可能还在读取该连接，被其他请求借出后响应会错乱
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer() {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(lettuceConnectionFactory);
+        return container;
+    }
+
+    /**
+     * value序列化，序列化方式由spring.redis.serializer.*配置，并统计序列化的字节数
+     */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(JedisConnectionFactory jedisConnectionFactory) {
+    public RedisSerializer<Object> redisValueSerializer() {
+        logger.info("初始化 -> [{}]", "RedisSerializer " + redisSerializerProperties.getType());
+        return new MeteredRedisSerializer<>(RedisSerializerFactory.create(redisSerializerProperties), meterRegistry);
+    }
+
+    @Bean
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
         //设置序列化
-        Jackson2JsonRedisSerializer jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer(Object.class);
-        ObjectMapper om = new ObjectMapper();
-        om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        om.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
-        jackson2JsonRedisSerializer.setObjectMapper(om);
+        RedisSerializer<Object> valueSerializer = redisValueSerializer();
         // 配置redisTemplate
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
-        redisTemplate.setConnectionFactory(jedisConnectionFactory);
+        // 统计每条命令的耗时
+        redisTemplate.setConnectionFactory(new MeteredRedisConnectionFactory(redisConnectionFactory, meterRegistry));
         RedisSerializer stringSerializer = new StringRedisSerializer();
         // key序列化
         redisTemplate.setKeySerializer(stringSerializer);
         // value序列化
-        redisTemplate.setValueSerializer(jackson2JsonRedisSerializer);
+        redisTemplate.setValueSerializer(valueSerializer);
         // Hash key序列化
         redisTemplate.setHashKeySerializer(stringSerializer);
         // Hash value序列化
-        redisTemplate.setHashValueSerializer(jackson2JsonRedisSerializer);
+        redisTemplate.setHashValueSerializer(valueSerializer);
         redisTemplate.afterPropertiesSet();
         return redisTemplate;
     }
 
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(
+            ReactiveRedisConnectionFactory reactiveRedisConnectionFactory) {
+        // 与redisTemplate使用相同的序列化方式，两者读写的数据可以互通
+        RedisSerializer<String> stringSerializer = new StringRedisSerializer();
+        RedisSerializationContext<String, Object> serializationContext = RedisSerializationContext
+                .<String, Object>newSerializationContext(stringSerializer)
+                .value(redisValueSerializer())
+                .hashKey(stringSerializer)
+                .hashValue(redisValueSerializer())
+                .build();
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, serializationContext);
+    }
+
     @Override
     @Bean
     public CacheErrorHandler errorHandler() {
@@ -132,7 +226,7 @@ public class RedisConfig extends CachingConfigurerSupport {
     }
 
     /**
-     * 此内部类就是把yml的配置数据，进行读取，创建JedisConnectionFactory和JedisPool，以供外部类初始化缓存管理器使用
+     * 此内部类就是把yml的配置数据，进行读取，创建JedisConnectionFactory和LettuceConnectionFactory，以供外部类初始化缓存管理器使用
      * 不了解的同学可以去看@ConfigurationProperties和@Value的作用
      */
     @ConfigurationProperties
@@ -145,34 +239,145 @@ public class RedisConfig extends CachingConfigurerSupport {
         private int port;
         @Value("${spring.redis.timeout}")
         private int timeout;
+        @Value("${spring.redis.jedis.pool.max-active:8}")
+        private int maxActive;
         @Value("${spring.redis.jedis.pool.max-idle}")
         private int maxIdle;
+        @Value("${spring.redis.jedis.pool.min-idle:0}")
+        private int minIdle;
         @Value("${spring.redis.jedis.pool.max-wait}")
         private long maxWaitMillis;
+        @Value("${spring.redis.jedis.pool.test-on-borrow:false}")
+        private boolean testOnBorrow;
+        @Value("${spring.redis.jedis.pool.test-while-idle:true}")
+        private boolean testWhileIdle;
+        @Value("${spring.redis.jedis.pool.time-between-eviction-runs:30000}")
+        private long timeBetweenEvictionRunsMillis;
+        @Value("${spring.redis.jedis.pool.min-evictable-idle-time:60000}")
+        private long minEvictableIdleTimeMillis;
+        @Value("${spring.redis.jedis.pool.num-tests-per-eviction-run:-1}")
+        private int numTestsPerEvictionRun;
+        /**
+         * 部署模式: standalone/sentinel/cluster
+         */
+        @Value("${spring.redis.mode:standalone}")
+        private String mode;
+        @Value("${spring.redis.sentinel.master:}")
+        private String sentinelMaster;
+        @Value("${spring.redis.sentinel.nodes:}")
+        private String sentinelNodes;
+        @Value("${spring.redis.cluster.nodes:}")
+        private String clusterNodes;
+        @Value("${spring.redis.cluster.max-redirects:5}")
+        private int clusterMaxRedirects;
 
+        /**
+         * spring.redis.client-type=jedis(默认)时，redisTemplate等阻塞操作使用jedis连接
+         */
         @Bean
-        JedisConnectionFactory jedisConnectionFactory() {
+        @Primary
+        @ConditionalOnProperty(name = "spring.redis.client-type", havingValue = "jedis", matchIfMissing = true)
+        PooledJedisConnectionFactory jedisConnectionFactory() {
             logger.info("Create JedisConnectionFactory successful");
-            RedisStandaloneConfiguration redisStandaloneConfiguration = new RedisStandaloneConfiguration();
-            redisStandaloneConfiguration.setHostName(host);
-            redisStandaloneConfiguration.setPort(port);
-            redisStandaloneConfiguration.setPassword(RedisPassword.of(password));
-
             JedisClientConfiguration.JedisClientConfigurationBuilder jedisClientConfiguration =
                     JedisClientConfiguration.builder();
             jedisClientConfiguration.connectTimeout(Duration.ofMillis(timeout));
-            return new JedisConnectionFactory(redisStandaloneConfiguration,
+            jedisClientConfiguration.usePooling().poolConfig(jedisPoolConfig());
+            if (isSentinel()) {
+                return new PooledJedisConnectionFactory(redisSentinelConfiguration(),
+                        jedisClientConfiguration.build());
+            }
+            if (isCluster()) {
+                return new PooledJedisConnectionFactory(redisClusterConfiguration(),
+                        jedisClientConfiguration.build());
+            }
+            return new PooledJedisConnectionFactory(redisStandaloneConfiguration(),
                     jedisClientConfiguration.build());
         }
 
+        /**
+         * lettuce连接始终创建，供响应式操作使用
+         * spring.redis.client-type=lettuce时，redisTemplate等阻塞操作也使用lettuce连接
+         * lettuce的连接是线程安全的，多个请求复用少量连接
+         */
         @Bean
-        public JedisPool redisPoolFactory() {
-            logger.info("JedisPool init successful，host -> [{}]；port -> [{}]", host, port);
+        LettuceConnectionFactory lettuceConnectionFactory() {
+            logger.info("Create LettuceConnectionFactory successful");
+            // 与jedis一致，timeout只作为连接超时，避免阻塞命令(如BLPOP)被命令超时打断
+            SocketOptions socketOptions = SocketOptions.builder().connectTimeout(Duration.ofMillis(timeout)).build();
+            // 集群模式需要使用ClusterClientOptions，收到MOVED/ASK时按maxRedirects重定向
+            ClientOptions clientOptions = isCluster()
+                    ? ClusterClientOptions.builder().socketOptions(socketOptions).maxRedirects(clusterMaxRedirects).build()
+                    : ClientOptions.builder().socketOptions(socketOptions).build();
+            LettuceClientConfiguration lettuceClientConfiguration = LettuceClientConfiguration.builder()
+                    .clientOptions(clientOptions)
+                    .build();
+            if (isSentinel()) {
+                return new LettuceConnectionFactory(redisSentinelConfiguration(), lettuceClientConfiguration);
+            }
+            if (isCluster()) {
+                return new LettuceConnectionFactory(redisClusterConfiguration(), lettuceClientConfiguration);
+            }
+            return new LettuceConnectionFactory(redisStandaloneConfiguration(), lettuceClientConfiguration);
+        }
+
+        /**
+         * JedisConnectionFactory的连接池配置，由spring.redis.jedis.pool.*配置
+         * 所有阻塞操作都从这个工厂借连接，maxActive就是每个节点的连接数上限
+         * 默认借出时不做PING检查，由空闲检测线程每timeBetweenEvictionRuns毫秒检查空闲连接，
+         * 关闭失效和空闲超过minEvictableIdleTime的连接，并把空闲连接补足到minIdle
+         */
+        private JedisPoolConfig jedisPoolConfig() {
             JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
+            jedisPoolConfig.setMaxTotal(maxActive);
             jedisPoolConfig.setMaxIdle(maxIdle);
+            jedisPoolConfig.setMinIdle(minIdle);
             jedisPoolConfig.setMaxWaitMillis(maxWaitMillis);
+            jedisPoolConfig.setTestOnBorrow(testOnBorrow);
+            jedisPoolConfig.setTestWhileIdle(testWhileIdle);
+            jedisPoolConfig.setTimeBetweenEvictionRunsMillis(timeBetweenEvictionRunsMillis);
+            jedisPoolConfig.setMinEvictableIdleTimeMillis(minEvictableIdleTimeMillis);
+            jedisPoolConfig.setNumTestsPerEvictionRun(numTestsPerEvictionRun);
+            return jedisPoolConfig;
+        }
 
-            return new JedisPool(jedisPoolConfig, host, port, timeout, password);
+        private boolean isSentinel() {
+            return "sentinel".equalsIgnoreCase(mode);
+        }
+
+        private boolean isCluster() {
+            return "cluster".equalsIgnoreCase(mode);
+        }
+
+        /**
+         * 哨兵模式，spring.redis.sentinel.nodes为逗号分隔的host:port
+         */
+        private RedisSentinelConfiguration redisSentinelConfiguration() {
+            logger.info("Redis sentinel mode，master -> [{}]；nodes -> [{}]", sentinelMaster, sentinelNodes);
+            RedisSentinelConfiguration redisSentinelConfiguration = new RedisSentinelConfiguration(sentinelMaster,
+                    StringUtils.commaDelimitedListToSet(sentinelNodes));
+            redisSentinelConfiguration.setPassword(RedisPassword.of(password));
+            return redisSentinelConfiguration;
+        }
+
+        /**
+         * 集群模式，spring.redis.cluster.nodes为逗号分隔的host:port，只需配置部分节点，其余节点自动发现
+         */
+        private RedisClusterConfiguration redisClusterConfiguration() {
+            logger.info("Redis cluster mode，nodes -> [{}]", clusterNodes);
+            RedisClusterConfiguration redisClusterConfiguration = new RedisClusterConfiguration(
+                    StringUtils.commaDelimitedListToSet(clusterNodes));
+            redisClusterConfiguration.setMaxRedirects(clusterMaxRedirects);
+            redisClusterConfiguration.setPassword(RedisPassword.of(password));
+            return redisClusterConfiguration;
+        }
+
+        private RedisStandaloneConfiguration redisStandaloneConfiguration() {
+            RedisStandaloneConfiguration redisStandaloneConfiguration = new RedisStandaloneConfiguration();
+            redisStandaloneConfiguration.setHostName(host);
+            redisStandaloneConfiguration.setPort(port);
+            redisStandaloneConfiguration.setPassword(RedisPassword.of(password));
+            return redisStandaloneConfiguration;
         }
     }
 }
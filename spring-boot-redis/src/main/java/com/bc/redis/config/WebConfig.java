@@ -0,0 +1,25 @@
+package com.bc.redis.config;
+
+import com.bc.redis.ratelimit.RateLimitInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * web配置类
+ *
+ * @author zhou
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // 接口限流，只处理标注了@RateLimit的方法
+        registry.addInterceptor(rateLimitInterceptor);
+    }
+}
@@ -0,0 +1,723 @@
+package com.bc.redis.dao;
+
+import org.springframework.data.redis.core.ZSetOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * redis响应式数据操作接口
+ * 与RedisDao的操作一一对应，基于lettuce的非阻塞连接，返回Mono/Flux
+ * 需要CompletableFuture时可以使用Mono#toFuture()
+ *
+ * @author zhou
+ */
+public interface ReactiveRedisDao {
+
+    // ===== common ops begin =====
+
+    /**
+     * 设置key的过期时间，key过期后将不再可用
+     *
+     * @param key     键
+     * @param timeout 过期时间
+     * @return true: 设置成功  false: 设置失败
+     */
+    Mono<Boolean> expire(String key, Duration timeout);
+
+    /**
+     * 根据key获取过期时间
+     *
+     * @param key 键
+     * @return 过期时间 永久有效时返回Duration.ZERO
+     */
+    Mono<Duration> getExpire(String key);
+
+    /**
+     * 判断key是否存在
+     *
+     * @param key 键
+     * @return true: 存在  false: 不存在
+     */
+    Mono<Boolean> hasKey(String key);
+
+    /**
+     * 删除已存在的键，不存在的key会被忽略
+     *
+     * @param key key
+     * @return true: 删除成功  false: 删除失败
+     */
+    Mono<Boolean> delete(String key);
+
+    /**
+     * 批量删除key
+     *
+     * @param keyList 键列表
+     * @return 被删除key的数量
+     */
+    Mono<Long> delete(List<String> keyList);
+
+    /**
+     * 从当前数据库中随机返回一个key
+     *
+     * @return 当数据库不为空时，返回一个key。当数据库为空时，返回空
+     */
+    Mono<String> randomKey();
+
+    /**
+     * 修改key名称
+     *
+     * @param oldKey 旧key
+     * @param newKey 新key
+     * @return true: 修改成功  false: 修改失败
+     */
+    Mono<Boolean> rename(String oldKey, String newKey);
+
+    /**
+     * newKey不存在时修改key的名称
+     *
+     * @param oldKey 旧key
+     * @param newKey 新key
+     * @return true: 修改成功   false: 修改失败
+     */
+    Mono<Boolean> renameIfAbsent(String oldKey, String newKey);
+
+    /**
+     * 返回key所储存的值的类型
+     *
+     * @param key 键
+     * @return key的数据类型 none/string/list/set/zset/hash
+     */
+    Mono<String> type(String key);
+    // ===== common ops end =====
+
+    // ===== ops for string begin =====
+
+    /**
+     * 设置值
+     *
+     * @param key   键
+     * @param value 值
+     * @return true:设置成功 false:设置失败
+     */
+    Mono<Boolean> set(String key, Object value);
+
+    /**
+     * 设置值并设置过期时间
+     *
+     * @param key     键
+     * @param value   值
+     * @param timeout 过期时间(秒) timeout>0:timeout秒后过期  timeout<=0:无限期
+     * @return true: 设置成功  false: 设置失败
+     */
+    Mono<Boolean> set(String key, Object value, long timeout);
+
+    /**
+     * 在指定的key不存在时，为key设置指定的值
+     *
+     * @param key   键
+     * @param value 值
+     * @return true: 设置成功   false: 设置失败
+     */
+    Mono<Boolean> setIfAbsent(String key, Object value);
+
+    /**
+     * 在指定的key不存在时，为key设置指定的值和过期时间
+     *
+     * @param key     键
+     * @param value   值
+     * @param timeout 过期时间
+     * @return true: 设置成功   false: 设置失败
+     */
+    Mono<Boolean> setIfAbsent(String key, Object value, Duration timeout);
+
+    /**
+     * 同时设置一个或多个key-value对
+     *
+     * @param map 一个或多个key-value对
+     * @return true: 设置成功  false: 设置失败
+     */
+    Mono<Boolean> multiSet(Map<String, Object> map);
+
+    /**
+     * 同时设置一个或多个key-value对，当且仅当所有给定key都不存在
+     *
+     * @param map 一个或多个key-value对
+     * @return true: 设置成功  false: 设置失败
+     */
+    Mono<Boolean> multiSetIfAbsent(Map<String, Object> map);
+
+    /**
+     * 用于为指定的key追加值
+     *
+     * @param key   键
+     * @param value 值
+     * @return 追加指定值之后，key中字符串的长度
+     */
+    Mono<Long> append(String key, String value);
+
+    /**
+     * 获取值
+     *
+     * @param key 键
+     * @return 值
+     */
+    Mono<Object> get(String key);
+
+    /**
+     * 获取所有(一个或多个)给定key的值
+     *
+     * @param keyList (一个或多个)给定key
+     * @return 一个包含所有给定key的值的列表
+     */
+    Mono<List<Object>> multiGet(List<String> keyList);
+
+    /**
+     * 设置新值并返回旧值
+     *
+     * @param key   键
+     * @param value 新值
+     * @return 旧值
+     */
+    Mono<Object> getAndSet(String key, Object value);
+
+    /**
+     * 获取key中字符串的长度
+     *
+     * @param key 键
+     * @return key中字符串的长度
+     */
+    Mono<Long> size(String key);
+
+    /**
+     * 将key中储存的数字值增delta
+     *
+     * @param key   键
+     * @param delta 递增因子
+     * @return 执行incr命令之后key的值
+     */
+    Mono<Long> increment(String key, long delta);
+
+    /**
+     * 将key中储存的数字值减delta
+     *
+     * @param key   键
+     * @param delta 递减因子
+     * @return 执行decr命令之后key的值
+     */
+    Mono<Long> decrement(String key, long delta);
+    // ===== ops for string end =====
+
+    // ===== ops for list begin =====
+
+    /**
+     * 返回列表中指定区间内的元素
+     *
+     * @param key   键
+     * @param start 区间开始([)
+     * @param end   区间结束(])
+     * @return 指定区间内的元素
+     */
+    Flux<Object> lRange(String key, long start, long end);
+
+    /**
+     * 对一个列表进行修剪(trim)，只保留指定区间内的元素
+     *
+     * @param key   键
+     * @param start 区间开始([)
+     * @param end   区间结束(])
+     * @return true: 修剪成功   false: 修剪失败
+     */
+    Mono<Boolean> lTrim(String key, long start, long end);
+
+    /**
+     * 通过索引获取列表中的元素
+     *
+     * @param key   键
+     * @param index 索引
+     * @return 列表中下标为指定索引值的元素
+     */
+    Mono<Object> lIndex(String key, long index);
+
+    /**
+     * 通过索引来设置元素的值
+     *
+     * @param key   键
+     * @param index 索引
+     * @param value 值
+     * @return true:设置成功  false:设置失败
+     */
+    Mono<Boolean> lSet(String key, long index, Object value);
+
+    /**
+     * 根据参数COUNT的值，移除列表中与参数VALUE相等的元素
+     *
+     * @param key   键
+     * @param count 移除元素的数量
+     * @param value 值
+     * @return 被移除元素的数量
+     */
+    Mono<Long> lRemove(String key, long count, Object value);
+
+    /**
+     * 将值插入到列表的尾部(最右边)
+     *
+     * @param key   键
+     * @param value 值
+     * @return 执行rpush操作后，列表的长度
+     */
+    Mono<Long> lRightPush(String key, Object value);
+
+    /**
+     * 将多个值插入到列表的尾部(最右边)
+     *
+     * @param key    键
+     * @param values 值
+     * @return 执行rpush操作后，列表的长度
+     */
+    Mono<Long> lRightPushAll(String key, Object... values);
+
+    /**
+     * 将一个值插入到已存在的列表尾部(最右边)
+     *
+     * @param key   键
+     * @param value 值
+     * @return 执行rpushx操作后，列表的长度
+     */
+    Mono<Long> lRightPushIfPresent(String key, Object value);
+
+    /**
+     * 移除并返回列表的最后一个元素
+     *
+     * @param key 键
+     * @return 列表的最后一个元素
+     */
+    Mono<Object> lRightPop(String key);
+
+    /**
+     * 移除并返回列表的最后一个元素，列表为空时在超时时间内等待
+     *
+     * @param key     键
+     * @param timeout 超时时间
+     * @return 列表的最后一个元素
+     */
+    Mono<Object> lRightPop(String key, Duration timeout);
+
+    /**
+     * 移除列表的最后一个元素，并将该元素添加到另一个列表并返回
+     *
+     * @param sourceKey      源列表
+     * @param destinationKey 目标列表
+     * @return 被弹出的元素
+     */
+    Mono<Object> lRightPopAndLeftPush(String sourceKey, String destinationKey);
+
+    /**
+     * 将值插入到列表的头部(最左边)
+     *
+     * @param key   键
+     * @param value 值
+     * @return 执行lpush操作后，列表的长度
+     */
+    Mono<Long> lLeftPush(String key, Object value);
+
+    /**
+     * 将多个值插入到列表的头部(最左边)
+     *
+     * @param key    键
+     * @param values 值
+     * @return 执行lpush操作后，列表的长度
+     */
+    Mono<Long> lLeftPushAll(String key, Object... values);
+
+    /**
+     * 将一个值插入到已存在的列表头部(最左边)
+     *
+     * @param key   键
+     * @param value 值
+     * @return 执行lpushx操作后，列表的长度
+     */
+    Mono<Long> lLeftPushIfPresent(String key, Object value);
+
+    /**
+     * 移除并返回列表的第一个元素
+     *
+     * @param key 键
+     * @return 列表的第一个元素
+     */
+    Mono<Object> lLeftPop(String key);
+
+    /**
+     * 移除并返回列表的第一个元素，列表为空时在超时时间内等待
+     *
+     * @param key     键
+     * @param timeout 超时时间
+     * @return 列表的第一个元素
+     */
+    Mono<Object> lLeftPop(String key, Duration timeout);
+    // ===== ops for list end =====
+
+    // ===== ops for hash begin =====
+
+    /**
+     * 为哈希表中的字段赋值
+     *
+     * @param key     键
+     * @param hashKey 字段
+     * @param value   值
+     * @return true: 设置成功  false: 设置失败
+     */
+    Mono<Boolean> hPut(String key, String hashKey, Object value);
+
+    /**
+     * 为哈希表中不存在的的字段赋值
+     *
+     * @param key     键
+     * @param hashKey 字段
+     * @param value   值
+     * @return true: 设置成功  false: 设置失败
+     */
+    Mono<Boolean> hPutIfAbsent(String key, String hashKey, Object value);
+
+    /**
+     * 同时将多个field-value对设置到哈希表中
+     *
+     * @param key       键
+     * @param hValueMap field-value对
+     * @return true: 设置成功  false: 设置失败
+     */
+    Mono<Boolean> hPutAll(String key, Map<String, Object> hValueMap);
+
+    /**
+     * 返回哈希表中指定字段的值
+     *
+     * @param key     键
+     * @param hashKey 字段
+     * @return 字段的值
+     */
+    Mono<Object> hGet(String key, String hashKey);
+
+    /**
+     * 返回哈希表中，一个或多个给定字段的值
+     *
+     * @param key      键
+     * @param hashKeys 字段
+     * @return 给定字段的值的列表
+     */
+    Mono<List<Object>> hMultiGet(String key, Collection<String> hashKeys);
+
+    /**
+     * 删除哈希表中的一个或多个字段
+     *
+     * @param key      键
+     * @param hashKeys 字段
+     * @return 被删除字段的数量
+     */
+    Mono<Long> hDelete(String key, Object... hashKeys);
+
+    /**
+     * 返回哈希表所有字段的值
+     *
+     * @param key 键
+     * @return 哈希表所有字段的值
+     */
+    Flux<Object> hValues(String key);
+
+    /**
+     * 获取哈希表中字段的数量
+     *
+     * @param key 键
+     * @return 字段的数量
+     */
+    Mono<Long> hSize(String key);
+
+    /**
+     * 为哈希表中的字段值加上指定增量值(整数)
+     *
+     * @param key     键
+     * @param hashKey 字段
+     * @param delta   增量
+     * @return 字段的新值
+     */
+    Mono<Long> hIncrement(String key, String hashKey, long delta);
+
+    /**
+     * 为哈希表中的字段值加上指定增量值(浮点数)
+     *
+     * @param key     键
+     * @param hashKey 字段
+     * @param delta   增量
+     * @return 字段的新值
+     */
+    Mono<Double> hIncrement(String key, String hashKey, double delta);
+    // ===== ops for hash end =====
+
+    // ===== ops for set begin =====
+
+    /**
+     * 将一个或多个成员元素加入到集合中
+     *
+     * @param key    键
+     * @param values 值
+     * @return 被添加到集合中的新元素的数量
+     */
+    Mono<Long> sAdd(String key, Object... values);
+
+    /**
+     * 返回集合中元素的数量
+     *
+     * @param key 键
+     * @return 集合中元素的数量
+     */
+    Mono<Long> sSize(String key);
+
+    /**
+     * 返回给定集合之间的差集
+     *
+     * @param key       键
+     * @param otherKeys 其他集合
+     * @return 差集成员
+     */
+    Flux<Object> sDifference(String key, Collection<String> otherKeys);
+
+    /**
+     * 返回给定所有集合的交集
+     *
+     * @param key       键
+     * @param otherKeys 其他集合
+     * @return 交集成员
+     */
+    Flux<Object> sIntersect(String key, Collection<String> otherKeys);
+
+    /**
+     * 返回给定集合的并集
+     *
+     * @param key       键
+     * @param otherKeys 其他集合
+     * @return 并集成员
+     */
+    Flux<Object> sUnion(String key, Collection<String> otherKeys);
+
+    /**
+     * 将给定集合的并集存储在指定的集合中
+     *
+     * @param key       键
+     * @param otherKeys 其他集合
+     * @param destKey   目标集合
+     * @return 结果集中的元素数量
+     */
+    Mono<Long> sUnionAndStore(String key, Collection<String> otherKeys, String destKey);
+
+    /**
+     * 判断成员元素是否是集合的成员
+     *
+     * @param key    键
+     * @param member 成员
+     * @return true: 是集合的成员  false: 不是集合的成员
+     */
+    Mono<Boolean> sIsMember(String key, Object member);
+
+    /**
+     * 返回集合中的所有成员
+     *
+     * @param key 键
+     * @return 集合中的所有成员
+     */
+    Flux<Object> sMembers(String key);
+
+    /**
+     * 将指定成员从源集合移动到目标集合
+     *
+     * @param key     源集合
+     * @param value   成员
+     * @param destKey 目标集合
+     * @return true: 移动成功  false: 移动失败
+     */
+    Mono<Boolean> sMove(String key, Object value, String destKey);
+
+    /**
+     * 移除并返回集合中的一个随机元素
+     *
+     * @param key 键
+     * @return 被移除的随机元素
+     */
+    Mono<Object> sPop(String key);
+
+    /**
+     * 返回集合中的一个随机元素
+     *
+     * @param key 键
+     * @return 随机元素
+     */
+    Mono<Object> sRandomMember(String key);
+
+    /**
+     * 移除集合中的一个或多个成员元素
+     *
+     * @param key    键
+     * @param values 值
+     * @return 被成功移除的元素的数量
+     */
+    Mono<Long> sRemove(String key, Object... values);
+    // ===== ops for set end =====
+
+    // ===== ops for zset begin =====
+
+    /**
+     * 向有序集合添加一个成员
+     *
+     * @param key   键
+     * @param value 值
+     * @param score 分数
+     * @return true: 添加成功  false: 添加失败(成员已存在，分数被更新)
+     */
+    Mono<Boolean> zAdd(String key, Object value, double score);
+
+    /**
+     * 向有序集合添加多个成员
+     *
+     * @param key           键
+     * @param valueScoreMap 成员及分数
+     * @return 被成功添加的新成员的数量
+     */
+    Mono<Long> zAdd(String key, Map<String, Double> valueScoreMap);
+
+    /**
+     * 计算集合中元素的数量
+     *
+     * @param key 键
+     * @return 集合中元素的数量
+     */
+    Mono<Long> zCard(String key);
+
+    /**
+     * 计算有序集合中指定分数区间的成员数量
+     *
+     * @param key 键
+     * @param min 分数区间最小值
+     * @param max 分数区间最大值
+     * @return 分数值在min和max之间的成员的数量
+     */
+    Mono<Long> zCount(String key, double min, double max);
+
+    /**
+     * 对有序集合中指定成员的分数加上增量delta
+     *
+     * @param key   键
+     * @param value 成员
+     * @param delta 增量
+     * @return 成员的新分数值
+     */
+    Mono<Double> zIncrementScore(String key, Object value, double delta);
+
+    /**
+     * 计算给定的一个或多个有序集的并集，并存储在新的有序集合中
+     *
+     * @param key       键
+     * @param otherKeys 其他有序集
+     * @param destKey   目标有序集
+     * @return 结果有序集的成员数量
+     */
+    Mono<Long> zUnionAndStore(String key, Collection<String> otherKeys, String destKey);
+
+    /**
+     * 计算给定的一个或多个有序集的交集，并存储在新的有序集合中
+     *
+     * @param key       键
+     * @param otherKeys 其他有序集
+     * @param destKey   目标有序集
+     * @return 结果有序集的成员数量
+     */
+    Mono<Long> zIntersectAndStore(String key, Collection<String> otherKeys, String destKey);
+
+    /**
+     * 返回有序集中指定成员的排名(按分数值递增)
+     *
+     * @param key   键
+     * @param value 成员
+     * @return 成员的排名
+     */
+    Mono<Long> zRank(String key, Object value);
+
+    /**
+     * 移除有序集中的一个或多个成员
+     *
+     * @param key    键
+     * @param values 成员
+     * @return 被成功移除的成员的数量
+     */
+    Mono<Long> zRemove(String key, Object... values);
+
+    /**
+     * 移除有序集中，指定排名(rank)区间内的所有成员
+     *
+     * @param key   键
+     * @param start 区间开始
+     * @param end   区间结束
+     * @return 被移除成员的数量
+     */
+    Mono<Long> zRemoveRange(String key, long start, long end);
+
+    /**
+     * 移除有序集中，指定分数区间内的所有成员
+     *
+     * @param key 键
+     * @param min 分数区间最小值
+     * @param max 分数区间最大值
+     * @return 被移除成员的数量
+     */
+    Mono<Long> zRemoveRangeByScore(String key, double min, double max);
+
+    /**
+     * 返回有序集中，指定区间内的成员(按分数值递减)
+     *
+     * @param key   键
+     * @param start 区间开始
+     * @param end   区间结束
+     * @return 指定区间内的有序集成员
+     */
+    Flux<Object> zReverseRange(String key, long start, long end);
+
+    /**
+     * 返回有序集中，指定区间内的成员(带有分数值，按分数值递减)
+     *
+     * @param key   键
+     * @param start 区间开始
+     * @param end   区间结束
+     * @return 指定区间内，带有分数值的有序集成员
+     */
+    Flux<ZSetOperations.TypedTuple<Object>> zReverseRangeWithScores(String key, long start, long end);
+
+    /**
+     * 返回有序集中指定分数区间内的所有的成员(按分数值递减)
+     *
+     * @param key 键
+     * @param min 分数区间最小值
+     * @param max 分数区间最大值
+     * @return 指定区间内的有序集成员
+     */
+    Flux<Object> zReverseRangeByScore(String key, double min, double max);
+
+    /**
+     * 返回有序集中成员的排名(按分数值递减)
+     *
+     * @param key   键
+     * @param value 成员
+     * @return 成员的排名
+     */
+    Mono<Long> zReverseRank(String key, Object value);
+
+    /**
+     * 返回有序集中，成员的分数值
+     *
+     * @param key   键
+     * @param value 成员
+     * @return 成员的分数值
+     */
+    Mono<Double> zScore(String key, Object value);
+    // ===== ops for zset end =====
+}
@@ -0,0 +1,345 @@
+package com.bc.redis.dao;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * redis批量操作
+ * 先收集多条(可以是不同类型的)命令，执行时通过pipeline一次性发送给redis，减少网络往返次数
+ * 每条命令只对应一个redis命令，执行结果与添加命令的顺序一一对应
+ * 当命令数量超过flushSize时，会按flushSize分多次pipeline发送
+ *
+ * @author zhou
+ */
+public class RedisBatch {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 每次pipeline发送的最大命令数量
+     */
+    private final int flushSize;
+
+    private final List<Command> commands = new ArrayList<>();
+
+    public RedisBatch(RedisTemplate<String, Object> redisTemplate, int flushSize) {
+        if (flushSize <= 0) {
+            throw new IllegalArgumentException("flushSize must be positive: " + flushSize);
+        }
+        this.redisTemplate = redisTemplate;
+        this.flushSize = flushSize;
+    }
+
+    // ===== common ops begin =====
+
+    /**
+     * 设置key的过期时间
+     * 结果: Boolean
+     */
+    public RedisBatch expire(String key, long timeout, TimeUnit unit) {
+        return add(ops -> ops.expire(key, timeout, unit));
+    }
+
+    /**
+     * 删除key
+     * 结果: Boolean
+     */
+    public RedisBatch delete(String key) {
+        return add(ops -> ops.delete(key));
+    }
+    // ===== common ops end =====
+
+    // ===== ops for string begin =====
+
+    /**
+     * 设置值
+     * 结果: Boolean
+     */
+    public RedisBatch set(String key, Object value) {
+        return add(ops -> ops.opsForValue().set(key, value));
+    }
+
+    /**
+     * 设置值并设置过期时间(秒)
+     * 结果: Boolean
+     */
+    public RedisBatch set(String key, Object value, long timeout) {
+        if (timeout > 0) {
+            return add(ops -> ops.opsForValue().set(key, value, timeout, TimeUnit.SECONDS));
+        }
+        return set(key, value);
+    }
+
+    /**
+     * 将key中储存的数字值增delta
+     * 结果: Long
+     */
+    public RedisBatch increment(String key, long delta) {
+        return add(ops -> ops.opsForValue().increment(key, delta));
+    }
+
+    /**
+     * 设置key所储存的字符串值在offset上的位
+     * 结果: Boolean 该位原来的值
+     */
+    public RedisBatch setBit(String key, long offset, boolean value) {
+        return add(ops -> ops.opsForValue().setBit(key, offset, value));
+    }
+
+    /**
+     * 获取key所储存的字符串值在offset上的位
+     * 结果: Boolean
+     */
+    public RedisBatch getBit(String key, long offset) {
+        return add(ops -> ops.opsForValue().getBit(key, offset));
+    }
+
+    /**
+     * 统计值为1的位数
+     * 结果: Long
+     */
+    @SuppressWarnings("unchecked")
+    public RedisBatch bitCount(String key) {
+        return add(ops -> ops.execute((RedisCallback<Long>) connection ->
+                connection.bitCount(((RedisSerializer<String>) ops.getKeySerializer()).serialize(key))));
+    }
+
+    /**
+     * 执行BITFIELD
+     * 结果: List&lt;Long&gt; 每个子命令的结果
+     */
+    public RedisBatch bitField(String key, BitFieldSubCommands subCommands) {
+        return add(ops -> ops.opsForValue().bitField(key, subCommands));
+    }
+    // ===== ops for string end =====
+
+    // ===== ops for list begin =====
+
+    /**
+     * 将值插入到列表的尾部(最右边)
+     * 结果: Long 列表的长度
+     */
+    public RedisBatch lRightPush(String key, Object value) {
+        return add(ops -> ops.opsForList().rightPush(key, value));
+    }
+
+    /**
+     * 将多个值插入到列表的尾部(最右边)
+     * 结果: Long 列表的长度
+     */
+    public RedisBatch lRightPushAll(String key, Object... values) {
+        return add(ops -> ops.opsForList().rightPushAll(key, values));
+    }
+
+    /**
+     * 将值插入到列表的头部(最左边)
+     * 结果: Long 列表的长度
+     */
+    public RedisBatch lLeftPush(String key, Object value) {
+        return add(ops -> ops.opsForList().leftPush(key, value));
+    }
+    // ===== ops for list end =====
+
+    // ===== ops for hash begin =====
+
+    /**
+     * 为哈希表中的字段赋值
+     * 结果: Boolean
+     */
+    public RedisBatch hPut(String key, String hashKey, Object value) {
+        return add(ops -> ops.opsForHash().put(key, hashKey, value));
+    }
+
+    /**
+     * 同时将多个field-value对设置到哈希表中
+     * HMSET只返回状态，pipeline不会为其产生结果，这里固定记为true(失败时执行会抛出异常)
+     * 结果: Boolean
+     */
+    public RedisBatch hPutAll(String key, Map<String, Object> hValueMap) {
+        commands.add(new Command(ops -> ops.opsForHash().putAll(key, hValueMap), true));
+        return this;
+    }
+
+    /**
+     * 为哈希表中的字段值加上增量delta
+     * 结果: Long
+     */
+    public RedisBatch hIncrement(String key, String hashKey, long delta) {
+        return add(ops -> ops.opsForHash().increment(key, hashKey, delta));
+    }
+
+    /**
+     * 删除哈希表中的一个或多个字段
+     * 结果: Long 被删除字段的数量
+     */
+    public RedisBatch hDelete(String key, Object... hashKeys) {
+        return add(ops -> ops.opsForHash().delete(key, hashKeys));
+    }
+    // ===== ops for hash end =====
+
+    // ===== ops for set begin =====
+
+    /**
+     * 将一个或多个成员元素加入到集合中
+     * 结果: Long 被添加到集合中的新元素的数量
+     */
+    public RedisBatch sAdd(String key, Object... values) {
+        return add(ops -> ops.opsForSet().add(key, values));
+    }
+
+    /**
+     * 移除集合中的一个或多个成员元素
+     * 结果: Long 被成功移除的元素的数量
+     */
+    public RedisBatch sRemove(String key, Object... values) {
+        return add(ops -> ops.opsForSet().remove(key, values));
+    }
+    // ===== ops for set end =====
+
+    // ===== ops for zset begin =====
+
+    /**
+     * 向有序集合添加一个成员
+     * 结果: Boolean
+     */
+    public RedisBatch zAdd(String key, Object value, double score) {
+        return add(ops -> ops.opsForZSet().add(key, value, score));
+    }
+
+    /**
+     * 向有序集合添加多个成员
+     * 结果: Long 被成功添加的新成员的数量
+     */
+    public RedisBatch zAdd(String key, Map<String, Double> valueScoreMap) {
+        Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>();
+        for (Map.Entry<String, Double> entry : valueScoreMap.entrySet()) {
+            tuples.add(new DefaultTypedTuple<>(entry.getKey(), entry.getValue()));
+        }
+        return add(ops -> ops.opsForZSet().add(key, tuples));
+    }
+
+    /**
+     * 为有序集中成员的分数加上增量delta
+     * 结果: Double 成员的新分数值
+     */
+    public RedisBatch zIncrementScore(String key, Object value, double delta) {
+        return add(ops -> ops.opsForZSet().incrementScore(key, value, delta));
+    }
+
+    /**
+     * 移除有序集中的一个或多个成员
+     * 结果: Long 被成功移除的成员的数量
+     */
+    public RedisBatch zRemove(String key, Object... values) {
+        return add(ops -> ops.opsForZSet().remove(key, values));
+    }
+    // ===== ops for zset end =====
+
+    /**
+     * 已收集的命令数量
+     *
+     * @return 命令数量
+     */
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * 执行所有已收集的命令，执行后清空命令
+     *
+     * @return 每条命令的执行结果，顺序与添加命令的顺序一致
+     */
+    public Result execute() {
+        List<Object> results = new ArrayList<>(commands.size());
+        for (int from = 0; from < commands.size(); from += flushSize) {
+            List<Command> chunk = commands.subList(from, Math.min(from + flushSize, commands.size()));
+            List<Object> chunkResults = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    for (Command command : chunk) {
+                        command.action.accept(ops);
+                    }
+                    return null;
+                }
+            });
+            Iterator<Object> iterator = chunkResults.iterator();
+            for (Command command : chunk) {
+                results.add(command.status ? Boolean.TRUE : iterator.next());
+            }
+        }
+        commands.clear();
+        return new Result(results);
+    }
+
+    private RedisBatch add(Consumer<RedisOperations<String, Object>> action) {
+        commands.add(new Command(action, false));
+        return this;
+    }
+
+    private static class Command {
+        private final Consumer<RedisOperations<String, Object>> action;
+        /**
+         * 是否只返回状态(pipeline不会为其产生结果)
+         */
+        private final boolean status;
+
+        Command(Consumer<RedisOperations<String, Object>> action, boolean status) {
+            this.action = action;
+            this.status = status;
+        }
+    }
+
+    /**
+     * 批量执行结果
+     */
+    public static class Result {
+        private final List<Object> results;
+
+        Result(List<Object> results) {
+            this.results = Collections.unmodifiableList(results);
+        }
+
+        public int size() {
+            return results.size();
+        }
+
+        public Object get(int index) {
+            return results.get(index);
+        }
+
+        public boolean getBoolean(int index) {
+            return Boolean.TRUE.equals(results.get(index));
+        }
+
+        public long getLong(int index) {
+            return ((Number) results.get(index)).longValue();
+        }
+
+        public double getDouble(int index) {
+            return ((Number) results.get(index)).doubleValue();
+        }
+
+        public List<Object> asList() {
+            return results;
+        }
+    }
+}
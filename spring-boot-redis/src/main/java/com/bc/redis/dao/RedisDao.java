@@ -1,12 +1,25 @@
 package com.bc.redis.dao;
 
+import com.bc.redis.stream.StreamPendingEntry;
+import com.bc.redis.stream.StreamRecord;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metric;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.ZSetOperations;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * redis数据操作接口
@@ -1047,4 +1060,547 @@ public interface RedisDao {
      */
     double zScore(String key, Object value);
     // ===== ops for set end =====
+
+    // ===== ops for hyperloglog begin =====
+
+    /**
+     * 将元素添加到HyperLogLog(PFADD)
+     * 每个HyperLogLog最多占用12KB，可以估算2^64个不同元素的基数，标准误差0.81%
+     *
+     * @param key    键
+     * @param values 元素
+     * @return 1: 估算的基数发生变化  0: 未变化
+     */
+    long pfAdd(String key, Object... values);
+
+    /**
+     * 返回HyperLogLog估算的基数(PFCOUNT)，多个key时返回并集的基数
+     * 集群模式下多个key需要在同一个slot，可以使用hash tag
+     *
+     * @param keys 键
+     * @return 估算的基数
+     */
+    long pfCount(String... keys);
+
+    /**
+     * 将多个HyperLogLog合并到destKey(PFMERGE)
+     * 集群模式下所有key需要在同一个slot，可以使用hash tag
+     *
+     * @param destKey    目标键
+     * @param sourceKeys 源键
+     * @return 合并后估算的基数
+     */
+    long pfMerge(String destKey, String... sourceKeys);
+    // ===== ops for hyperloglog end =====
+
+    // ===== ops for bitmap begin =====
+
+    /**
+     * 设置key所储存的字符串值在offset上的位(SETBIT)，字符串长度不足时自动扩展
+     *
+     * @param key    键
+     * @param offset 位偏移
+     * @param value  true: 1  false: 0
+     * @return 该位原来的值
+     */
+    boolean setBit(String key, long offset, boolean value);
+
+    /**
+     * 获取key所储存的字符串值在offset上的位(GETBIT)
+     *
+     * @param key    键
+     * @param offset 位偏移
+     * @return true: 1  false: 0
+     */
+    boolean getBit(String key, long offset);
+
+    /**
+     * 设置多个位，所有位通过一条BITFIELD命令设置(BITFIELD key SET u1 offset value ...)
+     *
+     * @param key     键
+     * @param value   true: 1  false: 0
+     * @param offsets 位偏移
+     * @return 每个位原来的值，顺序与offsets一致
+     */
+    List<Boolean> setBits(String key, boolean value, long... offsets);
+
+    /**
+     * 获取多个位，所有位通过一条BITFIELD命令读取(BITFIELD key GET u1 offset ...)
+     *
+     * @param key     键
+     * @param offsets 位偏移
+     * @return 每个位的值，顺序与offsets一致
+     */
+    List<Boolean> getBits(String key, long... offsets);
+
+    /**
+     * 统计值为1的位数(BITCOUNT)
+     *
+     * @param key 键
+     * @return 值为1的位数
+     */
+    long bitCount(String key);
+
+    /**
+     * 统计字节范围内值为1的位数(BITCOUNT key start end)
+     *
+     * @param key   键
+     * @param start 开始字节，可以为负数，-1表示最后一个字节
+     * @param end   结束字节(包含)
+     * @return 值为1的位数
+     */
+    long bitCount(String key, long start, long end);
+
+    /**
+     * 对一个或多个位图做位运算，结果保存到destKey(BITOP)
+     * 集群模式下所有key需要在同一个slot，可以使用hash tag
+     *
+     * @param op      运算: AND/OR/XOR/NOT，NOT只能有一个源key
+     * @param destKey 目标键
+     * @param keys    源键
+     * @return 结果字符串的长度(字节)
+     */
+    long bitOp(RedisStringCommands.BitOperation op, String destKey, String... keys);
+
+    /**
+     * 返回第一个值为bit的位的位置(BITPOS)
+     *
+     * @param key 键
+     * @param bit true: 查找1  false: 查找0
+     * @return 位的位置，找不到1时返回-1
+     */
+    long bitPos(String key, boolean bit);
+
+    /**
+     * 返回字节范围内第一个值为bit的位的位置(BITPOS key bit start end)
+     *
+     * @param key   键
+     * @param bit   true: 查找1  false: 查找0
+     * @param start 开始字节
+     * @param end   结束字节(包含)
+     * @return 位的位置(相对于整个字符串)，找不到时返回-1
+     */
+    long bitPos(String key, boolean bit, long start, long end);
+
+    /**
+     * 读取整个位图
+     *
+     * @param key 键
+     * @return 位图，BitSet的第i位对应redis的第i位
+     */
+    BitSet getBitSet(String key);
+
+    /**
+     * 读取字节范围内的位图(GETRANGE key start end)
+     * 只传输需要的字节，适合按天、按用户段读取大位图的一部分
+     *
+     * @param key   键
+     * @param start 开始字节
+     * @param end   结束字节(包含)
+     * @return 位图，BitSet的第i位对应redis的第 start * 8 + i 位
+     */
+    BitSet getBitSet(String key, long start, long end);
+
+    /**
+     * 执行BITFIELD
+     *
+     * @param key         键
+     * @param subCommands 子命令
+     * @return 每个子命令的结果
+     */
+    List<Long> bitField(String key, BitFieldSubCommands subCommands);
+
+    /**
+     * 将第index个计数器增加delta，计数器按type的位数紧凑排列(BITFIELD key OVERFLOW SAT INCRBY type #index delta)
+     * 溢出时停在最大值或最小值
+     *
+     * @param key   键
+     * @param type  计数器类型，如u8、u16、i32
+     * @param index 计数器序号
+     * @param delta 增量
+     * @return 增加后的值
+     */
+    long bitFieldIncrement(String key, BitFieldSubCommands.BitFieldType type, long index, long delta);
+
+    /**
+     * 读取从fromIndex开始的count个计数器，通过一条BITFIELD命令读取
+     *
+     * @param key       键
+     * @param type      计数器类型
+     * @param fromIndex 开始的计数器序号
+     * @param count     计数器数量
+     * @return 计数器的值
+     */
+    List<Long> bitFieldGet(String key, BitFieldSubCommands.BitFieldType type, long fromIndex, int count);
+    // ===== ops for bitmap end =====
+
+    // ===== ops for geo begin =====
+
+    /**
+     * 添加一个地理位置(GEOADD)
+     *
+     * @param key    键
+     * @param point  经纬度，x为经度，y为纬度
+     * @param member 成员
+     * @return 新添加的成员数量
+     */
+    long geoAdd(String key, Point point, Object member);
+
+    /**
+     * 批量添加地理位置，每spring.redis.batch.flush-size个成员发送一条GEOADD
+     *
+     * @param key               键
+     * @param memberCoordinates 成员及其经纬度
+     * @return 新添加的成员数量
+     */
+    long geoAdd(String key, Map<Object, Point> memberCoordinates);
+
+    /**
+     * 删除地理位置，GEO底层为有序集，即ZREM
+     *
+     * @param key     键
+     * @param members 成员
+     * @return 删除的成员数量
+     */
+    long geoRemove(String key, Object... members);
+
+    /**
+     * 获取成员的经纬度(GEOPOS)
+     *
+     * @param key     键
+     * @param members 成员
+     * @return 经纬度，顺序与members一致，成员不存在时为null
+     */
+    List<Point> geoPos(String key, Object... members);
+
+    /**
+     * 计算两个成员之间的距离(GEODIST)
+     *
+     * @param key     键
+     * @param member1 成员1
+     * @param member2 成员2
+     * @param metric  距离单位，如Metrics.KILOMETERS，Metrics.NEUTRAL表示米
+     * @return 距离，任一成员不存在时返回null
+     */
+    Distance geoDist(String key, Object member1, Object member2, Metric metric);
+
+    /**
+     * 获取成员的11位geohash字符串(GEOHASH)
+     *
+     * @param key     键
+     * @param members 成员
+     * @return geohash，顺序与members一致，成员不存在时为null
+     */
+    List<String> geoHash(String key, Object... members);
+
+    /**
+     * 查找以center为圆心、radius为半径的圆内的成员，按距离由近到远排序
+     * (GEOSEARCH key FROMLONLAT lon lat BYRADIUS radius unit ASC COUNT count WITHCOORD WITHDIST)，需要redis 6.2+
+     *
+     * @param key    键
+     * @param center 圆心
+     * @param radius 半径，返回的距离使用相同的单位
+     * @param count  最多返回的数量 count<=0:不限制
+     * @return 成员、经纬度及到圆心的距离
+     */
+    GeoResults<RedisGeoCommands.GeoLocation<Object>> geoSearch(String key, Point center, Distance radius, long count);
+
+    /**
+     * 查找以member为圆心、radius为半径的圆内的成员(包括member自己)，按距离由近到远排序
+     * (GEOSEARCH key FROMMEMBER member BYRADIUS radius unit ASC COUNT count WITHCOORD WITHDIST)，需要redis 6.2+
+     *
+     * @param key    键
+     * @param member 作为圆心的成员
+     * @param radius 半径
+     * @param count  最多返回的数量 count<=0:不限制
+     * @return 成员、经纬度及到圆心的距离
+     */
+    GeoResults<RedisGeoCommands.GeoLocation<Object>> geoSearch(String key, Object member, Distance radius, long count);
+
+    /**
+     * 查找以center为中心、宽width高height的矩形内的成员，按距离由近到远排序
+     * (GEOSEARCH key FROMLONLAT lon lat BYBOX width height unit ASC COUNT count WITHCOORD WITHDIST)，需要redis 6.2+
+     *
+     * @param key    键
+     * @param center 矩形中心
+     * @param width  宽(东西方向)
+     * @param height 高(南北方向)
+     * @param metric 宽高及返回的距离的单位
+     * @param count  最多返回的数量 count<=0:不限制
+     * @return 成员、经纬度及到中心的距离
+     */
+    GeoResults<RedisGeoCommands.GeoLocation<Object>> geoSearchBox(String key, Point center, double width,
+                                                                  double height, Metric metric, long count);
+
+    /**
+     * 批量查找多个圆心附近的成员，所有GEOSEARCH通过pipeline一次发送，总耗时约为一次往返
+     *
+     * @param key     键
+     * @param centers 圆心
+     * @param radius  半径
+     * @param count   每个圆心最多返回的数量 count<=0:不限制
+     * @return 每个圆心的查询结果，顺序与centers一致
+     */
+    List<GeoResults<RedisGeoCommands.GeoLocation<Object>>> geoSearch(String key, List<Point> centers,
+                                                                     Distance radius, long count);
+
+    /**
+     * 以流的方式返回圆内的所有成员，按距离由近到远排序，适合半径很大、结果很多的查询
+     * 结果先通过GEOSEARCHSTORE ... STOREDIST保存到临时有序集，再按spring.redis.geo.page-size分页读取，
+     * 内存中最多只有一页结果；临时有序集在关闭流时删除，未关闭时在spring.redis.geo.result-ttl后过期
+     * 应在try-with-resources中使用，需要redis 6.2+
+     *
+     * @param key    键
+     * @param center 圆心
+     * @param radius 半径
+     * @return 成员、经纬度及到圆心的距离的流
+     */
+    Stream<GeoResult<RedisGeoCommands.GeoLocation<Object>>> geoSearchStream(String key, Point center,
+                                                                            Distance radius);
+    // ===== ops for geo end =====
+
+    // ===== scan ops begin =====
+
+    /**
+     * 使用SCAN遍历匹配的key，每次向redis请求的数量由spring.redis.scan.count配置(COUNT只是提示，实际返回数量可能不同)
+     * 游标只在消费完当前一批后才请求下一批，不会一次性把key全部加载到内存
+     * 遍历期间新增或删除的key可能不会被返回，同一个key也可能被返回多次
+     * 使用完毕后必须调用close释放连接
+     *
+     * @param pattern 匹配模式，如user:*
+     * @return key游标
+     */
+    Cursor<String> scanKeys(String pattern);
+
+    /**
+     * 使用SCAN遍历匹配的key
+     * 集群模式下依次遍历每个主节点
+     *
+     * @param pattern 匹配模式，如user:*，为null时遍历所有key
+     * @param count   每次向redis请求的数量(COUNT)，只是建议值
+     * @return key游标
+     */
+    Cursor<String> scanKeys(String pattern, long count);
+
+    /**
+     * 使用HSCAN遍历哈希表中的字段
+     *
+     * @param key     键
+     * @param pattern 字段匹配模式，为null时遍历所有字段
+     * @param count   每次向redis请求的数量(COUNT)
+     * @return 字段和值的游标
+     */
+    Cursor<Map.Entry<Object, Object>> hScan(String key, String pattern, long count);
+
+    /**
+     * 使用SSCAN遍历集合中的成员
+     *
+     * @param key     键
+     * @param pattern 成员匹配模式，为null时遍历所有成员
+     * @param count   每次向redis请求的数量(COUNT)
+     * @return 成员的游标
+     */
+    Cursor<Object> sScan(String key, String pattern, long count);
+
+    /**
+     * 使用ZSCAN遍历有序集中的成员及分数
+     * 返回的顺序与分数无关
+     *
+     * @param key     键
+     * @param pattern 成员匹配模式，为null时遍历所有成员
+     * @param count   每次向redis请求的数量(COUNT)
+     * @return 成员及分数的游标
+     */
+    Cursor<ZSetOperations.TypedTuple<Object>> zScan(String key, String pattern, long count);
+
+    /**
+     * 将游标转换为顺序流，关闭流时关闭游标
+     * 应在try-with-resources中使用
+     *
+     * @param cursor 游标
+     * @return 流
+     */
+    <T> Stream<T> stream(Cursor<T> cursor);
+    // ===== scan ops end =====
+
+    // ===== script ops begin =====
+
+    /**
+     * 向有序集添加成员，并只保留分数最高的maxSize个成员(如排行榜)
+     * 添加和裁剪在一个lua脚本中原子执行
+     *
+     * @param key     键
+     * @param value   值
+     * @param score   分数
+     * @param maxSize 最大成员数
+     * @return 被移除的成员数量
+     */
+    long zAddCapped(String key, Object value, double score, long maxSize);
+
+    /**
+     * 从令牌桶中取出令牌
+     * 令牌按refillPerSecond的速率补充，最多capacity个，补充和取出在一个lua脚本中原子执行
+     *
+     * @param key             令牌桶的键
+     * @param capacity        令牌桶容量
+     * @param refillPerSecond 每秒补充的令牌数，必须大于0
+     * @param permits         本次取出的令牌数
+     * @return 取出成功时返回剩余令牌数，令牌不足时返回-1
+     */
+    long tryAcquireToken(String key, long capacity, double refillPerSecond, long permits);
+
+    /**
+     * 比较并设置
+     * 当前值等于expect时设置为update，expect为null时要求key不存在
+     *
+     * @param key    键
+     * @param expect 期望的当前值
+     * @param update 新值
+     * @return true: 设置成功  false: 当前值与期望值不一致
+     */
+    boolean compareAndSet(String key, Object expect, Object update);
+
+    /**
+     * 比较并设置，同时设置过期时间
+     *
+     * @param key     键
+     * @param expect  期望的当前值，为null时要求key不存在
+     * @param update  新值
+     * @param timeout 过期时间(秒) timeout>0:timeout秒后过期  timeout<=0:无限期
+     * @return true: 设置成功  false: 当前值与期望值不一致
+     */
+    boolean compareAndSet(String key, Object expect, Object update, long timeout);
+    // ===== script ops end =====
+
+    // ===== batch ops begin =====
+
+    /**
+     * 创建一个批量操作，使用默认的flushSize
+     * 收集的命令在执行时通过pipeline发送，适合大量key的批量写入
+     *
+     * @return 批量操作
+     */
+    RedisBatch batch();
+
+    /**
+     * 创建一个批量操作
+     *
+     * @param flushSize 每次pipeline发送的最大命令数量
+     * @return 批量操作
+     */
+    RedisBatch batch(int flushSize);
+    // ===== batch ops end =====
+
+    // ===== stream ops begin =====
+
+    /**
+     * 向stream追加消息(XADD)，消息id由redis生成
+     *
+     * @param key    键
+     * @param fields 消息字段
+     * @return 消息id
+     */
+    String xAdd(String key, Map<String, Object> fields);
+
+    /**
+     * 向stream追加消息，并按近似长度裁剪(XADD MAXLEN ~ maxLen)
+     * 近似裁剪只在整个宏节点可以删除时才删除，开销远小于精确裁剪，实际长度可能略大于maxLen
+     *
+     * @param key    键
+     * @param fields 消息字段
+     * @param maxLen 保留的最大长度 maxLen<=0:不裁剪
+     * @return 消息id
+     */
+    String xAdd(String key, Map<String, Object> fields, long maxLen);
+
+    /**
+     * 创建消费组，从新消息开始消费，stream不存在时自动创建(XGROUP CREATE ... $ MKSTREAM)
+     *
+     * @param key   键
+     * @param group 消费组
+     * @return true: 创建成功  false: 消费组已存在
+     */
+    boolean xGroupCreate(String key, String group);
+
+    /**
+     * 创建消费组，stream不存在时自动创建
+     *
+     * @param key    键
+     * @param group  消费组
+     * @param offset 开始消费的位置 0:从头开始  $:从新消息开始
+     * @return true: 创建成功  false: 消费组已存在
+     */
+    boolean xGroupCreate(String key, String group, String offset);
+
+    /**
+     * 以消费组读取新消息(XREADGROUP COUNT count STREAMS key >)，不阻塞
+     * 读取的消息进入消费者的pending列表，处理完后需要xAck
+     *
+     * @param key      键
+     * @param group    消费组
+     * @param consumer 消费者
+     * @param count    最多读取的消息数量
+     * @return 消息列表
+     */
+    List<StreamRecord> xReadGroup(String key, String group, String consumer, int count);
+
+    /**
+     * 确认消息已处理(XACK)
+     *
+     * @param key   键
+     * @param group 消费组
+     * @param ids   消息id
+     * @return 确认的消息数量
+     */
+    long xAck(String key, String group, String... ids);
+
+    /**
+     * 获取消费组中已读取但未确认的消息(XPENDING key group - + count)
+     *
+     * @param key   键
+     * @param group 消费组
+     * @param count 最多返回的数量
+     * @return 未确认的消息
+     */
+    List<StreamPendingEntry> xPending(String key, String group, int count);
+
+    /**
+     * 把空闲时间不少于minIdleMillis的未确认消息转给consumer(XCLAIM)
+     * 用于接管宕机消费者未确认的消息，投递次数加1
+     *
+     * @param key           键
+     * @param group         消费组
+     * @param consumer      接管的消费者
+     * @param minIdleMillis 最小空闲时间(毫秒)
+     * @param ids           消息id
+     * @return 接管成功的消息，已被删除的消息不返回
+     */
+    List<StreamRecord> xClaim(String key, String group, String consumer, long minIdleMillis, String... ids);
+
+    /**
+     * 获取stream长度(XLEN)
+     *
+     * @param key 键
+     * @return 长度
+     */
+    long xLen(String key);
+
+    /**
+     * 按近似长度裁剪stream(XTRIM MAXLEN ~ maxLen)
+     *
+     * @param key    键
+     * @param maxLen 保留的最大长度
+     * @return 删除的消息数量
+     */
+    long xTrim(String key, long maxLen);
+
+    /**
+     * 删除消息(XDEL)
+     *
+     * @param key 键
+     * @param ids 消息id
+     * @return 删除的消息数量
+     */
+    long xDel(String key, String... ids);
+    // ===== stream ops end =====
 }
@@ -0,0 +1,119 @@
+package com.bc.redis.dao.impl;
+
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 集群模式下的SCAN游标
+ * SCAN只遍历单个节点的key，这里依次在每个主节点上执行SCAN，前一个节点遍历完后再打开下一个节点的游标
+ *
+ * @author zhou
+ */
+class ClusterScanCursor implements Cursor<byte[]> {
+
+    private final RedisClusterConnection connection;
+
+    private final List<RedisClusterNode> masters = new ArrayList<>();
+
+    private final ScanOptions options;
+
+    private int nodeIndex = -1;
+
+    private Cursor<byte[]> current;
+
+    private long position;
+
+    private boolean closed;
+
+    ClusterScanCursor(RedisClusterConnection connection, ScanOptions options) {
+        this.connection = connection;
+        this.options = options;
+        for (RedisClusterNode node : connection.clusterGetNodes()) {
+            if (node.isMaster()) {
+                masters.add(node);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (current == null || !current.hasNext()) {
+            if (!nextNode()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public byte[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more elements available for cursor " + getCursorId());
+        }
+        position++;
+        return current.next();
+    }
+
+    private boolean nextNode() {
+        closeCurrent();
+        if (closed || nodeIndex + 1 >= masters.size()) {
+            return false;
+        }
+        nodeIndex++;
+        current = connection.scan(masters.get(nodeIndex), options);
+        return true;
+    }
+
+    private void closeCurrent() {
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not close scan cursor: " + e.getMessage(), e);
+        } finally {
+            current = null;
+        }
+    }
+
+    @Override
+    public long getCursorId() {
+        return current == null ? 0 : current.getCursorId();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public Cursor<byte[]> open() {
+        return this;
+    }
+
+    @Override
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeCurrent();
+        } finally {
+            connection.close();
+        }
+    }
+}
@@ -1,16 +1,62 @@
 package com.bc.redis.dao.impl;
 
+import com.bc.redis.config.NativeLettuceClient;
+import com.bc.redis.dao.RedisBatch;
 import com.bc.redis.dao.RedisDao;
+import com.bc.redis.script.RedisScriptRegistry;
+import com.bc.redis.stream.StreamPendingEntry;
+import com.bc.redis.stream.StreamRecord;
+import io.lettuce.core.Consumer;
+import io.lettuce.core.GeoWithin;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.Limit;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XAddArgs;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.output.GeoWithinListOutput;
+import io.lettuce.core.output.IntegerOutput;
+import io.lettuce.core.output.StatusOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.protocol.ProtocolKeyword;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metric;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.ConvertingCursor;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * redis数据操作实现类
@@ -24,9 +70,84 @@ public class RedisDaoImpl implements RedisDao {
      */
     private static final Logger logger = LoggerFactory.getLogger(RedisDaoImpl.class);
 
+    /**
+     * BITFIELD中表示单个位的类型
+     */
+    private static final BitFieldSubCommands.BitFieldType BIT = BitFieldSubCommands.BitFieldType.unsigned(1);
+
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private RedisScriptRegistry redisScriptRegistry;
+
+    @Autowired
+    private NativeLettuceClient nativeLettuceClient;
+
+    /**
+     * 批量操作每次pipeline发送的默认命令数量
+     */
+    @Value("${spring.redis.batch.flush-size:1000}")
+    private int batchFlushSize;
+
+    /**
+     * SCAN默认每次请求的数量
+     */
+    @Value("${spring.redis.scan.count:10}")
+    private long scanCount;
+
+    /**
+     * geoSearchStream每次读取的数量
+     */
+    @Value("${spring.redis.geo.page-size:500}")
+    private int geoPageSize;
+
+    /**
+     * geoSearchStream临时有序集的过期时间(毫秒)
+     */
+    @Value("${spring.redis.geo.result-ttl:60000}")
+    private long geoResultTtl;
+
+    /**
+     * 部署模式: standalone/sentinel/cluster
+     */
+    @Value("${spring.redis.mode:standalone}")
+    private String mode;
+
+    /**
+     * 集群模式下按slot并行执行多key命令的线程数
+     */
+    @Value("${spring.redis.cluster.fan-out-threads:8}")
+    private int fanOutThreads;
+
+    /**
+     * 集群模式下的多key操作，非集群模式为null
+     */
+    private SlotAwareOperations slotAwareOperations;
+
+    private ExecutorService fanOutExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (!"cluster".equalsIgnoreCase(mode)) {
+            return;
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        fanOutExecutor = Executors.newFixedThreadPool(fanOutThreads, runnable -> {
+            Thread thread = new Thread(runnable, "redis-fan-out-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        slotAwareOperations = new SlotAwareOperations(redisTemplate, fanOutExecutor);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdown();
+        }
+    }
+
     // ===== common ops begin =====
 
     /**
@@ -84,6 +205,9 @@ public class RedisDaoImpl implements RedisDao {
      */
     @Override
     public long delete(List<String> keyList) {
+        if (slotAwareOperations != null) {
+            return slotAwareOperations.delete(keyList);
+        }
         return redisTemplate.delete(keyList);
     }
 
@@ -229,7 +353,11 @@ public class RedisDaoImpl implements RedisDao {
     @Override
     public boolean multiSet(Map<String, Object> map) {
         try {
-            redisTemplate.opsForValue().multiSet(map);
+            if (slotAwareOperations != null) {
+                slotAwareOperations.multiSet(map);
+            } else {
+                redisTemplate.opsForValue().multiSet(map);
+            }
             return true;
         } catch (Exception e) {
             logger.error("multiSet error: " + e.getMessage() + ", param[map]: " + map);
@@ -282,6 +410,9 @@ public class RedisDaoImpl implements RedisDao {
      */
     @Override
     public List<Object> multiGet(List<String> keyList) {
+        if (slotAwareOperations != null) {
+            return slotAwareOperations.multiGet(keyList);
+        }
         return redisTemplate.opsForValue().multiGet(keyList);
     }
 
@@ -941,6 +1072,9 @@ public class RedisDaoImpl implements RedisDao {
      */
     @Override
     public Set<Object> sUnion(String key, String otherKey) {
+        if (slotAwareOperations != null) {
+            return slotAwareOperations.sUnion(key, Collections.singletonList(otherKey));
+        }
         return redisTemplate.opsForSet().union(key, otherKey);
     }
 
@@ -954,6 +1088,9 @@ public class RedisDaoImpl implements RedisDao {
      */
     @Override
     public Set<Object> sUnion(String key, Collection<String> otherKeys) {
+        if (slotAwareOperations != null) {
+            return slotAwareOperations.sUnion(key, otherKeys);
+        }
         return redisTemplate.opsForSet().union(key, otherKeys);
     }
 
@@ -1213,6 +1350,9 @@ public class RedisDaoImpl implements RedisDao {
      */
     @Override
     public long zUnionAndStore(String key, String otherKey, String destKey) {
+        if (slotAwareOperations != null) {
+            return slotAwareOperations.zUnionAndStore(key, Collections.singletonList(otherKey), destKey);
+        }
         return redisTemplate.opsForZSet().unionAndStore(key, otherKey, destKey);
     }
 
@@ -1227,6 +1367,9 @@ public class RedisDaoImpl implements RedisDao {
      */
     @Override
     public long zUnionAndStore(String key, Collection<String> otherKeys, String destKey) {
+        if (slotAwareOperations != null) {
+            return slotAwareOperations.zUnionAndStore(key, otherKeys, destKey);
+        }
         return redisTemplate.opsForZSet().unionAndStore(key, otherKeys, destKey);
     }
 
@@ -1410,4 +1553,1045 @@ public class RedisDaoImpl implements RedisDao {
     }
     // ===== ops for zset end =====
 
+    // ===== ops for hyperloglog begin =====
+
+    /**
+     * 将元素添加到HyperLogLog(PFADD)
+     * 每个HyperLogLog最多占用12KB，可以估算2^64个不同元素的基数，标准误差0.81%
+     *
+     * @param key    键
+     * @param values 元素
+     * @return 1: 估算的基数发生变化  0: 未变化
+     */
+    @Override
+    public long pfAdd(String key, Object... values) {
+        Long result = redisTemplate.opsForHyperLogLog().add(key, values);
+        return result == null ? 0 : result;
+    }
+
+    /**
+     * 返回HyperLogLog估算的基数(PFCOUNT)，多个key时返回并集的基数
+     * 集群模式下多个key需要在同一个slot，可以使用hash tag
+     *
+     * @param keys 键
+     * @return 估算的基数
+     */
+    @Override
+    public long pfCount(String... keys) {
+        Long result = redisTemplate.opsForHyperLogLog().size(keys);
+        return result == null ? 0 : result;
+    }
+
+    /**
+     * 将多个HyperLogLog合并到destKey(PFMERGE)
+     * 集群模式下所有key需要在同一个slot，可以使用hash tag
+     *
+     * @param destKey    目标键
+     * @param sourceKeys 源键
+     * @return 合并后估算的基数
+     */
+    @Override
+    public long pfMerge(String destKey, String... sourceKeys) {
+        Long result = redisTemplate.opsForHyperLogLog().union(destKey, sourceKeys);
+        return result == null ? 0 : result;
+    }
+    // ===== ops for hyperloglog end =====
+
+    // ===== ops for bitmap begin =====
+
+    /**
+     * 设置key所储存的字符串值在offset上的位(SETBIT)，字符串长度不足时自动扩展
+     *
+     * @param key    键
+     * @param offset 位偏移
+     * @param value  true: 1  false: 0
+     * @return 该位原来的值
+     */
+    @Override
+    public boolean setBit(String key, long offset, boolean value) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setBit(key, offset, value));
+    }
+
+    /**
+     * 获取key所储存的字符串值在offset上的位(GETBIT)
+     *
+     * @param key    键
+     * @param offset 位偏移
+     * @return true: 1  false: 0
+     */
+    @Override
+    public boolean getBit(String key, long offset) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().getBit(key, offset));
+    }
+
+    /**
+     * 设置多个位，所有位通过一条BITFIELD命令设置(BITFIELD key SET u1 offset value ...)
+     *
+     * @param key     键
+     * @param value   true: 1  false: 0
+     * @param offsets 位偏移
+     * @return 每个位原来的值，顺序与offsets一致
+     */
+    @Override
+    public List<Boolean> setBits(String key, boolean value, long... offsets) {
+        if (offsets.length == 0) {
+            return Collections.emptyList();
+        }
+        BitFieldSubCommands subCommands = BitFieldSubCommands.create();
+        for (long offset : offsets) {
+            subCommands = subCommands.set(BIT).valueAt(offset).to(value ? 1 : 0);
+        }
+        return toBooleans(bitField(key, subCommands));
+    }
+
+    /**
+     * 获取多个位，所有位通过一条BITFIELD命令读取(BITFIELD key GET u1 offset ...)
+     *
+     * @param key     键
+     * @param offsets 位偏移
+     * @return 每个位的值，顺序与offsets一致
+     */
+    @Override
+    public List<Boolean> getBits(String key, long... offsets) {
+        if (offsets.length == 0) {
+            return Collections.emptyList();
+        }
+        BitFieldSubCommands subCommands = BitFieldSubCommands.create();
+        for (long offset : offsets) {
+            subCommands = subCommands.get(BIT).valueAt(offset);
+        }
+        return toBooleans(bitField(key, subCommands));
+    }
+
+    /**
+     * 统计值为1的位数(BITCOUNT)
+     *
+     * @param key 键
+     * @return 值为1的位数
+     */
+    @Override
+    public long bitCount(String key) {
+        Long count = redisTemplate.execute((RedisCallback<Long>) connection -> connection.bitCount(rawKey(key)));
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 统计字节范围内值为1的位数(BITCOUNT key start end)
+     *
+     * @param key   键
+     * @param start 开始字节，可以为负数，-1表示最后一个字节
+     * @param end   结束字节(包含)
+     * @return 值为1的位数
+     */
+    @Override
+    public long bitCount(String key, long start, long end) {
+        Long count = redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.bitCount(rawKey(key), start, end));
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 对一个或多个位图做位运算，结果保存到destKey(BITOP)
+     * 集群模式下所有key需要在同一个slot，可以使用hash tag
+     *
+     * @param op      运算: AND/OR/XOR/NOT，NOT只能有一个源key
+     * @param destKey 目标键
+     * @param keys    源键
+     * @return 结果字符串的长度(字节)
+     */
+    @Override
+    public long bitOp(RedisStringCommands.BitOperation op, String destKey, String... keys) {
+        byte[][] rawKeys = new byte[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            rawKeys[i] = rawKey(keys[i]);
+        }
+        Long length = redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.bitOp(op, rawKey(destKey), rawKeys));
+        return length == null ? 0 : length;
+    }
+
+    /**
+     * 返回第一个值为bit的位的位置(BITPOS)
+     *
+     * @param key 键
+     * @param bit true: 查找1  false: 查找0
+     * @return 位的位置，找不到1时返回-1
+     */
+    @Override
+    public long bitPos(String key, boolean bit) {
+        Long position = redisTemplate.execute((RedisCallback<Long>) connection -> connection.bitPos(rawKey(key), bit));
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * 返回字节范围内第一个值为bit的位的位置(BITPOS key bit start end)
+     *
+     * @param key   键
+     * @param bit   true: 查找1  false: 查找0
+     * @param start 开始字节
+     * @param end   结束字节(包含)
+     * @return 位的位置(相对于整个字符串)，找不到时返回-1
+     */
+    @Override
+    public long bitPos(String key, boolean bit, long start, long end) {
+        Range<Long> range = Range.of(Range.Bound.inclusive(start), Range.Bound.inclusive(end));
+        Long position = redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.bitPos(rawKey(key), bit, range));
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * 读取整个位图
+     *
+     * @param key 键
+     * @return 位图，BitSet的第i位对应redis的第i位
+     */
+    @Override
+    public BitSet getBitSet(String key) {
+        return getBitSet(key, 0, -1);
+    }
+
+    /**
+     * 读取字节范围内的位图(GETRANGE key start end)
+     * 只传输需要的字节，适合按天、按用户段读取大位图的一部分
+     *
+     * @param key   键
+     * @param start 开始字节
+     * @param end   结束字节(包含)
+     * @return 位图，BitSet的第i位对应redis的第 start * 8 + i 位
+     */
+    @Override
+    public BitSet getBitSet(String key, long start, long end) {
+        byte[] bytes = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.getRange(rawKey(key), start, end));
+        if (bytes == null) {
+            return new BitSet();
+        }
+        // redis每个字节的最高位在前，BitSet每个字节的最低位在前
+        byte[] reversed = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            reversed[i] = (byte) (Integer.reverse(bytes[i]) >>> 24);
+        }
+        return BitSet.valueOf(reversed);
+    }
+
+    /**
+     * 执行BITFIELD
+     *
+     * @param key         键
+     * @param subCommands 子命令
+     * @return 每个子命令的结果
+     */
+    @Override
+    public List<Long> bitField(String key, BitFieldSubCommands subCommands) {
+        List<Long> results = redisTemplate.opsForValue().bitField(key, subCommands);
+        return results == null ? Collections.emptyList() : results;
+    }
+
+    /**
+     * 将第index个计数器增加delta，计数器按type的位数紧凑排列(BITFIELD key OVERFLOW SAT INCRBY type #index delta)
+     * 溢出时停在最大值或最小值
+     *
+     * @param key   键
+     * @param type  计数器类型，如u8、u16、i32
+     * @param index 计数器序号
+     * @param delta 增量
+     * @return 增加后的值
+     */
+    @Override
+    public long bitFieldIncrement(String key, BitFieldSubCommands.BitFieldType type, long index, long delta) {
+        List<Long> results = bitField(key, BitFieldSubCommands.create().incr(type)
+                .valueAt(BitFieldSubCommands.Offset.offset(index).multipliedByTypeLength())
+                .overflow(BitFieldSubCommands.BitFieldIncrBy.Overflow.SAT).by(delta));
+        return results.get(0);
+    }
+
+    /**
+     * 读取从fromIndex开始的count个计数器，通过一条BITFIELD命令读取
+     *
+     * @param key       键
+     * @param type      计数器类型
+     * @param fromIndex 开始的计数器序号
+     * @param count     计数器数量
+     * @return 计数器的值
+     */
+    @Override
+    public List<Long> bitFieldGet(String key, BitFieldSubCommands.BitFieldType type, long fromIndex, int count) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        BitFieldSubCommands subCommands = BitFieldSubCommands.create();
+        for (long index = fromIndex; index < fromIndex + count; index++) {
+            subCommands = subCommands.get(type).valueAt(BitFieldSubCommands.Offset.offset(index)
+                    .multipliedByTypeLength());
+        }
+        return bitField(key, subCommands);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    private static List<Boolean> toBooleans(List<Long> bits) {
+        List<Boolean> values = new ArrayList<>(bits.size());
+        for (Long bit : bits) {
+            values.add(bit != null && bit == 1);
+        }
+        return values;
+    }
+    // ===== ops for bitmap end =====
+
+    // ===== ops for geo begin =====
+
+    /**
+     * 添加一个地理位置(GEOADD)
+     *
+     * @param key    键
+     * @param point  经纬度，x为经度，y为纬度
+     * @param member 成员
+     * @return 新添加的成员数量
+     */
+    @Override
+    public long geoAdd(String key, Point point, Object member) {
+        Long count = redisTemplate.opsForGeo().add(key, point, member);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 批量添加地理位置，每spring.redis.batch.flush-size个成员发送一条GEOADD
+     *
+     * @param key               键
+     * @param memberCoordinates 成员及其经纬度
+     * @return 新添加的成员数量
+     */
+    @Override
+    public long geoAdd(String key, Map<Object, Point> memberCoordinates) {
+        long added = 0;
+        Map<Object, Point> chunk = new LinkedHashMap<>();
+        for (Map.Entry<Object, Point> entry : memberCoordinates.entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+            if (chunk.size() >= batchFlushSize) {
+                added += geoAddChunk(key, chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            added += geoAddChunk(key, chunk);
+        }
+        return added;
+    }
+
+    /**
+     * 删除地理位置，GEO底层为有序集，即ZREM
+     *
+     * @param key     键
+     * @param members 成员
+     * @return 删除的成员数量
+     */
+    @Override
+    public long geoRemove(String key, Object... members) {
+        if (members.length == 0) {
+            return 0;
+        }
+        Long count = redisTemplate.opsForGeo().remove(key, members);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 获取成员的经纬度(GEOPOS)
+     *
+     * @param key     键
+     * @param members 成员
+     * @return 经纬度，顺序与members一致，成员不存在时为null
+     */
+    @Override
+    public List<Point> geoPos(String key, Object... members) {
+        if (members.length == 0) {
+            return Collections.emptyList();
+        }
+        List<Point> points = redisTemplate.opsForGeo().position(key, members);
+        return points == null ? Collections.emptyList() : points;
+    }
+
+    /**
+     * 计算两个成员之间的距离(GEODIST)
+     *
+     * @param key     键
+     * @param member1 成员1
+     * @param member2 成员2
+     * @param metric  距离单位，如Metrics.KILOMETERS，Metrics.NEUTRAL表示米
+     * @return 距离，任一成员不存在时返回null
+     */
+    @Override
+    public Distance geoDist(String key, Object member1, Object member2, Metric metric) {
+        return redisTemplate.opsForGeo().distance(key, member1, member2, metric);
+    }
+
+    /**
+     * 获取成员的11位geohash字符串(GEOHASH)
+     *
+     * @param key     键
+     * @param members 成员
+     * @return geohash，顺序与members一致，成员不存在时为null
+     */
+    @Override
+    public List<String> geoHash(String key, Object... members) {
+        if (members.length == 0) {
+            return Collections.emptyList();
+        }
+        List<String> hashes = redisTemplate.opsForGeo().hash(key, members);
+        return hashes == null ? Collections.emptyList() : hashes;
+    }
+
+    /**
+     * 查找以center为圆心、radius为半径的圆内的成员，按距离由近到远排序
+     * (GEOSEARCH key FROMLONLAT lon lat BYRADIUS radius unit ASC COUNT count WITHCOORD WITHDIST)，需要redis 6.2+
+     *
+     * @param key    键
+     * @param center 圆心
+     * @param radius 半径，返回的距离使用相同的单位
+     * @param count  最多返回的数量 count<=0:不限制
+     * @return 成员、经纬度及到圆心的距离
+     */
+    @Override
+    public GeoResults<RedisGeoCommands.GeoLocation<Object>> geoSearch(String key, Point center, Distance radius,
+                                                                      long count) {
+        CommandArgs<byte[], byte[]> args = geoSearchArgs(key, center, radius);
+        return toGeoResults(nativeLettuceClient.commands().dispatch(GeoCommand.GEOSEARCH, geoWithinOutput(),
+                withSearchOptions(args, count)), radius.getMetric());
+    }
+
+    /**
+     * 查找以member为圆心、radius为半径的圆内的成员(包括member自己)，按距离由近到远排序
+     * (GEOSEARCH key FROMMEMBER member BYRADIUS radius unit ASC COUNT count WITHCOORD WITHDIST)，需要redis 6.2+
+     *
+     * @param key    键
+     * @param member 作为圆心的成员
+     * @param radius 半径
+     * @param count  最多返回的数量 count<=0:不限制
+     * @return 成员、经纬度及到圆心的距离
+     */
+    @Override
+    public GeoResults<RedisGeoCommands.GeoLocation<Object>> geoSearch(String key, Object member, Distance radius,
+                                                                      long count) {
+        CommandArgs<byte[], byte[]> args = new CommandArgs<>(ByteArrayCodec.INSTANCE).addKey(rawKey(key))
+                .add("FROMMEMBER").add(rawValue(member))
+                .add("BYRADIUS").add(radius.getValue()).add(geoUnit(radius.getMetric()));
+        return toGeoResults(nativeLettuceClient.commands().dispatch(GeoCommand.GEOSEARCH, geoWithinOutput(),
+                withSearchOptions(args, count)), radius.getMetric());
+    }
+
+    /**
+     * 查找以center为中心、宽width高height的矩形内的成员，按距离由近到远排序
+     * (GEOSEARCH key FROMLONLAT lon lat BYBOX width height unit ASC COUNT count WITHCOORD WITHDIST)，需要redis 6.2+
+     *
+     * @param key    键
+     * @param center 矩形中心
+     * @param width  宽(东西方向)
+     * @param height 高(南北方向)
+     * @param metric 宽高及返回的距离的单位
+     * @param count  最多返回的数量 count<=0:不限制
+     * @return 成员、经纬度及到中心的距离
+     */
+    @Override
+    public GeoResults<RedisGeoCommands.GeoLocation<Object>> geoSearchBox(String key, Point center, double width,
+                                                                         double height, Metric metric, long count) {
+        CommandArgs<byte[], byte[]> args = new CommandArgs<>(ByteArrayCodec.INSTANCE).addKey(rawKey(key))
+                .add("FROMLONLAT").add(center.getX()).add(center.getY())
+                .add("BYBOX").add(width).add(height).add(geoUnit(metric));
+        return toGeoResults(nativeLettuceClient.commands().dispatch(GeoCommand.GEOSEARCH, geoWithinOutput(),
+                withSearchOptions(args, count)), metric);
+    }
+
+    /**
+     * 批量查找多个圆心附近的成员，所有GEOSEARCH通过pipeline一次发送，总耗时约为一次往返
+     *
+     * @param key     键
+     * @param centers 圆心
+     * @param radius  半径
+     * @param count   每个圆心最多返回的数量 count<=0:不限制
+     * @return 每个圆心的查询结果，顺序与centers一致
+     */
+    @Override
+    public List<GeoResults<RedisGeoCommands.GeoLocation<Object>>> geoSearch(String key, List<Point> centers,
+                                                                            Distance radius, long count) {
+        // 异步命令写出后不等待响应，连续发送的命令在同一个连接上形成pipeline
+        List<RedisFuture<List<GeoWithin<byte[]>>>> futures = new ArrayList<>(centers.size());
+        for (Point center : centers) {
+            futures.add(nativeLettuceClient.async().dispatch(GeoCommand.GEOSEARCH, geoWithinOutput(),
+                    withSearchOptions(geoSearchArgs(key, center, radius), count)));
+        }
+        long timeoutNanos = nativeLettuceClient.getTimeout().toNanos();
+        List<GeoResults<RedisGeoCommands.GeoLocation<Object>>> results = new ArrayList<>(centers.size());
+        for (RedisFuture<List<GeoWithin<byte[]>>> future : futures) {
+            results.add(toGeoResults(LettuceFutures.awaitOrCancel(future, timeoutNanos, TimeUnit.NANOSECONDS),
+                    radius.getMetric()));
+        }
+        return results;
+    }
+
+    /**
+     * 以流的方式返回圆内的所有成员，按距离由近到远排序，适合半径很大、结果很多的查询
+     * 结果先通过GEOSEARCHSTORE ... STOREDIST保存到临时有序集，再按spring.redis.geo.page-size分页读取，
+     * 内存中最多只有一页结果；临时有序集在关闭流时删除，未关闭时在spring.redis.geo.result-ttl后过期
+     * 应在try-with-resources中使用，需要redis 6.2+
+     *
+     * @param key    键
+     * @param center 圆心
+     * @param radius 半径
+     * @return 成员、经纬度及到圆心的距离的流
+     */
+    @Override
+    public Stream<GeoResult<RedisGeoCommands.GeoLocation<Object>>> geoSearchStream(String key, Point center,
+                                                                                   Distance radius) {
+        String resultKey = geoResultKey(key);
+        CommandArgs<byte[], byte[]> args = new CommandArgs<>(ByteArrayCodec.INSTANCE).addKey(rawKey(resultKey))
+                .addKey(rawKey(key))
+                .add("FROMLONLAT").add(center.getX()).add(center.getY())
+                .add("BYRADIUS").add(radius.getValue()).add(geoUnit(radius.getMetric()))
+                .add("ASC").add("STOREDIST");
+        Long stored = nativeLettuceClient.commands().dispatch(GeoCommand.GEOSEARCHSTORE,
+                new IntegerOutput<>(ByteArrayCodec.INSTANCE), args);
+        long size = stored == null ? 0 : stored;
+        if (size == 0) {
+            // 结果为空时redis不会创建临时有序集
+            return Stream.empty();
+        }
+        expire(resultKey, geoResultTtl, TimeUnit.MILLISECONDS);
+        Spliterator<GeoResult<RedisGeoCommands.GeoLocation<Object>>> spliterator =
+                new Spliterators.AbstractSpliterator<GeoResult<RedisGeoCommands.GeoLocation<Object>>>(size,
+                        Spliterator.ORDERED | Spliterator.NONNULL) {
+
+                    private long offset;
+
+                    private Iterator<GeoResult<RedisGeoCommands.GeoLocation<Object>>> page =
+                            Collections.emptyIterator();
+
+                    @Override
+                    public boolean tryAdvance(
+                            java.util.function.Consumer<? super GeoResult<RedisGeoCommands.GeoLocation<Object>>> action) {
+                        if (!page.hasNext()) {
+                            if (offset >= size) {
+                                return false;
+                            }
+                            page = geoResultPage(key, resultKey, offset, radius.getMetric()).iterator();
+                            offset += geoPageSize;
+                            if (!page.hasNext()) {
+                                return false;
+                            }
+                        }
+                        action.accept(page.next());
+                        return true;
+                    }
+                };
+        return StreamSupport.stream(spliterator, false).onClose(() -> redisTemplate.delete(resultKey));
+    }
+
+    private long geoAddChunk(String key, Map<Object, Point> chunk) {
+        Long count = redisTemplate.opsForGeo().add(key, chunk);
+        return count == null ? 0 : count;
+    }
+
+    private CommandArgs<byte[], byte[]> geoSearchArgs(String key, Point center, Distance radius) {
+        return new CommandArgs<>(ByteArrayCodec.INSTANCE).addKey(rawKey(key))
+                .add("FROMLONLAT").add(center.getX()).add(center.getY())
+                .add("BYRADIUS").add(radius.getValue()).add(geoUnit(radius.getMetric()));
+    }
+
+    private static CommandArgs<byte[], byte[]> withSearchOptions(CommandArgs<byte[], byte[]> args, long count) {
+        args.add("ASC");
+        if (count > 0) {
+            args.add("COUNT").add(count);
+        }
+        return args.add("WITHCOORD").add("WITHDIST");
+    }
+
+    private static GeoWithinListOutput<byte[], byte[]> geoWithinOutput() {
+        return new GeoWithinListOutput<>(ByteArrayCodec.INSTANCE, true, false, true);
+    }
+
+    /**
+     * Metrics.NEUTRAL在spring-data-redis中表示米
+     */
+    private static String geoUnit(Metric metric) {
+        String abbreviation = metric.getAbbreviation();
+        return abbreviation == null || abbreviation.isEmpty() ? "m" : abbreviation;
+    }
+
+    private GeoResults<RedisGeoCommands.GeoLocation<Object>> toGeoResults(List<GeoWithin<byte[]>> replies,
+                                                                           Metric metric) {
+        RedisSerializer<?> serializer = redisTemplate.getValueSerializer();
+        List<GeoResult<RedisGeoCommands.GeoLocation<Object>>> results = new ArrayList<>(replies.size());
+        for (GeoWithin<byte[]> reply : replies) {
+            Point point = new Point(reply.getCoordinates().getX().doubleValue(),
+                    reply.getCoordinates().getY().doubleValue());
+            results.add(new GeoResult<>(new RedisGeoCommands.GeoLocation<>(serializer.deserialize(reply.getMember()),
+                    point), new Distance(reply.getDistance(), metric)));
+        }
+        return new GeoResults<>(results, metric);
+    }
+
+    /**
+     * 临时有序集的key，GEOSEARCHSTORE要求与源key在同一个slot，源key没有hash tag时以整个源key作为hash tag
+     */
+    private static String geoResultKey(String key) {
+        int open = key.indexOf('{');
+        int close = open < 0 ? -1 : key.indexOf('}', open + 1);
+        String tagged = close > open + 1 ? key : "{" + key + "}";
+        return tagged + ":geo:" + UUID.randomUUID();
+    }
+
+    /**
+     * 读取临时有序集中的一页，分数即距离；临时有序集只保存了成员和距离，经纬度从源key读取
+     */
+    private List<GeoResult<RedisGeoCommands.GeoLocation<Object>>> geoResultPage(String key, String resultKey,
+                                                                               long offset, Metric metric) {
+        Set<ZSetOperations.TypedTuple<Object>> tuples = redisTemplate.opsForZSet().rangeWithScores(resultKey,
+                offset, offset + geoPageSize - 1);
+        if (tuples == null || tuples.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ZSetOperations.TypedTuple<Object>> page = new ArrayList<>(tuples);
+        Object[] members = new Object[page.size()];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = page.get(i).getValue();
+        }
+        List<Point> points = geoPos(key, members);
+        List<GeoResult<RedisGeoCommands.GeoLocation<Object>>> results = new ArrayList<>(members.length);
+        for (int i = 0; i < members.length; i++) {
+            // 读取期间已从源key删除的成员经纬度为null
+            Point point = i < points.size() ? points.get(i) : null;
+            results.add(new GeoResult<>(new RedisGeoCommands.GeoLocation<>(members[i], point),
+                    new Distance(page.get(i).getScore(), metric)));
+        }
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    }
+
+    /**
+     * lettuce 5.1的CommandType中没有redis 6.2新增的GEO命令
+     */
+    private enum GeoCommand implements ProtocolKeyword {
+        GEOSEARCH, GEOSEARCHSTORE;
+
+        private final byte[] bytes = name().getBytes(StandardCharsets.US_ASCII);
+
+        @Override
+        public byte[] getBytes() {
+            return bytes;
+        }
+    }
+    // ===== ops for geo end =====
+
+    // ===== scan ops begin =====
+
+    /**
+     * 使用SCAN遍历匹配的key，每次请求的数量由spring.redis.scan.count配置
+     * 游标只在消费完当前一批后才请求下一批，不会一次性把key全部加载到内存
+     * 遍历期间新增或删除的key可能不会被返回，同一个key也可能被返回多次
+     * 使用完毕后必须调用close释放连接
+     *
+     * @param pattern 匹配模式，如user:*
+     * @return key游标
+     */
+    @Override
+    public Cursor<String> scanKeys(String pattern) {
+        return scanKeys(pattern, scanCount);
+    }
+
+    /**
+     * 使用SCAN遍历匹配的key
+     * 集群模式下依次遍历每个主节点
+     *
+     * @param pattern 匹配模式，如user:*，为null时遍历所有key
+     * @param count   每次向redis请求的数量(COUNT)，只是建议值
+     * @return key游标
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Cursor<String> scanKeys(String pattern, long count) {
+        ScanOptions options = scanOptions(pattern, count);
+        Cursor<byte[]> cursor = redisTemplate.executeWithStickyConnection(connection -> {
+            if (connection instanceof RedisClusterConnection) {
+                return new ClusterScanCursor((RedisClusterConnection) connection, options);
+            }
+            return connection.scan(options);
+        });
+        return new ConvertingCursor<>(cursor,
+                bytes -> (String) redisTemplate.getKeySerializer().deserialize(bytes));
+    }
+
+    /**
+     * 使用HSCAN遍历哈希表中的字段
+     *
+     * @param key     键
+     * @param pattern 字段匹配模式，为null时遍历所有字段
+     * @param count   每次向redis请求的数量(COUNT)
+     * @return 字段和值的游标
+     */
+    @Override
+    public Cursor<Map.Entry<Object, Object>> hScan(String key, String pattern, long count) {
+        return redisTemplate.opsForHash().scan(key, scanOptions(pattern, count));
+    }
+
+    /**
+     * 使用SSCAN遍历集合中的成员
+     *
+     * @param key     键
+     * @param pattern 成员匹配模式，为null时遍历所有成员
+     * @param count   每次向redis请求的数量(COUNT)
+     * @return 成员的游标
+     */
+    @Override
+    public Cursor<Object> sScan(String key, String pattern, long count) {
+        return redisTemplate.opsForSet().scan(key, scanOptions(pattern, count));
+    }
+
+    /**
+     * 使用ZSCAN遍历有序集中的成员及分数
+     * 返回的顺序与分数无关
+     *
+     * @param key     键
+     * @param pattern 成员匹配模式，为null时遍历所有成员
+     * @param count   每次向redis请求的数量(COUNT)
+     * @return 成员及分数的游标
+     */
+    @Override
+    public Cursor<ZSetOperations.TypedTuple<Object>> zScan(String key, String pattern, long count) {
+        return redisTemplate.opsForZSet().scan(key, scanOptions(pattern, count));
+    }
+
+    /**
+     * 将游标转换为顺序流，关闭流时关闭游标
+     * 应在try-with-resources中使用
+     *
+     * @param cursor 游标
+     * @return 流
+     */
+    @Override
+    public <T> Stream<T> stream(Cursor<T> cursor) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        cursor.close();
+                    } catch (IOException e) {
+                        logger.error("close cursor error: " + e.getMessage());
+                    }
+                });
+    }
+
+    private static ScanOptions scanOptions(String pattern, long count) {
+        ScanOptions.ScanOptionsBuilder builder = ScanOptions.scanOptions().count(count);
+        if (pattern != null) {
+            builder.match(pattern);
+        }
+        return builder.build();
+    }
+    // ===== scan ops end =====
+
+    // ===== script ops begin =====
+
+    /**
+     * 向有序集添加成员，并只保留分数最高的maxSize个成员(如排行榜)
+     * 添加和裁剪在一个lua脚本中原子执行
+     *
+     * @param key     键
+     * @param value   值
+     * @param score   分数
+     * @param maxSize 最大成员数
+     * @return 被移除的成员数量
+     */
+    @Override
+    public long zAddCapped(String key, Object value, double score, long maxSize) {
+        Long removed = redisScriptRegistry.execute(RedisScriptRegistry.ZADD_CAPPED, Collections.singletonList(key),
+                score, serializeValue(value), maxSize);
+        return removed == null ? 0 : removed;
+    }
+
+    /**
+     * 从令牌桶中取出令牌
+     * 令牌按refillPerSecond的速率补充，最多capacity个，补充和取出在一个lua脚本中原子执行
+     *
+     * @param key             令牌桶的键
+     * @param capacity        令牌桶容量
+     * @param refillPerSecond 每秒补充的令牌数，必须大于0
+     * @param permits         本次取出的令牌数
+     * @return 取出成功时返回剩余令牌数，令牌不足时返回-1
+     */
+    @Override
+    public long tryAcquireToken(String key, long capacity, double refillPerSecond, long permits) {
+        if (refillPerSecond <= 0) {
+            throw new IllegalArgumentException("refillPerSecond must be greater than 0");
+        }
+        Long remaining = redisScriptRegistry.execute(RedisScriptRegistry.TOKEN_TAKE, Collections.singletonList(key),
+                capacity, refillPerSecond, permits);
+        return remaining == null ? -1 : remaining;
+    }
+
+    /**
+     * 比较并设置
+     * 当前值等于expect时设置为update，expect为null时要求key不存在
+     *
+     * @param key    键
+     * @param expect 期望的当前值
+     * @param update 新值
+     * @return true: 设置成功  false: 当前值与期望值不一致
+     */
+    @Override
+    public boolean compareAndSet(String key, Object expect, Object update) {
+        return compareAndSet(key, expect, update, 0);
+    }
+
+    /**
+     * 比较并设置，同时设置过期时间
+     * 值按序列化后的字节比较
+     *
+     * @param key     键
+     * @param expect  期望的当前值，为null时要求key不存在
+     * @param update  新值
+     * @param timeout 过期时间(秒) timeout>0:timeout秒后过期  timeout<=0:无限期
+     * @return true: 设置成功  false: 当前值与期望值不一致
+     */
+    @Override
+    public boolean compareAndSet(String key, Object expect, Object update, long timeout) {
+        Long result = redisScriptRegistry.execute(RedisScriptRegistry.COMPARE_AND_SET,
+                Collections.singletonList(key), expect == null ? 0 : 1, serializeValue(expect),
+                serializeValue(update), timeout > 0 ? TimeUnit.SECONDS.toMillis(timeout) : 0);
+        return result != null && result == 1;
+    }
+
+    /**
+     * 使用value序列化器序列化，保证脚本中比较和写入的值与redisTemplate写入的一致
+     */
+    @SuppressWarnings("unchecked")
+    private byte[] serializeValue(Object value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    }
+    // ===== script ops end =====
+
+    // ===== batch ops begin =====
+
+    /**
+     * 创建一个批量操作，使用默认的flushSize
+     * 收集的命令在执行时通过pipeline发送，适合大量key的批量写入
+     *
+     * @return 批量操作
+     */
+    @Override
+    public RedisBatch batch() {
+        return new RedisBatch(redisTemplate, batchFlushSize);
+    }
+
+    /**
+     * 创建一个批量操作
+     *
+     * @param flushSize 每次pipeline发送的最大命令数量
+     * @return 批量操作
+     */
+    @Override
+    public RedisBatch batch(int flushSize) {
+        return new RedisBatch(redisTemplate, flushSize);
+    }
+    // ===== batch ops end =====
+
+    // ===== stream ops begin =====
+
+    /**
+     * 向stream追加消息(XADD)，消息id由redis生成
+     *
+     * @param key    键
+     * @param fields 消息字段
+     * @return 消息id
+     */
+    @Override
+    public String xAdd(String key, Map<String, Object> fields) {
+        return xAdd(key, fields, 0);
+    }
+
+    /**
+     * 向stream追加消息，并按近似长度裁剪(XADD MAXLEN ~ maxLen)
+     * 近似裁剪只在整个宏节点可以删除时才删除，开销远小于精确裁剪，实际长度可能略大于maxLen
+     *
+     * @param key    键
+     * @param fields 消息字段
+     * @param maxLen 保留的最大长度 maxLen<=0:不裁剪
+     * @return 消息id
+     */
+    @Override
+    public String xAdd(String key, Map<String, Object> fields, long maxLen) {
+        XAddArgs args = new XAddArgs();
+        if (maxLen > 0) {
+            args.maxlen(maxLen).approximateTrimming();
+        }
+        return nativeLettuceClient.commands().xadd(nativeLettuceClient.encode(key), args,
+                nativeLettuceClient.encodeFields(fields));
+    }
+
+    /**
+     * 创建消费组，从新消息开始消费，stream不存在时自动创建(XGROUP CREATE ... $ MKSTREAM)
+     *
+     * @param key   键
+     * @param group 消费组
+     * @return true: 创建成功  false: 消费组已存在
+     */
+    @Override
+    public boolean xGroupCreate(String key, String group) {
+        return xGroupCreate(key, group, "$");
+    }
+
+    /**
+     * 创建消费组，stream不存在时自动创建
+     * lettuce 5.1的xgroupCreate不支持MKSTREAM，这里直接发送命令
+     *
+     * @param key    键
+     * @param group  消费组
+     * @param offset 开始消费的位置 0:从头开始  $:从新消息开始
+     * @return true: 创建成功  false: 消费组已存在
+     */
+    @Override
+    public boolean xGroupCreate(String key, String group, String offset) {
+        CommandArgs<byte[], byte[]> args = new CommandArgs<>(ByteArrayCodec.INSTANCE)
+                .add("CREATE").addKey(nativeLettuceClient.encode(key)).add(group).add(offset).add("MKSTREAM");
+        try {
+            nativeLettuceClient.commands().dispatch(CommandType.XGROUP, new StatusOutput<>(ByteArrayCodec.INSTANCE),
+                    args);
+            return true;
+        } catch (RedisCommandExecutionException e) {
+            if (e.getMessage() != null && e.getMessage().startsWith("BUSYGROUP")) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 以消费组读取新消息(XREADGROUP COUNT count STREAMS key >)，不阻塞
+     * 读取的消息进入消费者的pending列表，处理完后需要xAck
+     *
+     * @param key      键
+     * @param group    消费组
+     * @param consumer 消费者
+     * @param count    最多读取的消息数量
+     * @return 消息列表
+     */
+    @Override
+    public List<StreamRecord> xReadGroup(String key, String group, String consumer, int count) {
+        List<StreamMessage<byte[], byte[]>> messages = nativeLettuceClient.commands().xreadgroup(
+                Consumer.from(nativeLettuceClient.encode(group), nativeLettuceClient.encode(consumer)),
+                XReadArgs.Builder.count(count), XReadArgs.StreamOffset.lastConsumed(nativeLettuceClient.encode(key)));
+        return StreamRecord.fromMessages(messages, nativeLettuceClient);
+    }
+
+    /**
+     * 确认消息已处理(XACK)
+     *
+     * @param key   键
+     * @param group 消费组
+     * @param ids   消息id
+     * @return 确认的消息数量
+     */
+    @Override
+    public long xAck(String key, String group, String... ids) {
+        if (ids.length == 0) {
+            return 0;
+        }
+        Long count = nativeLettuceClient.commands().xack(nativeLettuceClient.encode(key), nativeLettuceClient.encode(group),
+                ids);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 获取消费组中已读取但未确认的消息(XPENDING key group - + count)
+     *
+     * @param key   键
+     * @param group 消费组
+     * @param count 最多返回的数量
+     * @return 未确认的消息
+     */
+    @Override
+    public List<StreamPendingEntry> xPending(String key, String group, int count) {
+        List<Object> replies = nativeLettuceClient.commands().xpending(nativeLettuceClient.encode(key),
+                nativeLettuceClient.encode(group), io.lettuce.core.Range.create("-", "+"), Limit.from(count));
+        List<StreamPendingEntry> entries = new ArrayList<>(replies.size());
+        for (Object reply : replies) {
+            // 每一项为 [id, consumer, idle, deliveryCount]
+            List<?> item = (List<?>) reply;
+            entries.add(new StreamPendingEntry(nativeLettuceClient.decode((byte[]) item.get(0)),
+                    nativeLettuceClient.decode((byte[]) item.get(1)), (Long) item.get(2), (Long) item.get(3)));
+        }
+        return entries;
+    }
+
+    /**
+     * 把空闲时间不少于minIdleMillis的未确认消息转给consumer(XCLAIM)
+     * 用于接管宕机消费者未确认的消息，投递次数加1
+     *
+     * @param key           键
+     * @param group         消费组
+     * @param consumer      接管的消费者
+     * @param minIdleMillis 最小空闲时间(毫秒)
+     * @param ids           消息id
+     * @return 接管成功的消息，已被删除的消息不返回
+     */
+    @Override
+    public List<StreamRecord> xClaim(String key, String group, String consumer, long minIdleMillis, String... ids) {
+        if (ids.length == 0) {
+            return Collections.emptyList();
+        }
+        List<StreamMessage<byte[], byte[]>> messages = nativeLettuceClient.commands().xclaim(
+                nativeLettuceClient.encode(key),
+                Consumer.from(nativeLettuceClient.encode(group), nativeLettuceClient.encode(consumer)), minIdleMillis, ids);
+        return StreamRecord.fromMessages(messages, nativeLettuceClient);
+    }
+
+    /**
+     * 获取stream长度(XLEN)
+     *
+     * @param key 键
+     * @return 长度
+     */
+    @Override
+    public long xLen(String key) {
+        Long length = nativeLettuceClient.commands().xlen(nativeLettuceClient.encode(key));
+        return length == null ? 0 : length;
+    }
+
+    /**
+     * 按近似长度裁剪stream(XTRIM MAXLEN ~ maxLen)
+     *
+     * @param key    键
+     * @param maxLen 保留的最大长度
+     * @return 删除的消息数量
+     */
+    @Override
+    public long xTrim(String key, long maxLen) {
+        Long count = nativeLettuceClient.commands().xtrim(nativeLettuceClient.encode(key), true, maxLen);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 删除消息(XDEL)
+     *
+     * @param key 键
+     * @param ids 消息id
+     * @return 删除的消息数量
+     */
+    @Override
+    public long xDel(String key, String... ids) {
+        if (ids.length == 0) {
+            return 0;
+        }
+        Long count = nativeLettuceClient.commands().xdel(nativeLettuceClient.encode(key), ids);
+        return count == null ? 0 : count;
+    }
+    // ===== stream ops end =====
+
 }
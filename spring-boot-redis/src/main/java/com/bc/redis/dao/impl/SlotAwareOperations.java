@@ -0,0 +1,229 @@
+package com.bc.redis.dao.impl;
+
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * 集群模式下按slot分组的多key操作
+ * 多key命令要求所有key在同一个slot，否则redis返回CROSSSLOT错误
+ * 这里先把key按slot分组，每组发送一条多key命令，各组并行执行后在客户端合并结果
+ *
+ * @author zhou
+ */
+class SlotAwareOperations {
+
+    /**
+     * zset写入目标key时每条ZADD的最大成员数
+     */
+    private static final int ZADD_CHUNK_SIZE = 1000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final ExecutorService executor;
+
+    SlotAwareOperations(RedisTemplate<String, Object> redisTemplate, ExecutorService executor) {
+        this.redisTemplate = redisTemplate;
+        this.executor = executor;
+    }
+
+    /**
+     * 按slot分组MGET
+     */
+    List<Object> multiGet(List<String> keyList) {
+        Map<Integer, List<Integer>> indexGroups = new LinkedHashMap<>();
+        for (int i = 0; i < keyList.size(); i++) {
+            indexGroups.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(keyList.get(i)), slot -> new ArrayList<>())
+                    .add(i);
+        }
+        if (indexGroups.size() <= 1) {
+            return redisTemplate.opsForValue().multiGet(keyList);
+        }
+        List<List<Integer>> groups = new ArrayList<>(indexGroups.values());
+        List<List<Object>> groupValues = fanOut(groups, indexes -> {
+            List<String> slotKeys = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                slotKeys.add(keyList.get(index));
+            }
+            return redisTemplate.opsForValue().multiGet(slotKeys);
+        });
+        Object[] values = new Object[keyList.size()];
+        for (int i = 0; i < groups.size(); i++) {
+            List<Integer> indexes = groups.get(i);
+            List<Object> slotValues = groupValues.get(i);
+            for (int j = 0; j < indexes.size(); j++) {
+                values[indexes.get(j)] = slotValues.get(j);
+            }
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * 按slot分组MSET
+     */
+    void multiSet(Map<String, Object> map) {
+        Map<Integer, Map<String, Object>> slotMaps = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            slotMaps.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(entry.getKey()), slot -> new HashMap<>())
+                    .put(entry.getKey(), entry.getValue());
+        }
+        fanOut(new ArrayList<>(slotMaps.values()), slotMap -> {
+            redisTemplate.opsForValue().multiSet(slotMap);
+            return Boolean.TRUE;
+        });
+    }
+
+    /**
+     * 按slot分组DEL
+     */
+    long delete(Collection<String> keys) {
+        long count = 0;
+        for (Long slotCount : fanOut(groupBySlot(keys), redisTemplate::delete)) {
+            count += slotCount == null ? 0 : slotCount;
+        }
+        return count;
+    }
+
+    /**
+     * 按slot分组SUNION，再在客户端合并
+     */
+    Set<Object> sUnion(String key, Collection<String> otherKeys) {
+        Set<Object> union = new HashSet<>();
+        for (Set<Object> members : fanOut(groupBySlot(allKeys(key, otherKeys)),
+                slotKeys -> redisTemplate.opsForSet().union(slotKeys.get(0), slotKeys.subList(1, slotKeys.size())))) {
+            if (members != null) {
+                union.addAll(members);
+            }
+        }
+        return union;
+    }
+
+    /**
+     * 按slot分组ZUNIONSTORE到同slot的临时key并读取，在客户端按SUM合并分数后写入destKey
+     * 写入destKey不是原子操作
+     */
+    long zUnionAndStore(String key, Collection<String> otherKeys, String destKey) {
+        List<String> keys = allKeys(key, otherKeys);
+        List<String> allKeys = new ArrayList<>(keys);
+        allKeys.add(destKey);
+        if (groupBySlot(allKeys).size() <= 1) {
+            return redisTemplate.opsForZSet().unionAndStore(key, otherKeys, destKey);
+        }
+        Map<Object, Double> scores = new HashMap<>();
+        for (Set<ZSetOperations.TypedTuple<Object>> tuples : fanOut(groupBySlot(keys), this::zUnionInSlot)) {
+            for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+                double score = tuple.getScore() == null ? 0 : tuple.getScore();
+                scores.merge(tuple.getValue(), score, Double::sum);
+            }
+        }
+        redisTemplate.delete(destKey);
+        Set<ZSetOperations.TypedTuple<Object>> chunk = new HashSet<>();
+        for (Map.Entry<Object, Double> entry : scores.entrySet()) {
+            chunk.add(new DefaultTypedTuple<>(entry.getKey(), entry.getValue()));
+            if (chunk.size() >= ZADD_CHUNK_SIZE) {
+                redisTemplate.opsForZSet().add(destKey, chunk);
+                chunk = new HashSet<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            redisTemplate.opsForZSet().add(destKey, chunk);
+        }
+        return scores.size();
+    }
+
+    /**
+     * 同一slot内的有序集求并集
+     */
+    private Set<ZSetOperations.TypedTuple<Object>> zUnionInSlot(List<String> slotKeys) {
+        String tempKey = tempKeyInSlotOf(slotKeys.get(0));
+        if (slotKeys.size() == 1 || tempKey == null) {
+            Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>();
+            for (String slotKey : slotKeys) {
+                Set<ZSetOperations.TypedTuple<Object>> keyTuples =
+                        redisTemplate.opsForZSet().rangeWithScores(slotKey, 0, -1);
+                if (keyTuples != null) {
+                    tuples.addAll(keyTuples);
+                }
+            }
+            return tuples;
+        }
+        try {
+            redisTemplate.opsForZSet().unionAndStore(slotKeys.get(0), slotKeys.subList(1, slotKeys.size()), tempKey);
+            Set<ZSetOperations.TypedTuple<Object>> tuples = redisTemplate.opsForZSet().rangeWithScores(tempKey, 0, -1);
+            return tuples == null ? new HashSet<>() : tuples;
+        } finally {
+            redisTemplate.delete(tempKey);
+        }
+    }
+
+    private <T, R> List<R> fanOut(List<T> groups, Function<T, R> action) {
+        if (groups.size() == 1) {
+            List<R> results = new ArrayList<>(1);
+            results.add(action.apply(groups.get(0)));
+            return results;
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(groups.size());
+        for (T group : groups) {
+            futures.add(CompletableFuture.supplyAsync(() -> action.apply(group), executor));
+        }
+        List<R> results = new ArrayList<>(groups.size());
+        try {
+            for (CompletableFuture<R> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private static List<List<String>> groupBySlot(Collection<String> keys) {
+        Map<Integer, List<String>> slotKeys = new LinkedHashMap<>();
+        for (String key : keys) {
+            slotKeys.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(key), slot -> new ArrayList<>()).add(key);
+        }
+        return new ArrayList<>(slotKeys.values());
+    }
+
+    private static List<String> allKeys(String key, Collection<String> otherKeys) {
+        List<String> keys = new ArrayList<>(otherKeys.size() + 1);
+        keys.add(key);
+        keys.addAll(otherKeys);
+        return keys;
+    }
+
+    /**
+     * 生成与key在同一slot的临时key
+     * key带有hash tag时沿用其hash tag，否则用整个key作为hash tag
+     *
+     * @return 临时key，无法保证同slot时返回null
+     */
+    private static String tempKeyInSlotOf(String key) {
+        String suffix = ":tmp:" + UUID.randomUUID();
+        int start = key.indexOf('{');
+        if (start >= 0) {
+            int end = key.indexOf('}', start + 1);
+            return end > start + 1 ? "{" + key.substring(start + 1, end) + "}" + suffix : null;
+        }
+        return key.indexOf('}') >= 0 ? null : "{" + key + "}" + suffix;
+    }
+}
@@ -0,0 +1,85 @@
+package com.bc.redis.hotkey;
+
+import com.bc.redis.bloom.Murmur3;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch
+ * 用depth行、每行width个计数器近似统计每个key的出现次数，内存固定，与key的数量无关
+ * 估计值只会偏大不会偏小，误差约为 总次数 * e / width，出错概率约为 e^-depth
+ * 每行的位置由murmur3 128位哈希的两个64位结果双重哈希得到: h1 + i * h2，两个结果相互独立，
+ * 不能由String.hashCode派生，否则hashCode相同的key在每一行都冲突
+ *
+ * @author zhou
+ */
+class CountMinSketch {
+
+    private final int depth;
+
+    private final int width;
+
+    private final AtomicLongArray counters;
+
+    CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+
+    /**
+     * 计数加一
+     *
+     * @param key key
+     * @return 加一后的估计次数
+     */
+    long add(String key) {
+        long[] hash = Murmur3.hash128(key.getBytes(StandardCharsets.UTF_8));
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            long count = counters.incrementAndGet(i * width + index(hash[0] + i * hash[1]));
+            if (count < min) {
+                min = count;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * 估计次数
+     *
+     * @param key key
+     * @return 估计次数
+     */
+    long estimate(String key) {
+        long[] hash = Murmur3.hash128(key.getBytes(StandardCharsets.UTF_8));
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            long count = counters.get(i * width + index(hash[0] + i * hash[1]));
+            if (count < min) {
+                min = count;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * 所有计数减半，让过去的访问逐渐失去权重
+     */
+    void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            long count;
+            do {
+                count = counters.get(i);
+            } while (count != 0 && !counters.compareAndSet(i, count, count >>> 1));
+        }
+    }
+
+    private int index(long hash) {
+        return (int) ((hash & Long.MAX_VALUE) % width);
+    }
+}
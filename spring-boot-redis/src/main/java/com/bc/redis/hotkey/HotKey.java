@@ -0,0 +1,34 @@
+package com.bc.redis.hotkey;
+
+/**
+ * 热点key及其估计访问次数
+ *
+ * @author zhou
+ */
+public class HotKey {
+
+    private final String key;
+
+    /**
+     * 当前统计周期内的估计访问次数(已按采样率换算)
+     */
+    private final long count;
+
+    public HotKey(String key, long count) {
+        this.key = key;
+        this.count = count;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return key + "=" + count;
+    }
+}
@@ -0,0 +1,119 @@
+package com.bc.redis.hotkey;
+
+import com.bc.redis.tracking.ClientTrackingCache;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 在RedisDao上接入热点key探测，调用方不需要改动
+ * get/hGet: 记录访问，热点key直接读本地副本
+ * 字符串和哈希表的写操作、删除、过期、重命名: 删除相关key在本节点的本地副本
+ * 其他节点的写入、batch和lua脚本的写入不会删除本地副本，最长在localTtl后读到新值
+ * 开启客户端缓存(CLIENT TRACKING)时，可以使用客户端缓存的key不做热点探测，由服务端的失效通知保证读到新值，
+ * 与两个切面的执行顺序无关
+ *
+ * @author zhou
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "spring.redis.hot-key", name = "enabled", havingValue = "true")
+public class HotKeyAspect {
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    @Autowired(required = false)
+    private ClientTrackingCache clientTrackingCache;
+
+    @Around("execution(Object com.bc.redis.dao.RedisDao.get(String)) && args(key)")
+    public Object get(ProceedingJoinPoint joinPoint, String key) throws Throwable {
+        if (key == null || isTracked(key) || !hotKeyDetector.record(key)) {
+            return joinPoint.proceed();
+        }
+        return hotKeyDetector.get(key, k -> proceed(joinPoint));
+    }
+
+    @Around("execution(Object com.bc.redis.dao.RedisDao.hGet(String, String)) && args(key, hashKey)")
+    public Object hGet(ProceedingJoinPoint joinPoint, String key, String hashKey) throws Throwable {
+        if (key == null || isTracked(key) || !hotKeyDetector.record(key)) {
+            return joinPoint.proceed();
+        }
+        return hotKeyDetector.hGet(key, hashKey, k -> proceed(joinPoint));
+    }
+
+    @AfterReturning("execution(* com.bc.redis.dao.RedisDao.set*(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.getAndSet(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.append(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.increment(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.decrement(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.multiSet*(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.compareAndSet(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.delete(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.expire(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.hPut*(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.hDelete(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.hIncrement(..))")
+    public void invalidate(JoinPoint joinPoint) {
+        Object[] args = joinPoint.getArgs();
+        if (args.length > 0) {
+            invalidateKeys(args[0]);
+        }
+    }
+
+    @AfterReturning("execution(* com.bc.redis.dao.RedisDao.rename*(..))")
+    public void invalidateRename(JoinPoint joinPoint) {
+        for (Object arg : joinPoint.getArgs()) {
+            invalidateKeys(arg);
+        }
+    }
+
+    /**
+     * 集合运算的结果写入destKey，会覆盖原有的字符串或哈希表
+     */
+    @AfterReturning("execution(* com.bc.redis.dao.RedisDao.*AndStore(..))")
+    public void invalidateStore(JoinPoint joinPoint) {
+        Object[] args = joinPoint.getArgs();
+        invalidateKeys(args[args.length - 1]);
+    }
+
+    /**
+     * key由客户端缓存负责，本地副本不会收到服务端的失效通知，不能使用
+     */
+    private boolean isTracked(String key) {
+        return clientTrackingCache != null && clientTrackingCache.isCacheable(key);
+    }
+
+    /**
+     * 写操作的第一个参数是目标key，multiSet是Map，delete可能是key集合
+     */
+    private void invalidateKeys(Object keys) {
+        if (keys instanceof String) {
+            hotKeyDetector.invalidate((String) keys);
+        } else if (keys instanceof Collection) {
+            for (Object key : (Collection<?>) keys) {
+                invalidateKeys(key);
+            }
+        } else if (keys instanceof Map) {
+            invalidateKeys(((Map<?, ?>) keys).keySet());
+        }
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return joinPoint.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.bc.redis.hotkey;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 热点key探测
+ * 按采样率抽样读请求，用Count-Min Sketch估计每个key的访问次数，超过阈值的key进入容量为topK的小顶堆
+ * 堆中的key即热点key，它们的读结果在本地保存localTtl时间，同一节点上的读请求不再访问redis
+ * 每个统计周期结束时所有计数减半，衰减后低于阈值的key退出热点
+ * 哈希表的本地副本以(key, 字段)为条目，与字符串的副本分别受localMaximumSize限制，大哈希表不会绕过上限
+ *
+ * @author zhou
+ */
+@Component
+@ConditionalOnProperty(prefix = "spring.redis.hot-key", name = "enabled", havingValue = "true")
+public class HotKeyDetector {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(HotKeyDetector.class);
+
+    /**
+     * 本地缓存不能存null，用该对象表示key不存在
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    @Autowired
+    private HotKeyProperties properties;
+
+    private CountMinSketch sketch;
+
+    /**
+     * 采样计数换算为实际访问次数的倍数
+     */
+    private long scale;
+
+    private int sampleBound;
+
+    /**
+     * 按估计次数排序的小顶堆，堆顶是最先被挤出的key
+     */
+    private final PriorityQueue<HotKey> heap = new PriorityQueue<>(Comparator.comparingLong(HotKey::getCount));
+
+    private final Map<String, HotKey> candidates = new HashMap<>();
+
+    /**
+     * 堆中key的无锁副本，读请求只查这里
+     */
+    private final Set<String> hotKeys = ConcurrentHashMap.newKeySet();
+
+    private Cache<String, Object> values;
+
+    /**
+     * (key, 字段) -> 值
+     */
+    private Cache<FieldKey, Object> hashes;
+
+    /**
+     * key -> 该key在hashes中的字段，只在compute中修改，写操作按key删除时通过它找到字段
+     */
+    private final ConcurrentMap<String, Set<Object>> hashFields = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        double sampleRate = Math.min(1.0, Math.max(properties.getSampleRate(), 0.0001));
+        sampleBound = (int) Math.round(1.0 / sampleRate);
+        scale = sampleBound;
+        sketch = new CountMinSketch(properties.getSketchDepth(), properties.getSketchWidth());
+        values = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaximumSize())
+                .expireAfterWrite(properties.getLocalTtl())
+                .build();
+        hashes = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaximumSize())
+                .expireAfterWrite(properties.getLocalTtl())
+                .removalListener((FieldKey fieldKey, Object value, RemovalCause cause) -> {
+                    if (fieldKey != null && cause.wasEvicted()) {
+                        unindex(fieldKey);
+                    }
+                })
+                .build();
+        long window = properties.getWindow().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "redis-hot-key-decay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::decayQuietly, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 记录一次读请求
+     *
+     * @param key key
+     * @return 是否热点key
+     */
+    public boolean record(String key) {
+        if (sampleBound == 1 || ThreadLocalRandom.current().nextInt(sampleBound) == 0) {
+            long count = sketch.add(key) * scale;
+            if (count >= properties.getThreshold()) {
+                offer(key, count);
+            }
+        }
+        return hotKeys.contains(key);
+    }
+
+    /**
+     * 是否热点key
+     *
+     * @param key key
+     * @return 是否热点key
+     */
+    public boolean isHot(String key) {
+        return hotKeys.contains(key);
+    }
+
+    /**
+     * 当前的热点key，按估计访问次数从高到低排序
+     *
+     * @return 热点key
+     */
+    public synchronized List<HotKey> getHotKeys() {
+        List<HotKey> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingLong(HotKey::getCount).reversed());
+        return result;
+    }
+
+    /**
+     * 本地副本的条目数
+     *
+     * @return 条目数
+     */
+    public long getLocalSize() {
+        return values.estimatedSize() + hashes.estimatedSize();
+    }
+
+    // ===== local copy ops begin =====
+
+    /**
+     * 读取本地副本
+     *
+     * @param key    key
+     * @param loader 本地没有副本时从redis读取
+     * @return 值
+     */
+    public Object get(String key, Function<String, Object> loader) {
+        Object value = values.getIfPresent(key);
+        if (value == null) {
+            value = loader.apply(key);
+            values.put(key, value == null ? NULL_VALUE : value);
+            return value;
+        }
+        return value == NULL_VALUE ? null : value;
+    }
+
+    /**
+     * 读取哈希表字段的本地副本，字段为null时不保存副本
+     *
+     * @param key     key
+     * @param hashKey 字段
+     * @param loader  本地没有副本时从redis读取
+     * @return 值
+     */
+    public Object hGet(String key, Object hashKey, Function<Object, Object> loader) {
+        if (hashKey == null) {
+            return loader.apply(null);
+        }
+        FieldKey fieldKey = new FieldKey(key, hashKey);
+        Object value = hashes.getIfPresent(fieldKey);
+        if (value == null) {
+            Object loaded = loader.apply(hashKey);
+            hashFields.compute(key, (k, fields) -> {
+                Set<Object> result = fields == null ? new HashSet<>() : fields;
+                result.add(hashKey);
+                hashes.put(fieldKey, loaded == null ? NULL_VALUE : loaded);
+                return result;
+            });
+            return loaded;
+        }
+        return value == NULL_VALUE ? null : value;
+    }
+
+    /**
+     * 删除key的本地副本
+     *
+     * @param key key
+     */
+    public void invalidate(String key) {
+        values.invalidate(key);
+        hashFields.computeIfPresent(key, (k, fields) -> {
+            for (Object field : fields) {
+                hashes.invalidate(new FieldKey(k, field));
+            }
+            return null;
+        });
+    }
+
+    // ===== local copy ops end =====
+
+    private synchronized void offer(String key, long count) {
+        HotKey existing = candidates.get(key);
+        if (existing != null) {
+            if (count > existing.getCount()) {
+                heap.remove(existing);
+                HotKey updated = new HotKey(key, count);
+                heap.add(updated);
+                candidates.put(key, updated);
+            }
+            return;
+        }
+        if (heap.size() >= properties.getTopK()) {
+            if (count <= heap.peek().getCount()) {
+                return;
+            }
+            evict(heap.poll().getKey());
+        }
+        HotKey hotKey = new HotKey(key, count);
+        heap.add(hotKey);
+        candidates.put(key, hotKey);
+        hotKeys.add(key);
+        logger.info("hot key detected: " + key + ", count: " + count);
+    }
+
+    /**
+     * 计数减半，按衰减后的估计次数重建堆
+     */
+    synchronized void decay() {
+        sketch.decay();
+        List<HotKey> retained = new ArrayList<>(heap.size());
+        for (Iterator<HotKey> iterator = heap.iterator(); iterator.hasNext(); ) {
+            String key = iterator.next().getKey();
+            long count = sketch.estimate(key) * scale;
+            if (count >= properties.getThreshold()) {
+                retained.add(new HotKey(key, count));
+            } else {
+                evict(key);
+            }
+        }
+        heap.clear();
+        heap.addAll(retained);
+        for (HotKey hotKey : retained) {
+            candidates.put(hotKey.getKey(), hotKey);
+        }
+    }
+
+    private void decayQuietly() {
+        try {
+            decay();
+        } catch (Exception e) {
+            logger.error("decay hot key counters error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 字段副本被淘汰或过期后移出索引，移除通知是异步的，期间重新写入的字段保留在索引中
+     */
+    private void unindex(FieldKey fieldKey) {
+        hashFields.computeIfPresent(fieldKey.key, (k, fields) -> {
+            if (!hashes.asMap().containsKey(fieldKey)) {
+                fields.remove(fieldKey.field);
+            }
+            return fields.isEmpty() ? null : fields;
+        });
+    }
+
+    private void evict(String key) {
+        candidates.remove(key);
+        hotKeys.remove(key);
+        invalidate(key);
+        logger.info("hot key expired: " + key);
+    }
+
+    /**
+     * 哈希表字段副本的key
+     */
+    private static class FieldKey {
+
+        private final String key;
+
+        private final Object field;
+
+        private FieldKey(String key, Object field) {
+            this.key = key;
+            this.field = field;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FieldKey)) {
+                return false;
+            }
+            FieldKey that = (FieldKey) o;
+            return key.equals(that.key) && field.equals(that.field);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * key.hashCode() + field.hashCode();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.bc.redis.hotkey;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 热点key端点: GET /actuator/hotkeys
+ *
+ * @author zhou
+ */
+@Component
+@Endpoint(id = "hotkeys")
+@ConditionalOnProperty(prefix = "spring.redis.hot-key", name = "enabled", havingValue = "true")
+public class HotKeyEndpoint {
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hotKeys", hotKeyDetector.getHotKeys());
+        result.put("localSize", hotKeyDetector.getLocalSize());
+        return result;
+    }
+}
@@ -0,0 +1,131 @@
+package com.bc.redis.hotkey;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 热点key探测配置
+ *
+ * @author zhou
+ */
+@ConfigurationProperties(prefix = "spring.redis.hot-key")
+public class HotKeyProperties {
+
+    /**
+     * 是否启用热点key探测
+     */
+    private boolean enabled = false;
+
+    /**
+     * 采样率，只有采样到的读请求才计入统计
+     */
+    private double sampleRate = 0.1;
+
+    /**
+     * 一个统计周期内访问次数超过该值的key视为热点
+     */
+    private long threshold = 1000;
+
+    /**
+     * 最多同时保留的热点key数量
+     */
+    private int topK = 100;
+
+    /**
+     * 统计周期，每个周期结束时计数减半
+     */
+    private Duration window = Duration.ofSeconds(1);
+
+    /**
+     * Count-Min Sketch的行数
+     */
+    private int sketchDepth = 4;
+
+    /**
+     * Count-Min Sketch每行的计数器数量
+     */
+    private int sketchWidth = 4096;
+
+    /**
+     * 热点key本地副本的过期时间，也是其他节点写入后本节点最长读到旧值的时间
+     */
+    private Duration localTtl = Duration.ofSeconds(1);
+
+    /**
+     * 本地副本的最大条目数
+     */
+    private long localMaximumSize = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(long threshold) {
+        this.threshold = threshold;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getSketchDepth() {
+        return sketchDepth;
+    }
+
+    public void setSketchDepth(int sketchDepth) {
+        this.sketchDepth = sketchDepth;
+    }
+
+    public int getSketchWidth() {
+        return sketchWidth;
+    }
+
+    public void setSketchWidth(int sketchWidth) {
+        this.sketchWidth = sketchWidth;
+    }
+
+    public Duration getLocalTtl() {
+        return localTtl;
+    }
+
+    public void setLocalTtl(Duration localTtl) {
+        this.localTtl = localTtl;
+    }
+
+    public long getLocalMaximumSize() {
+        return localMaximumSize;
+    }
+
+    public void setLocalMaximumSize(long localMaximumSize) {
+        this.localMaximumSize = localMaximumSize;
+    }
+}
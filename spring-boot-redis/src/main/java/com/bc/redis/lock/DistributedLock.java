@@ -0,0 +1,72 @@
+package com.bc.redis.lock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式锁
+ * 同一线程可重入，unlock次数与加锁次数一致时才真正释放
+ * 重入时先在redis中确认锁仍属于当前线程，租期已到或锁已被其他进程获取时按首次加锁处理
+ *
+ * @author zhou
+ */
+public interface DistributedLock {
+
+    /**
+     * 获取锁的名称
+     *
+     * @return 锁的名称
+     */
+    String getName();
+
+    /**
+     * 阻塞直到获取锁，由看门狗自动续期
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    void lock() throws InterruptedException;
+
+    /**
+     * 在等待时间内尝试获取锁，由看门狗自动续期
+     *
+     * @param waitTime 最长等待时间，0表示不等待
+     * @param unit     时间单位
+     * @return true: 获取成功  false: 等待超时
+     * @throws InterruptedException 等待时被中断
+     */
+    boolean tryLock(long waitTime, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * 在等待时间内尝试获取锁
+     *
+     * @param waitTime  最长等待时间，0表示不等待，小于0表示一直等待
+     * @param leaseTime 租期，到期后自动释放；小于等于0时由看门狗自动续期，直到unlock
+     * @param unit      时间单位
+     * @return true: 获取成功  false: 等待超时
+     * @throws InterruptedException 等待时被中断
+     */
+    boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * 释放锁
+     *
+     * @throws IllegalMonitorStateException 当前线程没有持有锁
+     */
+    void unlock();
+
+    /**
+     * 当前线程是否持有锁
+     *
+     * @return true: 持有  false: 未持有
+     */
+    boolean isHeldByCurrentThread();
+
+    /**
+     * 获取当前线程持有的锁的fencing token
+     * 每次获取锁时递增，写入受保护的资源时带上该值，资源方拒绝比已见过的更小的token，
+     * 避免锁过期(如长时间GC)后旧的持有者继续写入
+     *
+     * @return fencing token
+     * @throws IllegalMonitorStateException 当前线程没有持有锁
+     */
+    long getFencingToken();
+}
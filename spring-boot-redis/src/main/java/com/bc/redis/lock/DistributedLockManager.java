@@ -0,0 +1,199 @@
+package com.bc.redis.lock;
+
+import com.bc.redis.script.RedisScriptRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 分布式锁管理器
+ * 锁的key为 {前缀}{name}，fencing token计数器为 {前缀}{name}:fence，两者使用相同的hash tag以保证在同一个slot
+ * 所有锁共用一个看门狗线程池续期，共用一个频道接收释放通知
+ *
+ * @author zhou
+ */
+@Component
+public class DistributedLockManager implements MessageListener {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(DistributedLockManager.class);
+
+    @Autowired
+    private RedisScriptRegistry redisScriptRegistry;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    /**
+     * 锁key的前缀
+     */
+    @Value("${spring.redis.lock.key-prefix:lock:}")
+    private String keyPrefix;
+
+    /**
+     * 锁释放的通知频道
+     */
+    @Value("${spring.redis.lock.channel:lock:release}")
+    private String channel;
+
+    /**
+     * 看门狗续期的租期(毫秒)，每隔1/3租期续期一次
+     */
+    @Value("${spring.redis.lock.watchdog-timeout:30000}")
+    private long watchdogTimeout;
+
+    /**
+     * 当前节点的唯一标识
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 本节点有持有者或等待者的锁的状态，最后一个持有者或等待者离开时移除，锁名称可以是动态的(如按订单号)
+     */
+    private final ConcurrentMap<String, RedisDistributedLock.LockState> states = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService watchdog = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "lock-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * 获取锁，锁对象只是句柄，相同名称的锁对象共享本节点的持有和等待状态
+     *
+     * @param name 锁的名称
+     * @return 分布式锁
+     */
+    public DistributedLock getLock(String name) {
+        return new RedisDistributedLock(name, keyPrefix + "{" + name + "}", keyPrefix + "{" + name + "}:fence",
+                this);
+    }
+
+    /**
+     * 本节点正在持有或等待的锁的数量
+     *
+     * @return 锁的数量
+     */
+    public int getActiveLockCount() {
+        return states.size();
+    }
+
+    /**
+     * 收到锁释放的通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        RedisDistributedLock.LockState state = states.get(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (state != null) {
+            state.onRelease();
+        }
+    }
+
+    RedisDistributedLock.LockState getState(String name) {
+        return states.get(name);
+    }
+
+    /**
+     * 增加锁状态的引用，不存在时创建
+     */
+    RedisDistributedLock.LockState retainState(String name) {
+        return states.compute(name, (key, state) -> (state == null ? new RedisDistributedLock.LockState() : state)
+                .retain());
+    }
+
+    /**
+     * 减少锁状态的引用，没有引用时移除
+     */
+    void releaseState(String name) {
+        states.computeIfPresent(name, (key, state) -> state.release() ? null : state);
+    }
+
+    String getOwnerId(long threadId) {
+        return nodeId + ":" + threadId;
+    }
+
+    long getWatchdogTimeout() {
+        return watchdogTimeout;
+    }
+
+    /**
+     * @return 成功时返回fencing token(>0)，失败时返回锁的剩余时间的相反数(<=0)
+     */
+    long acquire(String lockKey, String fenceKey, String owner, long leaseMillis) {
+        Long result = redisScriptRegistry.execute(RedisScriptRegistry.LOCK_ACQUIRE, Arrays.asList(lockKey, fenceKey),
+                owner, leaseMillis);
+        return result == null ? 0 : result;
+    }
+
+    boolean release(String lockKey, String owner, String name) {
+        Long result = redisScriptRegistry.execute(RedisScriptRegistry.LOCK_RELEASE,
+                Collections.singletonList(lockKey), owner, channel, name);
+        return result != null && result == 1;
+    }
+
+    /**
+     * 锁仍属于该持有者时刷新租期
+     *
+     * @return true: 续期成功  false: 锁已不属于该持有者
+     */
+    boolean renew(String lockKey, String owner, long leaseMillis) {
+        Long result = redisScriptRegistry.execute(RedisScriptRegistry.LOCK_RENEW,
+                Collections.singletonList(lockKey), owner, leaseMillis);
+        return result != null && result == 1;
+    }
+
+    /**
+     * 定时续期，锁已不属于该持有者时调用onLost并停止
+     */
+    ScheduledFuture<?> scheduleRenewal(String lockKey, String owner, long leaseMillis, Runnable onLost) {
+        AtomicReference<ScheduledFuture<?>> future = new AtomicReference<>();
+        long period = Math.max(1, leaseMillis / 3);
+        future.set(watchdog.scheduleAtFixedRate(() -> {
+            try {
+                if (!renew(lockKey, owner, leaseMillis)) {
+                    logger.warn("lock lost before renewal, key: " + lockKey);
+                    onLost.run();
+                    ScheduledFuture<?> scheduled = future.get();
+                    if (scheduled != null) {
+                        scheduled.cancel(false);
+                    }
+                }
+            } catch (Exception e) {
+                // 网络抖动时继续尝试，只要在租期内续期成功锁就不会丢失
+                logger.error("renew lock error: " + e.getMessage() + ", key: " + lockKey);
+            }
+        }, period, period, TimeUnit.MILLISECONDS));
+        return future.get();
+    }
+}
@@ -0,0 +1,304 @@
+package com.bc.redis.lock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 基于redis的分布式锁
+ * 获取失败时不轮询，而是等待其他持有者释放锁时发布的通知，本节点的等待者按先后顺序被唤醒
+ * 持有者宕机时没有通知，等待者在锁的剩余时间到期后重新尝试
+ * 锁对象本身只是句柄，本节点的持有者和等待者记录在DistributedLockManager按名称管理的LockState中
+ *
+ * @author zhou
+ */
+class RedisDistributedLock implements DistributedLock {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(RedisDistributedLock.class);
+
+    /**
+     * 锁没有剩余时间信息时重新尝试的间隔(毫秒)
+     */
+    private static final long DEFAULT_RETRY_MILLIS = 100;
+
+    private final String name;
+
+    private final String lockKey;
+
+    private final String fenceKey;
+
+    private final DistributedLockManager manager;
+
+    RedisDistributedLock(String name, String lockKey, String fenceKey, DistributedLockManager manager) {
+        this.name = name;
+        this.lockKey = lockKey;
+        this.fenceKey = fenceKey;
+        this.manager = manager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void lock() throws InterruptedException {
+        tryLock(-1, -1, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, TimeUnit unit) throws InterruptedException {
+        return tryLock(waitTime, -1, unit);
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        long threadId = Thread.currentThread().getId();
+        long leaseMillis = leaseTime > 0 ? unit.toMillis(leaseTime) : manager.getWatchdogTimeout();
+        LockState state = manager.retainState(name);
+        boolean acquired = false;
+        try {
+            Holder current = state.holder.get();
+            if (current != null && current.threadId == threadId) {
+                if (reenter(current, leaseTime > 0, leaseMillis)) {
+                    return true;
+                }
+                // 租期已到或锁已被其他进程获取，丢弃本地的持有记录后重新获取
+                logger.warn("lock lost before reentry, name: " + name + ", fencingToken: " + current.fencingToken);
+                drop(state, current);
+            }
+            String owner = manager.getOwnerId(threadId);
+            long deadline = waitTime < 0 ? Long.MAX_VALUE : System.nanoTime() + unit.toNanos(waitTime);
+            state.waiters.incrementAndGet();
+            try {
+                while (true) {
+                    long start = System.nanoTime();
+                    long result = manager.acquire(lockKey, fenceKey, owner, leaseMillis);
+                    if (result > 0) {
+                        Holder holder = new Holder(threadId, owner, result);
+                        if (leaseTime > 0) {
+                            holder.leaseDeadline = start + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+                        } else {
+                            startWatchdog(holder);
+                        }
+                        // 本节点之前的持有者租期已到但没有unlock，由新的持有者替换
+                        Holder previous = state.holder.getAndSet(holder);
+                        if (previous != null) {
+                            previous.cancelWatchdog();
+                            manager.releaseState(name);
+                        }
+                        acquired = true;
+                        return true;
+                    }
+                    long remaining = waitTime < 0 ? Long.MAX_VALUE : deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    long ttlNanos = TimeUnit.MILLISECONDS.toNanos(result < 0 ? -result : DEFAULT_RETRY_MILLIS);
+                    state.notification.tryAcquire(Math.min(remaining, ttlNanos), TimeUnit.NANOSECONDS);
+                }
+            } finally {
+                state.waiters.decrementAndGet();
+            }
+        } finally {
+            // 获取成功时引用由持有者保留到unlock，重入和获取失败时归还
+            if (!acquired) {
+                manager.releaseState(name);
+            }
+        }
+    }
+
+    /**
+     * 重入前在redis中确认锁仍属于当前持有者并刷新租期，不能只相信本地记录：
+     * 指定的租期到期后锁可能已被其他进程获取
+     *
+     * @param current     当前线程的持有记录
+     * @param leased      本次是否指定了租期
+     * @param leaseMillis 本次的租期(毫秒)
+     * @return true: 重入成功  false: 锁已不属于当前持有者
+     */
+    private boolean reenter(Holder current, boolean leased, long leaseMillis) {
+        if (current.isExpired()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        if (current.watchdog != null) {
+            // 已由看门狗续期，保持看门狗的租期
+            if (!manager.renew(lockKey, current.owner, manager.getWatchdogTimeout())) {
+                return false;
+            }
+        } else {
+            if (!manager.renew(lockKey, current.owner, leaseMillis)) {
+                return false;
+            }
+            if (leased) {
+                current.leaseDeadline = start + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+            } else {
+                startWatchdog(current);
+            }
+        }
+        current.holdCount++;
+        return true;
+    }
+
+    /**
+     * 丢弃已失效的持有记录并归还它的引用，已被新的持有者替换时由新的持有者归还
+     */
+    private void drop(LockState state, Holder current) {
+        current.cancelWatchdog();
+        if (state.holder.compareAndSet(current, null)) {
+            manager.releaseState(name);
+        }
+    }
+
+    private void startWatchdog(Holder holder) {
+        holder.leaseDeadline = 0;
+        holder.watchdog = manager.scheduleRenewal(lockKey, holder.owner, manager.getWatchdogTimeout(),
+                () -> holder.lost = true);
+    }
+
+    @Override
+    public void unlock() {
+        LockState state = manager.getState(name);
+        Holder current = state == null ? null : state.holder.get();
+        if (current == null || current.threadId != Thread.currentThread().getId()) {
+            throw new IllegalMonitorStateException("Lock " + name + " is not held by current thread");
+        }
+        if (--current.holdCount > 0) {
+            return;
+        }
+        current.cancelWatchdog();
+        if (!state.holder.compareAndSet(current, null)) {
+            // 租期已到，锁已被本节点的其他线程获取
+            logger.warn("lock expired before unlock, name: " + name + ", fencingToken: " + current.fencingToken);
+            return;
+        }
+        try {
+            if (!manager.release(lockKey, current.owner, name)) {
+                logger.warn("lock expired before unlock, name: " + name + ", fencingToken: " + current.fencingToken);
+            }
+        } finally {
+            manager.releaseState(name);
+        }
+    }
+
+    /**
+     * 指定的租期已到或看门狗续期失败时返回false，不访问redis
+     */
+    @Override
+    public boolean isHeldByCurrentThread() {
+        return currentHolder() != null;
+    }
+
+    @Override
+    public long getFencingToken() {
+        Holder current = currentHolder();
+        if (current == null) {
+            throw new IllegalMonitorStateException("Lock " + name + " is not held by current thread");
+        }
+        return current.fencingToken;
+    }
+
+    private Holder currentHolder() {
+        LockState state = manager.getState(name);
+        Holder current = state == null ? null : state.holder.get();
+        if (current == null || current.threadId != Thread.currentThread().getId() || current.isExpired()) {
+            return null;
+        }
+        return current;
+    }
+
+    /**
+     * 本节点上一个锁名称的状态，有持有者或等待者时存在，之后由DistributedLockManager移除
+     */
+    static class LockState {
+
+        /**
+         * 释放通知，公平模式下按等待的先后顺序唤醒
+         */
+        private final Semaphore notification = new Semaphore(0, true);
+
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        private final AtomicReference<Holder> holder = new AtomicReference<>();
+
+        /**
+         * 引用数: 正在获取锁的线程数 + 持有者，只在DistributedLockManager的compute中修改
+         */
+        private int references;
+
+        LockState retain() {
+            references++;
+            return this;
+        }
+
+        /**
+         * @return true: 已没有引用，可以移除
+         */
+        boolean release() {
+            return --references == 0;
+        }
+
+        /**
+         * 收到锁释放的通知，唤醒一个等待者
+         * 最多保留一个许可，避免没有等待者时许可累积
+         */
+        void onRelease() {
+            if (waiters.get() > 0 && notification.availablePermits() == 0) {
+                notification.release();
+            }
+        }
+    }
+
+    /**
+     * 本节点的锁持有者
+     */
+    private static class Holder {
+
+        private final long threadId;
+
+        private final String owner;
+
+        private final long fencingToken;
+
+        /**
+         * 重入次数，只由持有者线程修改
+         */
+        private int holdCount = 1;
+
+        /**
+         * 指定租期时的到期时间(System.nanoTime)，由看门狗续期时为0
+         */
+        private volatile long leaseDeadline;
+
+        /**
+         * 看门狗续期时发现锁已不属于该持有者
+         */
+        private volatile boolean lost;
+
+        private volatile ScheduledFuture<?> watchdog;
+
+        private Holder(long threadId, String owner, long fencingToken) {
+            this.threadId = threadId;
+            this.owner = owner;
+            this.fencingToken = fencingToken;
+        }
+
+        private boolean isExpired() {
+            return lost || (leaseDeadline != 0 && System.nanoTime() - leaseDeadline >= 0);
+        }
+
+        private void cancelWatchdog() {
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.bc.redis.metrics;
+
+import com.bc.redis.config.PooledJedisConnectionFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.util.Pool;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.function.ToLongFunction;
+
+/**
+ * jedis连接池状态，统计的是redisTemplate、RedisDao和缓存实际使用的JedisConnectionFactory内部连接池
+ * 集群模式下每个节点一个连接池，数量类指标取各连接池之和，等待时间取各连接池的最大值
+ * redis.pool.active: 借出的连接数
+ * redis.pool.idle: 空闲的连接数
+ * redis.pool.waiters: 等待借出连接的线程数
+ * redis.pool.wait.mean/max: 借出连接的平均/最长等待时间(毫秒)
+ * RedisConfig注入了MeterRegistry，注册表创建时连接工厂还在创建中，MeterBinder不会被绑定，所以在初始化时自行注册
+ *
+ * @author zhou
+ */
+@Component
+@ConditionalOnProperty(name = "spring.redis.client-type", havingValue = "jedis", matchIfMissing = true)
+public class JedisPoolMetrics {
+
+    @Autowired
+    private PooledJedisConnectionFactory jedisConnectionFactory;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("redis.pool.active", jedisConnectionFactory, f -> sum(f, Pool::getNumActive))
+                .tag("pool", "jedis").register(registry);
+        Gauge.builder("redis.pool.idle", jedisConnectionFactory, f -> sum(f, Pool::getNumIdle))
+                .tag("pool", "jedis").register(registry);
+        Gauge.builder("redis.pool.waiters", jedisConnectionFactory, f -> sum(f, Pool::getNumWaiters))
+                .tag("pool", "jedis").register(registry);
+        Gauge.builder("redis.pool.wait.mean", jedisConnectionFactory, f -> max(f, Pool::getMeanBorrowWaitTimeMillis))
+                .tag("pool", "jedis").baseUnit("milliseconds").register(registry);
+        Gauge.builder("redis.pool.wait.max", jedisConnectionFactory, f -> max(f, Pool::getMaxBorrowWaitTimeMillis))
+                .tag("pool", "jedis").baseUnit("milliseconds").register(registry);
+    }
+
+    private static double sum(PooledJedisConnectionFactory factory, ToLongFunction<Pool<Jedis>> metric) {
+        long sum = 0;
+        for (Pool<Jedis> pool : pools(factory)) {
+            sum += metric.applyAsLong(pool);
+        }
+        return sum;
+    }
+
+    private static double max(PooledJedisConnectionFactory factory, ToLongFunction<Pool<Jedis>> metric) {
+        long max = 0;
+        for (Pool<Jedis> pool : pools(factory)) {
+            max = Math.max(max, metric.applyAsLong(pool));
+        }
+        return max;
+    }
+
+    private static Collection<Pool<Jedis>> pools(PooledJedisConnectionFactory factory) {
+        return factory.getPools().values();
+    }
+}
@@ -0,0 +1,133 @@
+package com.bc.redis.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计每条redis命令耗时的连接工厂
+ * 包装实际的连接工厂，返回的连接按方法名(即命令)记录redis.command计时，tag: command、exception
+ * 连接上的异常即使被上层捕获(如RedisDaoImpl中只打印日志的方法)也会被记录
+ * pipeline和事务中的命令只是排队，不计时
+ *
+ * @author zhou
+ */
+public class MeteredRedisConnectionFactory implements RedisConnectionFactory {
+
+    static final String METRIC_NAME = "redis.command";
+
+    /**
+     * 连接管理类的方法，不是redis命令
+     */
+    private static final Set<String> IGNORED_METHODS = new HashSet<>(Arrays.asList(
+            "close", "isClosed", "getNativeConnection", "isQueueing", "isPipelined", "openPipeline",
+            "closePipeline", "getSentinelConnection", "isSubscribed", "getSubscription", "equals", "hashCode",
+            "toString"));
+
+    private final RedisConnectionFactory delegate;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 命令成功时的计时器缓存，避免每次调用都到注册表中查找
+     */
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public MeteredRedisConnectionFactory(RedisConnectionFactory delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public RedisConnection getConnection() {
+        return meter(delegate.getConnection());
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        return meter(delegate.getClusterConnection());
+    }
+
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return delegate.getConvertPipelineAndTxResults();
+    }
+
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        return delegate.getSentinelConnection();
+    }
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return delegate.translateExceptionIfPossible(ex);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends RedisConnection> T meter(T connection) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(connection.getClass(),
+                getClass().getClassLoader());
+        return (T) Proxy.newProxyInstance(getClass().getClassLoader(), interfaces,
+                new MeteredInvocationHandler(connection));
+    }
+
+    private Timer timer(String command) {
+        return timers.computeIfAbsent(command, name -> Timer.builder(METRIC_NAME)
+                .tag("command", name)
+                .tag("exception", "None")
+                .register(meterRegistry));
+    }
+
+    private class MeteredInvocationHandler implements InvocationHandler {
+
+        private final RedisConnection target;
+
+        private MeteredInvocationHandler(RedisConnection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (IGNORED_METHODS.contains(method.getName()) || target.isPipelined() || target.isQueueing()) {
+                return invokeTarget(method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                Object result = invokeTarget(method, args);
+                timer(method.getName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (Throwable e) {
+                Timer.builder(METRIC_NAME)
+                        .tag("command", method.getName())
+                        .tag("exception", e.getClass().getSimpleName())
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
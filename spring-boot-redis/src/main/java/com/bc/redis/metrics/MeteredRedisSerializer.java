@@ -0,0 +1,66 @@
+package com.bc.redis.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 统计序列化字节数的序列化器
+ * redis.serializer.bytes: 序列化后/反序列化前的字节数，tag: direction(serialize/deserialize)
+ * redis.serializer.errors: 序列化失败次数，tag: direction
+ *
+ * @author zhou
+ */
+public class MeteredRedisSerializer<T> implements RedisSerializer<T> {
+
+    private final RedisSerializer<T> delegate;
+
+    private final DistributionSummary serializedBytes;
+
+    private final DistributionSummary deserializedBytes;
+
+    private final Counter serializeErrors;
+
+    private final Counter deserializeErrors;
+
+    public MeteredRedisSerializer(RedisSerializer<T> delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.serializedBytes = DistributionSummary.builder("redis.serializer.bytes")
+                .baseUnit("bytes").tag("direction", "serialize").register(meterRegistry);
+        this.deserializedBytes = DistributionSummary.builder("redis.serializer.bytes")
+                .baseUnit("bytes").tag("direction", "deserialize").register(meterRegistry);
+        this.serializeErrors = Counter.builder("redis.serializer.errors")
+                .tag("direction", "serialize").register(meterRegistry);
+        this.deserializeErrors = Counter.builder("redis.serializer.errors")
+                .tag("direction", "deserialize").register(meterRegistry);
+    }
+
+    @Override
+    public byte[] serialize(T t) throws SerializationException {
+        try {
+            byte[] bytes = delegate.serialize(t);
+            if (bytes != null) {
+                serializedBytes.record(bytes.length);
+            }
+            return bytes;
+        } catch (RuntimeException e) {
+            serializeErrors.increment();
+            throw e;
+        }
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes != null) {
+            deserializedBytes.record(bytes.length);
+        }
+        try {
+            return delegate.deserialize(bytes);
+        } catch (RuntimeException e) {
+            deserializeErrors.increment();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bc.redis.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisDao调用耗时统计
+ * redis.dao: 每个方法一个计时器，tag: operation(方法名)、exception
+ * 一次RedisDao调用可能对应多条redis命令(如multiGet在集群模式下按slot拆分)，单条命令的耗时见redis.command
+ *
+ * @author zhou
+ */
+@Aspect
+@Component
+public class RedisDaoMetricsAspect {
+
+    private static final String METRIC_NAME = "redis.dao";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Around("execution(* com.bc.redis.dao.RedisDao.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            timers.computeIfAbsent(operation, name -> Timer.builder(METRIC_NAME)
+                    .tag("operation", name)
+                    .tag("exception", "None")
+                    .register(meterRegistry))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            Timer.builder(METRIC_NAME)
+                    .tag("operation", operation)
+                    .tag("exception", e.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+}
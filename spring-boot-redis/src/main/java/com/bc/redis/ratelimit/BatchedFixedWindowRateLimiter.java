@@ -0,0 +1,153 @@
+package com.bc.redis.ratelimit;
+
+import com.bc.redis.dao.RedisBatch;
+import com.bc.redis.dao.RedisDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地预聚合的固定窗口限流
+ * 请求只在本地判断: 最近一次同步的全局计数 + 本地未提交的计数 不超过limit时通过
+ * 每隔flushInterval毫秒用一次pipeline把各key未提交的计数INCRBY到redis，并取回最新的全局计数
+ * redis的QPS与请求量无关，只与活跃key数量和flushInterval有关
+ * 代价是各节点在一个flushInterval内看不到彼此的计数，最多可能超出 节点数 * 单节点flushInterval内的请求数
+ *
+ * @author zhou
+ */
+public class BatchedFixedWindowRateLimiter implements RateLimiter, AutoCloseable {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(BatchedFixedWindowRateLimiter.class);
+
+    private final RedisDao redisDao;
+
+    private final long limit;
+
+    private final long windowMillis;
+
+    private final ConcurrentMap<String, WindowCounter> counters = new ConcurrentHashMap<>();
+
+    private final ScheduledFuture<?> flushTask;
+
+    public BatchedFixedWindowRateLimiter(RedisDao redisDao, long limit, long windowMillis,
+                                         long flushIntervalMillis, ScheduledExecutorService scheduler) {
+        this.redisDao = redisDao;
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+        this.flushTask = scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis,
+                flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int permits) {
+        long window = System.currentTimeMillis() / windowMillis;
+        WindowCounter counter = counters.get(key);
+        if (counter == null || counter.window != window) {
+            counter = counters.compute(key, (k, c) -> c == null || c.window < window ? new WindowCounter(window) : c);
+        }
+        AtomicLong pending = counter.pending;
+        while (true) {
+            long current = pending.get();
+            if (counter.globalCount + current + permits > limit) {
+                return false;
+            }
+            if (pending.compareAndSet(current, current + permits)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 提交本地计数并同步全局计数
+     */
+    public synchronized void flush() {
+        long window = System.currentTimeMillis() / windowMillis;
+        List<String> keys = new ArrayList<>();
+        List<WindowCounter> flushing = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        RedisBatch batch = redisDao.batch();
+        for (Map.Entry<String, WindowCounter> entry : counters.entrySet()) {
+            WindowCounter counter = entry.getValue();
+            long delta = counter.pending.get();
+            // 已经结束且没有未提交计数的窗口不再需要
+            if (counter.window < window && delta == 0) {
+                counters.remove(entry.getKey(), counter);
+                continue;
+            }
+            String windowKey = entry.getKey() + ":" + counter.window;
+            // delta为0时INCRBY 0只读取其他节点提交的计数
+            batch.increment(windowKey, delta).expire(windowKey, windowMillis, TimeUnit.MILLISECONDS);
+            keys.add(entry.getKey());
+            flushing.add(counter);
+            deltas.add(delta);
+        }
+        if (flushing.isEmpty()) {
+            return;
+        }
+        RedisBatch.Result result = batch.execute();
+        for (int i = 0; i < flushing.size(); i++) {
+            WindowCounter counter = flushing.get(i);
+            // 先更新全局计数再扣减本地计数，中间短暂的重复计算只会让判断偏保守
+            counter.globalCount = result.getLong(i * 2);
+            counter.pending.addAndGet(-deltas.get(i));
+            if (counter.window < window && counter.pending.get() == 0) {
+                counters.remove(keys.get(i), counter);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("flush rate limit counters error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 停止定时提交，并提交剩余的本地计数
+     */
+    @Override
+    public void close() {
+        flushTask.cancel(false);
+        flushQuietly();
+    }
+
+    /**
+     * 一个key在一个窗口内的计数
+     */
+    private static class WindowCounter {
+
+        private final long window;
+
+        /**
+         * 本地已通过但未提交到redis的计数
+         */
+        private final AtomicLong pending = new AtomicLong();
+
+        /**
+         * 最近一次同步的全局计数(包含本节点已提交的计数)
+         */
+        private volatile long globalCount;
+
+        private WindowCounter(long window) {
+            this.window = window;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.bc.redis.ratelimit;
+
+import com.bc.redis.script.RedisScriptRegistry;
+
+import java.util.Collections;
+
+/**
+ * 固定窗口限流
+ * 每个窗口使用单独的key({key}:{窗口序号})计数，窗口序号按本地时钟计算
+ *
+ * @author zhou
+ */
+public class FixedWindowRateLimiter implements RateLimiter {
+
+    private final RedisScriptRegistry redisScriptRegistry;
+
+    private final long limit;
+
+    private final long windowMillis;
+
+    public FixedWindowRateLimiter(RedisScriptRegistry redisScriptRegistry, long limit, long windowMillis) {
+        this.redisScriptRegistry = redisScriptRegistry;
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int permits) {
+        String windowKey = key + ":" + System.currentTimeMillis() / windowMillis;
+        Long result = redisScriptRegistry.execute(RedisScriptRegistry.FIXED_WINDOW,
+                Collections.singletonList(windowKey), limit, windowMillis, permits);
+        return result != null && result == 1;
+    }
+}
@@ -0,0 +1,50 @@
+package com.bc.redis.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口限流
+ * 标注在controller方法上，超出限制时返回429
+ *
+ * @author zhou
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimit {
+
+    /**
+     * 限流的键，默认为 类名:方法名
+     */
+    String key() default "";
+
+    /**
+     * 窗口内允许的请求数
+     */
+    long limit();
+
+    /**
+     * 窗口长度
+     */
+    long window() default 1;
+
+    /**
+     * 窗口长度的时间单位
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * 限流算法
+     */
+    RateLimitAlgorithm algorithm() default RateLimitAlgorithm.TOKEN_BUCKET;
+
+    /**
+     * 是否按客户端ip分别限流
+     */
+    boolean perClient() default false;
+}
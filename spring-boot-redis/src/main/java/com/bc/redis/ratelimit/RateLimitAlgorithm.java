@@ -0,0 +1,25 @@
+package com.bc.redis.ratelimit;
+
+/**
+ * 限流算法
+ *
+ * @author zhou
+ */
+public enum RateLimitAlgorithm {
+    /**
+     * 令牌桶，允许突发流量(最多limit个)，长期速率为limit/window
+     */
+    TOKEN_BUCKET,
+    /**
+     * 固定窗口，窗口边界处最多可能通过2倍limit
+     */
+    FIXED_WINDOW,
+    /**
+     * 滑动日志，精确但每个请求占用一个有序集成员，适合limit较小的场景
+     */
+    SLIDING_LOG,
+    /**
+     * 本地预聚合的固定窗口，定时批量提交计数，适合高QPS但允许少量超限的场景
+     */
+    BATCHED_FIXED_WINDOW
+}
@@ -0,0 +1,90 @@
+package com.bc.redis.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 限流拦截器
+ * 处理标注了@RateLimit的controller方法，超出限制时返回429
+ * redis不可用时放行请求
+ *
+ * @author zhou
+ */
+@Component
+public class RateLimitInterceptor extends HandlerInterceptorAdapter {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitInterceptor.class);
+
+    @Autowired
+    private RateLimiterRegistry rateLimiterRegistry;
+
+    /**
+     * 方法的限流配置，没有标注@RateLimit的方法为Optional.empty()
+     */
+    private final ConcurrentMap<Method, Optional<RateLimitRule>> rules = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        Optional<RateLimitRule> rule = rules.computeIfAbsent(handlerMethod.getMethod(),
+                method -> Optional.ofNullable(handlerMethod.getMethodAnnotation(RateLimit.class))
+                        .map(rateLimit -> new RateLimitRule(rateLimit, method)));
+        if (!rule.isPresent()) {
+            return true;
+        }
+        RateLimitRule rateLimitRule = rule.get();
+        String key = rateLimitRule.perClient ? rateLimitRule.key + ":" + request.getRemoteAddr() : rateLimitRule.key;
+        boolean acquired;
+        try {
+            acquired = rateLimitRule.rateLimiter.tryAcquire(key);
+        } catch (Exception e) {
+            logger.error("rate limit error: " + e.getMessage() + ", key: " + key);
+            return true;
+        }
+        if (!acquired) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+        }
+        return acquired;
+    }
+
+    /**
+     * 解析后的限流配置
+     */
+    private class RateLimitRule {
+
+        private final String key;
+
+        private final boolean perClient;
+
+        private final RateLimiter rateLimiter;
+
+        private RateLimitRule(RateLimit rateLimit, Method method) {
+            String name = rateLimit.key().isEmpty()
+                    ? method.getDeclaringClass().getName() + ":" + method.getName() : rateLimit.key();
+            this.key = rateLimiterRegistry.getKey(name);
+            this.perClient = rateLimit.perClient();
+            this.rateLimiter = rateLimiterRegistry.getRateLimiter(rateLimit.algorithm(), rateLimit.limit(),
+                    rateLimit.unit().toMillis(rateLimit.window()));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.bc.redis.ratelimit;
+
+/**
+ * 限流器
+ *
+ * @author zhou
+ */
+public interface RateLimiter {
+
+    /**
+     * 尝试获取1个许可
+     *
+     * @param key 限流的键
+     * @return true: 获取成功  false: 超出限制
+     */
+    boolean tryAcquire(String key);
+
+    /**
+     * 尝试获取多个许可
+     *
+     * @param key     限流的键
+     * @param permits 许可数量
+     * @return true: 获取成功  false: 超出限制
+     */
+    boolean tryAcquire(String key, int permits);
+}
@@ -0,0 +1,100 @@
+package com.bc.redis.ratelimit;
+
+import com.bc.redis.dao.RedisDao;
+import com.bc.redis.script.RedisScriptRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 限流器注册表
+ * 相同算法和参数的限流器只创建一次，不同的key共用同一个限流器
+ *
+ * @author zhou
+ */
+@Component
+public class RateLimiterRegistry {
+
+    @Autowired
+    private RedisDao redisDao;
+
+    @Autowired
+    private RedisScriptRegistry redisScriptRegistry;
+
+    /**
+     * 限流key的前缀
+     */
+    @Value("${spring.redis.rate-limit.key-prefix:rate:limit:}")
+    private String keyPrefix;
+
+    /**
+     * BATCHED_FIXED_WINDOW算法提交本地计数的间隔(毫秒)
+     */
+    @Value("${spring.redis.rate-limit.flush-interval:50}")
+    private long flushIntervalMillis;
+
+    private final ConcurrentMap<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limit-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 获取限流器
+     *
+     * @param algorithm    限流算法
+     * @param limit        窗口内允许的请求数
+     * @param windowMillis 窗口长度(毫秒)
+     * @return 限流器
+     */
+    public RateLimiter getRateLimiter(RateLimitAlgorithm algorithm, long limit, long windowMillis) {
+        if (limit <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("limit and window must be greater than 0");
+        }
+        return rateLimiters.computeIfAbsent(algorithm + ":" + limit + ":" + windowMillis,
+                name -> createRateLimiter(algorithm, limit, windowMillis));
+    }
+
+    /**
+     * 获取限流key的完整名称
+     *
+     * @param key 限流的键
+     * @return 带前缀的key
+     */
+    public String getKey(String key) {
+        return keyPrefix + key;
+    }
+
+    private RateLimiter createRateLimiter(RateLimitAlgorithm algorithm, long limit, long windowMillis) {
+        switch (algorithm) {
+            case FIXED_WINDOW:
+                return new FixedWindowRateLimiter(redisScriptRegistry, limit, windowMillis);
+            case SLIDING_LOG:
+                return new SlidingLogRateLimiter(redisScriptRegistry, limit, windowMillis);
+            case BATCHED_FIXED_WINDOW:
+                return new BatchedFixedWindowRateLimiter(redisDao, limit, windowMillis, flushIntervalMillis,
+                        scheduler);
+            case TOKEN_BUCKET:
+            default:
+                return new TokenBucketRateLimiter(redisDao, limit, windowMillis);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (RateLimiter rateLimiter : rateLimiters.values()) {
+            if (rateLimiter instanceof BatchedFixedWindowRateLimiter) {
+                ((BatchedFixedWindowRateLimiter) rateLimiter).close();
+            }
+        }
+        scheduler.shutdown();
+    }
+}
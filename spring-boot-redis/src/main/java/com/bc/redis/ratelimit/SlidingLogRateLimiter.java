@@ -0,0 +1,39 @@
+package com.bc.redis.ratelimit;
+
+import com.bc.redis.script.RedisScriptRegistry;
+
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * 滑动日志限流
+ * 用有序集记录窗口内每次请求的时间(redis服务器时间)，统计任意长度为window的区间内的请求数
+ *
+ * @author zhou
+ */
+public class SlidingLogRateLimiter implements RateLimiter {
+
+    private final RedisScriptRegistry redisScriptRegistry;
+
+    private final long limit;
+
+    private final long windowMillis;
+
+    public SlidingLogRateLimiter(RedisScriptRegistry redisScriptRegistry, long limit, long windowMillis) {
+        this.redisScriptRegistry = redisScriptRegistry;
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int permits) {
+        Long result = redisScriptRegistry.execute(RedisScriptRegistry.SLIDING_LOG, Collections.singletonList(key),
+                limit, windowMillis, permits, UUID.randomUUID().toString());
+        return result != null && result == 1;
+    }
+}
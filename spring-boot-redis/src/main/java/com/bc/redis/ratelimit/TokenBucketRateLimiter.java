@@ -0,0 +1,34 @@
+package com.bc.redis.ratelimit;
+
+import com.bc.redis.dao.RedisDao;
+
+/**
+ * 令牌桶限流
+ * 令牌按limit/window的速率补充，桶容量为limit
+ *
+ * @author zhou
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+
+    private final RedisDao redisDao;
+
+    private final long capacity;
+
+    private final double refillPerSecond;
+
+    public TokenBucketRateLimiter(RedisDao redisDao, long limit, long windowMillis) {
+        this.redisDao = redisDao;
+        this.capacity = limit;
+        this.refillPerSecond = limit * 1000D / windowMillis;
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int permits) {
+        return redisDao.tryAcquireToken(key, capacity, refillPerSecond, permits) >= 0;
+    }
+}
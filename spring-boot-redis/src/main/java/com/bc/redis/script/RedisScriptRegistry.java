@@ -0,0 +1,145 @@
+package com.bc.redis.script;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * lua脚本注册表
+ * 脚本放在classpath:scripts/目录下，按文件名(不含.lua)注册
+ * 注册时计算SHA1并通过SCRIPT LOAD预加载，执行时使用EVALSHA只发送SHA1
+ * redis重启或执行SCRIPT FLUSH后返回NOSCRIPT，此时自动改用EVAL发送脚本内容
+ *
+ * @author zhou
+ */
+@Component
+public class RedisScriptRegistry {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(RedisScriptRegistry.class);
+
+    /**
+     * 有上限的有序集添加
+     */
+    public static final String ZADD_CAPPED = "zadd_capped";
+
+    /**
+     * 令牌桶取令牌
+     */
+    public static final String TOKEN_TAKE = "token_take";
+
+    /**
+     * 比较并设置
+     */
+    public static final String COMPARE_AND_SET = "compare_and_set";
+
+    /**
+     * 固定窗口计数
+     */
+    public static final String FIXED_WINDOW = "fixed_window";
+
+    /**
+     * 滑动日志计数
+     */
+    public static final String SLIDING_LOG = "sliding_log";
+
+    /**
+     * 获取锁
+     */
+    public static final String LOCK_ACQUIRE = "lock_acquire";
+
+    /**
+     * 续期锁
+     */
+    public static final String LOCK_RENEW = "lock_renew";
+
+    /**
+     * 释放锁
+     */
+    public static final String LOCK_RELEASE = "lock_release";
+
+    private static final String SCRIPT_PATH = "scripts/";
+
+    private static final RedisSerializer<Object> ARGS_SERIALIZER = new ScriptArgsSerializer();
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private final ConcurrentMap<String, RedisScript<?>> scripts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        register(ZADD_CAPPED, Long.class);
+        register(TOKEN_TAKE, Long.class);
+        register(COMPARE_AND_SET, Long.class);
+        register(FIXED_WINDOW, Long.class);
+        register(SLIDING_LOG, Long.class);
+        register(LOCK_ACQUIRE, Long.class);
+        register(LOCK_RENEW, Long.class);
+        register(LOCK_RELEASE, Long.class);
+    }
+
+    /**
+     * 注册脚本
+     *
+     * @param name       脚本名称，对应classpath:scripts/{name}.lua
+     * @param resultType 返回值类型
+     * @return 脚本
+     */
+    public <T> RedisScript<T> register(String name, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(SCRIPT_PATH + name + ".lua")));
+        script.setResultType(resultType);
+        scripts.put(name, script);
+        load(name, script);
+        return script;
+    }
+
+    /**
+     * 执行脚本
+     * byte[]类型的参数原样传递，其他参数按字符串传递
+     * 返回值为字符串等二进制数据时使用value序列化器反序列化
+     *
+     * @param name 脚本名称
+     * @param keys 脚本中使用的key
+     * @param args 脚本参数
+     * @return 脚本返回值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String name, List<String> keys, Object... args) {
+        RedisScript<T> script = (RedisScript<T>) scripts.get(name);
+        if (script == null) {
+            throw new IllegalArgumentException("Unknown redis script: " + name);
+        }
+        return redisTemplate.execute(script, ARGS_SERIALIZER, (RedisSerializer<T>) redisTemplate.getValueSerializer(),
+                keys, args);
+    }
+
+    /**
+     * 预加载脚本，失败时不影响使用，首次执行时会通过EVAL加载
+     */
+    private void load(String name, RedisScript<?> script) {
+        try {
+            byte[] source = script.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+            String sha1 = redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptLoad(source));
+            logger.info("load redis script: " + name + ", sha1: " + sha1);
+        } catch (Exception e) {
+            logger.warn("load redis script error: " + e.getMessage() + ", name: " + name);
+        }
+    }
+}
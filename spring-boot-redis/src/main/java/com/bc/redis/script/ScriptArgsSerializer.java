@@ -0,0 +1,31 @@
+package com.bc.redis.script;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * lua脚本参数序列化
+ * byte[]原样传递(已经用value序列化器序列化的值)，其他参数(数字、字符串)按字符串传递，便于脚本中tonumber
+ *
+ * @author zhou
+ */
+class ScriptArgsSerializer implements RedisSerializer<Object> {
+
+    @Override
+    public byte[] serialize(Object arg) throws SerializationException {
+        if (arg == null) {
+            return new byte[0];
+        }
+        if (arg instanceof byte[]) {
+            return (byte[]) arg;
+        }
+        return String.valueOf(arg).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+}
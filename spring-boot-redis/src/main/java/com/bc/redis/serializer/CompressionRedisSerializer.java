@@ -0,0 +1,112 @@
+package com.bc.redis.serializer;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 压缩序列化
+ * 包装另一个序列化器，序列化结果超过阈值时使用lz4压缩
+ * 压缩格式: [魔数0xFF 0xC3(2字节)][格式(1字节)][数据]
+ * 格式1: lz4压缩，数据为[原始长度(4字节)][压缩数据]
+ * 未达到阈值的结果不加头部，原样写入，开启压缩前写入的数据和INCR写入的数字也没有头部
+ * 读取时先检查魔数，没有魔数的数据原样交给被包装的序列化器
+ * 0xFF不会出现在UTF-8文本中，也不是jdk序列化(0xAC 0xED)和kryo(类id变长编码)常见的首字节，不会与被包装的序列化结果混淆
+ * 魔数匹配但格式未知时报错，新增格式只能使用新的格式值
+ *
+ * @author zhou
+ */
+public class CompressionRedisSerializer<T> implements RedisSerializer<T> {
+
+    private static final byte MAGIC_0 = (byte) 0xFF;
+
+    private static final byte MAGIC_1 = (byte) 0xC3;
+
+    private static final byte FORMAT_LZ4 = 1;
+
+    /**
+     * 魔数 + 格式
+     */
+    private static final int HEADER_LENGTH = 3;
+
+    /**
+     * lz4格式的头部: 魔数 + 格式 + 原始长度
+     */
+    private static final int LZ4_HEADER_LENGTH = HEADER_LENGTH + 4;
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private final RedisSerializer<T> delegate;
+
+    /**
+     * 压缩阈值(字节)，序列化结果不小于该值时压缩
+     */
+    private final int threshold;
+
+    public CompressionRedisSerializer(RedisSerializer<T> delegate, int threshold) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] serialize(T t) throws SerializationException {
+        byte[] raw = delegate.serialize(t);
+        if (raw == null || raw.length == 0) {
+            return EMPTY_ARRAY;
+        }
+        if (raw.length < threshold) {
+            return raw;
+        }
+        int maxLength = COMPRESSOR.maxCompressedLength(raw.length);
+        byte[] bytes = new byte[maxLength + LZ4_HEADER_LENGTH];
+        bytes[0] = MAGIC_0;
+        bytes[1] = MAGIC_1;
+        bytes[2] = FORMAT_LZ4;
+        writeInt(bytes, HEADER_LENGTH, raw.length);
+        int compressedLength = COMPRESSOR.compress(raw, 0, raw.length, bytes, LZ4_HEADER_LENGTH, maxLength);
+        byte[] result = new byte[compressedLength + LZ4_HEADER_LENGTH];
+        System.arraycopy(bytes, 0, result, 0, result.length);
+        return result;
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1) {
+            return delegate.deserialize(bytes);
+        }
+        if (bytes[2] != FORMAT_LZ4) {
+            throw new SerializationException("Could not decompress: unknown format " + bytes[2]);
+        }
+        if (bytes.length < LZ4_HEADER_LENGTH) {
+            throw new SerializationException("Could not decompress: truncated header");
+        }
+        byte[] raw;
+        try {
+            raw = DECOMPRESSOR.decompress(bytes, LZ4_HEADER_LENGTH, readInt(bytes, HEADER_LENGTH));
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not decompress: " + e.getMessage(), e);
+        }
+        return delegate.deserialize(raw);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,135 @@
+package com.bc.redis.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import com.esotericsoftware.kryo.util.Pool;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于kryo的二进制序列化
+ * 已注册的类只写入一个整数id，未注册的类写入类名
+ * 各节点的注册表(类及顺序)必须一致，新增类只能追加到末尾
+ * 对于INCR等命令直接写入的数字文本，反序列化时返回Long或Double
+ *
+ * @author zhou
+ */
+public class KryoRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 注册类id的起始值，避开kryo内置类型的id
+     */
+    private static final int REGISTRATION_ID_BASE = 100;
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+
+    private final List<Class<?>> registeredClasses;
+
+    private final Pool<Kryo> kryoPool;
+
+    private final Pool<Output> outputPool;
+
+    public KryoRedisSerializer(List<Class<?>> registeredClasses) {
+        this.registeredClasses = new ArrayList<>(registeredClasses);
+        this.kryoPool = new Pool<Kryo>(true, false, 32) {
+            @Override
+            protected Kryo create() {
+                return createKryo();
+            }
+        };
+        this.outputPool = new Pool<Output>(true, false, 32) {
+            @Override
+            protected Output create() {
+                return new Output(4096, -1);
+            }
+        };
+    }
+
+    @Override
+    public byte[] serialize(Object object) throws SerializationException {
+        if (object == null) {
+            return EMPTY_ARRAY;
+        }
+        Kryo kryo = kryoPool.obtain();
+        Output output = outputPool.obtain();
+        try {
+            output.reset();
+            kryo.writeClassAndObject(output, object);
+            return output.toBytes();
+        } catch (Exception e) {
+            throw new SerializationException("Could not write object: " + e.getMessage(), e);
+        } finally {
+            outputPool.free(output);
+            kryoPool.free(kryo);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (isNumeric(bytes)) {
+            return parseNumber(new String(bytes, StandardCharsets.US_ASCII));
+        }
+        Kryo kryo = kryoPool.obtain();
+        try {
+            return kryo.readClassAndObject(new Input(bytes));
+        } catch (Exception e) {
+            throw new SerializationException("Could not read object: " + e.getMessage(), e);
+        } finally {
+            kryoPool.free(kryo);
+        }
+    }
+
+    private Kryo createKryo() {
+        Kryo kryo = new Kryo();
+        kryo.setRegistrationRequired(false);
+        kryo.setReferences(false);
+        // 没有无参构造器的类(如DefaultTypedTuple)直接实例化
+        kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+        for (int i = 0; i < registeredClasses.size(); i++) {
+            kryo.register(registeredClasses.get(i), REGISTRATION_ID_BASE + i);
+        }
+        return kryo;
+    }
+
+    /**
+     * 是否是数字文本(INCR/INCRBYFLOAT/HINCRBY等命令写入的值)
+     * kryo输出的首字节不会落在'-'和'0'~'9'之间，因此不会误判
+     */
+    private static boolean isNumeric(byte[] bytes) {
+        int start = bytes[0] == '-' ? 1 : 0;
+        if (start == bytes.length) {
+            return false;
+        }
+        boolean dot = false;
+        for (int i = start; i < bytes.length; i++) {
+            byte b = bytes[i];
+            if (b == '.' && !dot && i > start) {
+                dot = true;
+            } else if (b < '0' || b > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object parseNumber(String text) {
+        if (text.indexOf('.') < 0) {
+            try {
+                return Long.valueOf(text);
+            } catch (NumberFormatException e) {
+                // 超出long范围
+            }
+        }
+        return Double.valueOf(text);
+    }
+}
@@ -0,0 +1,71 @@
+package com.bc.redis.serializer;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 根据配置创建redis值序列化器
+ *
+ * @author zhou
+ */
+public final class RedisSerializerFactory {
+
+    private RedisSerializerFactory() {
+    }
+
+    /**
+     * 创建值序列化器
+     *
+     * @param properties 序列化配置
+     * @return 值序列化器
+     */
+    public static RedisSerializer<Object> create(RedisSerializerProperties properties) {
+        RedisSerializer<Object> serializer;
+        switch (properties.getType()) {
+            case KRYO:
+                serializer = new KryoRedisSerializer(resolveClasses(properties.getRegisteredClasses()));
+                break;
+            case JDK:
+                serializer = new JdkSerializationRedisSerializer();
+                break;
+            case JACKSON:
+            default:
+                serializer = jackson();
+                break;
+        }
+        if (properties.getCompressionThreshold() > 0) {
+            serializer = new CompressionRedisSerializer<>(serializer, properties.getCompressionThreshold());
+        }
+        return serializer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisSerializer<Object> jackson() {
+        Jackson2JsonRedisSerializer jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer(Object.class);
+        ObjectMapper om = new ObjectMapper();
+        om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        om.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
+        jackson2JsonRedisSerializer.setObjectMapper(om);
+        return jackson2JsonRedisSerializer;
+    }
+
+    private static List<Class<?>> resolveClasses(List<String> classNames) {
+        List<Class<?>> classes = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            try {
+                classes.add(ClassUtils.forName(className.trim(), RedisSerializerFactory.class.getClassLoader()));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("kryo registered class not found: " + className, e);
+            }
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,54 @@
+package com.bc.redis.serializer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * redis值序列化配置
+ *
+ * @author zhou
+ */
+@ConfigurationProperties(prefix = "spring.redis.serializer")
+public class RedisSerializerProperties {
+
+    /**
+     * 序列化方式，各方式的数据互不兼容，切换后已有数据无法读取，需要先清空或等待缓存过期
+     */
+    private SerializerType type = SerializerType.JACKSON;
+
+    /**
+     * 压缩阈值(字节)，序列化结果不小于该值时使用lz4压缩，小于等于0时不压缩
+     */
+    private int compressionThreshold = 0;
+
+    /**
+     * kryo注册的类(全限定名)，各节点必须一致，新增类只能追加到末尾
+     */
+    private List<String> registeredClasses = new ArrayList<>();
+
+    public SerializerType getType() {
+        return type;
+    }
+
+    public void setType(SerializerType type) {
+        this.type = type;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public List<String> getRegisteredClasses() {
+        return registeredClasses;
+    }
+
+    public void setRegisteredClasses(List<String> registeredClasses) {
+        this.registeredClasses = registeredClasses;
+    }
+}
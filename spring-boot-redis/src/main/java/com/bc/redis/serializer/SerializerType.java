@@ -0,0 +1,21 @@
+package com.bc.redis.serializer;
+
+/**
+ * redis值序列化方式
+ *
+ * @author zhou
+ */
+public enum SerializerType {
+    /**
+     * jackson json(写入完整类名)
+     */
+    JACKSON,
+    /**
+     * kryo二进制
+     */
+    KRYO,
+    /**
+     * jdk序列化
+     */
+    JDK
+}
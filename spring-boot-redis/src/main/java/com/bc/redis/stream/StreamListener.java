@@ -0,0 +1,19 @@
+package com.bc.redis.stream;
+
+/**
+ * stream消息监听
+ * onMessage正常返回后确认消息，抛出异常时不确认，消息留在待确认列表中，超时后重新投递
+ *
+ * @author zhou
+ */
+@FunctionalInterface
+public interface StreamListener {
+
+    /**
+     * 处理一条消息
+     *
+     * @param record 消息
+     * @throws Exception 处理失败
+     */
+    void onMessage(StreamRecord record) throws Exception;
+}
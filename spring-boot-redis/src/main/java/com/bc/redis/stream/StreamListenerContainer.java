@@ -0,0 +1,132 @@
+package com.bc.redis.stream;
+
+import com.bc.redis.config.NativeLettuceClient;
+import com.bc.redis.dao.RedisDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * redis stream消费组监听容器
+ * 每个订阅使用多个消费线程按批读取消息，消费者名称为 进程名-序号，同一消费组的多个节点共同分担消息
+ *
+ * @author zhou
+ */
+@Component
+public class StreamListenerContainer {
+
+    /**
+     * 每次XREADGROUP读取的最大消息数量，同时是每次检查pending列表的数量
+     */
+    @Value("${spring.redis.stream.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * XREADGROUP阻塞等待新消息的时间(毫秒)
+     */
+    @Value("${spring.redis.stream.block-timeout:2000}")
+    private long blockTimeout;
+
+    /**
+     * 检查pending列表的间隔(毫秒)
+     */
+    @Value("${spring.redis.stream.reclaim-interval:30000}")
+    private long reclaimInterval;
+
+    /**
+     * 未确认消息空闲多久后被接管(毫秒)，应大于单批消息的处理时间
+     */
+    @Value("${spring.redis.stream.reclaim-min-idle:60000}")
+    private long reclaimMinIdle;
+
+    /**
+     * 最大投递次数，达到后转入死信stream
+     */
+    @Value("${spring.redis.stream.max-deliveries:5}")
+    private long maxDeliveries;
+
+    /**
+     * 死信stream的后缀
+     */
+    @Value("${spring.redis.stream.dead-letter-suffix::dlq}")
+    private String deadLetterSuffix;
+
+    @Autowired
+    private NativeLettuceClient nativeLettuceClient;
+
+    @Autowired
+    private RedisDao redisDao;
+
+    private final List<StreamSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService reclaimScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "redis-stream-reclaim");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 订阅stream，消费组不存在时从新消息开始创建
+     *
+     * @param key         键
+     * @param group       消费组
+     * @param listener    消息处理
+     * @param concurrency 消费线程数
+     * @return 订阅
+     */
+    public StreamSubscription register(String key, String group, StreamListener listener, int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be greater than 0");
+        }
+        redisDao.xGroupCreate(key, group);
+        StreamSubscription subscription = new StreamSubscription(key, group,
+                ManagementFactory.getRuntimeMXBean().getName(), listener, concurrency, this, nativeLettuceClient,
+                redisDao, reclaimScheduler);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (StreamSubscription subscription : new ArrayList<>(subscriptions)) {
+            subscription.cancel();
+        }
+        reclaimScheduler.shutdown();
+    }
+
+    void remove(StreamSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    long getBlockTimeout() {
+        return blockTimeout;
+    }
+
+    long getReclaimInterval() {
+        return reclaimInterval;
+    }
+
+    long getReclaimMinIdle() {
+        return reclaimMinIdle;
+    }
+
+    long getMaxDeliveries() {
+        return maxDeliveries;
+    }
+
+    String getDeadLetterSuffix() {
+        return deadLetterSuffix;
+    }
+}
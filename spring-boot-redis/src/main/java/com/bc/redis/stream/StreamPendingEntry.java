@@ -0,0 +1,54 @@
+package com.bc.redis.stream;
+
+/**
+ * 消费组中已投递未确认的消息
+ *
+ * @author zhou
+ */
+public class StreamPendingEntry {
+
+    private final String id;
+
+    /**
+     * 当前持有该消息的消费者
+     */
+    private final String consumer;
+
+    /**
+     * 距离上次投递的时间(毫秒)
+     */
+    private final long idleMillis;
+
+    /**
+     * 投递次数
+     */
+    private final long deliveryCount;
+
+    public StreamPendingEntry(String id, String consumer, long idleMillis, long deliveryCount) {
+        this.id = id;
+        this.consumer = consumer;
+        this.idleMillis = idleMillis;
+        this.deliveryCount = deliveryCount;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getConsumer() {
+        return consumer;
+    }
+
+    public long getIdleMillis() {
+        return idleMillis;
+    }
+
+    public long getDeliveryCount() {
+        return deliveryCount;
+    }
+
+    @Override
+    public String toString() {
+        return id + "@" + consumer + "(idle=" + idleMillis + ", deliveries=" + deliveryCount + ")";
+    }
+}
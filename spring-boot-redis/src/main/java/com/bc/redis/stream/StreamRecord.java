@@ -0,0 +1,68 @@
+package com.bc.redis.stream;
+
+import com.bc.redis.config.NativeLettuceClient;
+import io.lettuce.core.StreamMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * stream中的一条消息
+ *
+ * @author zhou
+ */
+public class StreamRecord {
+
+    private final String stream;
+
+    /**
+     * 消息id，格式为 毫秒时间戳-序号
+     */
+    private final String id;
+
+    private final Map<String, Object> fields;
+
+    public StreamRecord(String stream, String id, Map<String, Object> fields) {
+        this.stream = stream;
+        this.id = id;
+        this.fields = fields;
+    }
+
+    /**
+     * 转换lettuce读取到的消息，字段值使用client的编解码
+     *
+     * @param messages 消息
+     * @param client   原生lettuce客户端
+     * @return 消息列表
+     */
+    public static List<StreamRecord> fromMessages(List<StreamMessage<byte[], byte[]>> messages,
+                                                  NativeLettuceClient client) {
+        List<StreamRecord> records = new ArrayList<>(messages.size());
+        for (StreamMessage<byte[], byte[]> message : messages) {
+            // XCLAIM时已被删除的消息body为null
+            if (message.getBody() != null) {
+                records.add(new StreamRecord(client.decode(message.getStream()), message.getId(),
+                        client.decodeFields(message.getBody())));
+            }
+        }
+        return records;
+    }
+
+    public String getStream() {
+        return stream;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Map<String, Object> getFields() {
+        return fields;
+    }
+
+    @Override
+    public String toString() {
+        return stream + "/" + id + " " + fields;
+    }
+}
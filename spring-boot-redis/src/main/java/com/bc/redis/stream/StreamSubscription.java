@@ -0,0 +1,223 @@
+package com.bc.redis.stream;
+
+import com.bc.redis.config.NativeLettuceClient;
+import com.bc.redis.dao.RedisDao;
+import io.lettuce.core.Consumer;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 一个消费组的订阅
+ * 启动concurrency个消费线程，每个线程使用独立连接循环执行 XREADGROUP COUNT batchSize BLOCK blockTimeout，
+ * 一批消息处理完后用一次XACK确认处理成功的消息，处理失败的消息留在pending列表中
+ * 另外定时检查pending列表，接管空闲超过reclaimMinIdle的消息(消费者宕机或处理失败)重新处理，
+ * 投递次数达到maxDeliveries的消息转入死信stream后确认
+ * 定时检查在容器共用的线程中执行，只负责接管，接管的消息交给本订阅的消费线程处理，监听器只在消费线程中执行，
+ * 消费线程在两次XREADGROUP之间取走，最多延迟blockTimeout；上一批还没被取走时本次不接管，避免重复接管
+ *
+ * @author zhou
+ */
+public class StreamSubscription {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(StreamSubscription.class);
+
+    private final String key;
+
+    private final String group;
+
+    private final String consumerPrefix;
+
+    private final StreamListener listener;
+
+    private final StreamListenerContainer container;
+
+    private final NativeLettuceClient nativeLettuceClient;
+
+    private final RedisDao redisDao;
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final ScheduledFuture<?> reclaimTask;
+
+    /**
+     * 已接管、等待消费线程处理的消息
+     */
+    private final AtomicReference<List<StreamRecord>> retries = new AtomicReference<>();
+
+    private volatile boolean active = true;
+
+    StreamSubscription(String key, String group, String consumerPrefix, StreamListener listener, int concurrency,
+                       StreamListenerContainer container, NativeLettuceClient nativeLettuceClient, RedisDao redisDao,
+                       ScheduledExecutorService reclaimScheduler) {
+        this.key = key;
+        this.group = group;
+        this.consumerPrefix = consumerPrefix;
+        this.listener = listener;
+        this.container = container;
+        this.nativeLettuceClient = nativeLettuceClient;
+        this.redisDao = redisDao;
+        for (int i = 0; i < concurrency; i++) {
+            String consumer = consumerPrefix + "-" + i;
+            Thread worker = new Thread(() -> consume(consumer), "redis-stream-" + key + "-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+        workers.forEach(Thread::start);
+        long reclaimInterval = container.getReclaimInterval();
+        this.reclaimTask = reclaimScheduler.scheduleWithFixedDelay(this::reclaimQuietly, reclaimInterval,
+                reclaimInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * 取消订阅，等待消费线程处理完当前批次
+     * 消费线程最多阻塞blockTimeout毫秒后退出
+     */
+    public void cancel() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        reclaimTask.cancel(false);
+        long waitMillis = container.getBlockTimeout() + 1000;
+        for (Thread worker : workers) {
+            try {
+                worker.join(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        container.remove(this);
+    }
+
+    /**
+     * 消费线程，只读取新消息(>)
+     */
+    private void consume(String consumer) {
+        XReadArgs args = XReadArgs.Builder.count(container.getBatchSize()).block(container.getBlockTimeout());
+        Consumer<byte[]> from = Consumer.from(nativeLettuceClient.encode(group), nativeLettuceClient.encode(consumer));
+        XReadArgs.StreamOffset<byte[]> offset = XReadArgs.StreamOffset.lastConsumed(nativeLettuceClient.encode(key));
+        StatefulConnection<byte[], byte[]> connection = nativeLettuceClient.connect();
+        try {
+            RedisClusterCommands<byte[], byte[]> commands = NativeLettuceClient.commands(connection);
+            while (active) {
+                try {
+                    List<StreamRecord> reclaimed = retries.getAndSet(null);
+                    if (reclaimed != null) {
+                        process(reclaimed);
+                    }
+                    List<StreamMessage<byte[], byte[]>> messages = commands.xreadgroup(from, args, offset);
+                    if (!messages.isEmpty()) {
+                        process(StreamRecord.fromMessages(messages, nativeLettuceClient));
+                    }
+                } catch (Exception e) {
+                    if (!active) {
+                        break;
+                    }
+                    logger.error("read stream error: " + e.getMessage() + ", key: " + key + ", consumer: " + consumer);
+                    sleep(1000);
+                }
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * 依次处理消息，处理成功的消息一次确认
+     */
+    private void process(List<StreamRecord> records) {
+        List<String> ids = new ArrayList<>(records.size());
+        for (StreamRecord record : records) {
+            try {
+                listener.onMessage(record);
+                ids.add(record.getId());
+            } catch (Exception e) {
+                logger.error("handle stream message error: " + e.getMessage() + ", record: " + record);
+            }
+        }
+        redisDao.xAck(key, group, ids.toArray(new String[0]));
+    }
+
+    private void reclaimQuietly() {
+        try {
+            reclaim();
+        } catch (Exception e) {
+            logger.error("reclaim stream pending messages error: " + e.getMessage() + ", key: " + key);
+        }
+    }
+
+    /**
+     * 接管空闲超时的未确认消息
+     */
+    void reclaim() {
+        if (retries.get() != null) {
+            return;
+        }
+        long minIdle = container.getReclaimMinIdle();
+        List<String> ids = new ArrayList<>();
+        Map<String, Long> deliveries = new HashMap<>();
+        for (StreamPendingEntry entry : redisDao.xPending(key, group, container.getBatchSize())) {
+            if (entry.getIdleMillis() >= minIdle) {
+                ids.add(entry.getId());
+                deliveries.put(entry.getId(), entry.getDeliveryCount());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        // 其他节点同时接管时，XCLAIM按minIdle再判断一次，只有一个消费者能接管成功
+        List<StreamRecord> claimed = redisDao.xClaim(key, group, consumerPrefix + "-reclaim", minIdle,
+                ids.toArray(new String[0]));
+        List<StreamRecord> reclaimed = new ArrayList<>(claimed.size());
+        List<String> deadIds = new ArrayList<>();
+        for (StreamRecord record : claimed) {
+            if (deliveries.get(record.getId()) >= container.getMaxDeliveries()) {
+                redisDao.xAdd(key + container.getDeadLetterSuffix(), record.getFields());
+                deadIds.add(record.getId());
+                logger.warn("move stream message to dead letter: " + record + ", group: " + group);
+            } else {
+                reclaimed.add(record);
+            }
+        }
+        redisDao.xAck(key, group, deadIds.toArray(new String[0]));
+        if (!reclaimed.isEmpty()) {
+            retries.set(reclaimed);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
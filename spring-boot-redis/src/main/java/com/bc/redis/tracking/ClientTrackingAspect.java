@@ -0,0 +1,106 @@
+package com.bc.redis.tracking;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 在RedisDao上接入客户端缓存，调用方不需要改动
+ * get/hGet/sIsMember: 读本地缓存，未命中时通过tracking连接读取
+ * 本节点的写操作返回后立即删除相关key的本地缓存，不必等待服务端的失效通知，保证本节点写后读一致
+ * 其他节点、batch和lua脚本的写入由服务端的失效通知删除
+ *
+ * @author zhou
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "spring.redis.tracking", name = "enabled", havingValue = "true")
+public class ClientTrackingAspect {
+
+    @Autowired
+    private ClientTrackingCache clientTrackingCache;
+
+    @Around("execution(Object com.bc.redis.dao.RedisDao.get(String)) && args(key)")
+    public Object get(ProceedingJoinPoint joinPoint, String key) throws Throwable {
+        if (!clientTrackingCache.isCacheable(key)) {
+            return joinPoint.proceed();
+        }
+        return clientTrackingCache.get(key);
+    }
+
+    @Around("execution(Object com.bc.redis.dao.RedisDao.hGet(String, String)) && args(key, hashKey)")
+    public Object hGet(ProceedingJoinPoint joinPoint, String key, String hashKey) throws Throwable {
+        if (!clientTrackingCache.isCacheable(key)) {
+            return joinPoint.proceed();
+        }
+        return clientTrackingCache.hGet(key, hashKey);
+    }
+
+    @Around("execution(boolean com.bc.redis.dao.RedisDao.sIsMember(String, Object)) && args(key, member)")
+    public Object sIsMember(ProceedingJoinPoint joinPoint, String key, Object member) throws Throwable {
+        if (!clientTrackingCache.isCacheable(key)) {
+            return joinPoint.proceed();
+        }
+        return clientTrackingCache.sIsMember(key, member);
+    }
+
+    @AfterReturning("execution(* com.bc.redis.dao.RedisDao.set*(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.getAndSet(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.append(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.increment(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.decrement(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.multiSet*(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.compareAndSet(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.delete(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.expire(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.hPut*(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.hDelete(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.hIncrement(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.sAdd(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.sRemove(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.sPop(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.sMove(..))")
+    public void invalidate(JoinPoint joinPoint) {
+        Object[] args = joinPoint.getArgs();
+        if (args.length > 0) {
+            invalidateKeys(args[0]);
+        }
+    }
+
+    @AfterReturning("execution(* com.bc.redis.dao.RedisDao.rename*(..))")
+    public void invalidateRename(JoinPoint joinPoint) {
+        for (Object arg : joinPoint.getArgs()) {
+            invalidateKeys(arg);
+        }
+    }
+
+    /**
+     * 集合运算的结果写入destKey，sMove同时修改目标集合
+     */
+    @AfterReturning("execution(* com.bc.redis.dao.RedisDao.*AndStore(..))"
+            + " || execution(* com.bc.redis.dao.RedisDao.sMove(..))")
+    public void invalidateStore(JoinPoint joinPoint) {
+        Object[] args = joinPoint.getArgs();
+        invalidateKeys(args[args.length - 1]);
+    }
+
+    private void invalidateKeys(Object keys) {
+        if (keys instanceof String) {
+            clientTrackingCache.invalidate((String) keys);
+        } else if (keys instanceof Collection) {
+            for (Object key : (Collection<?>) keys) {
+                invalidateKeys(key);
+            }
+        } else if (keys instanceof Map) {
+            invalidateKeys(((Map<?, ?>) keys).keySet());
+        }
+    }
+}
@@ -0,0 +1,526 @@
+package com.bc.redis.tracking;
+
+import com.bc.redis.config.NativeLettuceClient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.output.StatusOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 基于CLIENT TRACKING的客户端缓存
+ * 缓存未命中时通过一个开启了tracking的专用连接读取，服务端记录该连接读过的key(广播模式下按前缀)，
+ * key被修改、删除、过期或淘汰时，服务端向失效通知连接推送该key，本地缓存随即删除
+ * RESP2协议下失效通知通过REDIRECT发送到另一个订阅了__redis__:invalidate的连接
+ * 任一连接断开时清空本地缓存并停止使用，重新建立连接和tracking后恢复，期间的读请求直接访问redis
+ * 本地缓存以(key, 字段)为条目，maximumSize限制的是条目总数，大哈希表或大集合不会绕过上限
+ * 失效通知按key发送，由key到其条目的索引找到要删除的条目，条目被淘汰或过期时同时从索引中移除
+ *
+ * @author zhou
+ */
+@Component
+@ConditionalOnProperty(prefix = "spring.redis.tracking", name = "enabled", havingValue = "true")
+public class ClientTrackingCache implements RedisConnectionStateListener {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ClientTrackingCache.class);
+
+    /**
+     * 本地缓存不能存null，用该对象表示key或字段不存在
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    /**
+     * 字符串的值在字段表中对应的字段
+     */
+    private static final Object STRING_FIELD = new Object();
+
+    @Autowired
+    private ClientTrackingProperties properties;
+
+    @Autowired
+    private NativeLettuceClient nativeLettuceClient;
+
+    @Autowired
+    private LettuceConnectionFactory lettuceConnectionFactory;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * (key, 字段) -> 值，字符串使用STRING_FIELD，哈希表使用字段名，集合使用成员
+     */
+    private Cache<EntryKey, Object> entries;
+
+    /**
+     * key -> 该key在本地缓存中的条目，只在compute中修改，一个key失效时删除它的全部条目
+     */
+    private final ConcurrentMap<String, Set<EntryKey>> index = new ConcurrentHashMap<>();
+
+    private StatefulConnection<byte[], byte[]> connection;
+
+    private RedisClusterCommands<byte[], byte[]> commands;
+
+    private volatile InvalidationClient invalidationClient;
+
+    private volatile long invalidationClientId = -1;
+
+    private volatile boolean active;
+
+    private volatile boolean closed;
+
+    /**
+     * 每次连接断开或重新开启tracking时加1，读取前后不一致时不写入本地缓存
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicBoolean resyncScheduled = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        if (nativeLettuceClient.isCluster()) {
+            logger.warn("client tracking is not supported in cluster mode, reads go to redis directly");
+            return;
+        }
+        entries = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .removalListener((EntryKey entryKey, Object value, RemovalCause cause) -> {
+                    if (entryKey != null && cause.wasEvicted()) {
+                        unindex(entryKey);
+                    }
+                })
+                .build();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "redis-tracking-resync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        connection = nativeLettuceClient.connect();
+        commands = NativeLettuceClient.commands(connection);
+        nativeLettuceClient.addListener(this);
+        resync();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        closed = true;
+        active = false;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        closeInvalidationClient();
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * key是否可以使用本地缓存
+     *
+     * @param key key
+     * @return true: tracking已开启且key在配置的前缀下
+     */
+    public boolean isCacheable(String key) {
+        if (!active || key == null) {
+            return false;
+        }
+        List<String> prefixes = properties.getPrefixes();
+        if (prefixes.isEmpty()) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getSize() {
+        return entries == null ? 0 : entries.estimatedSize();
+    }
+
+    /**
+     * 失效通知连接在服务端的id(CLIENT ID)，未连接时为-1
+     */
+    public long getInvalidationClientId() {
+        return invalidationClientId;
+    }
+
+    // ===== read ops begin =====
+
+    /**
+     * 读取字符串
+     *
+     * @param key key
+     * @return 值
+     */
+    public Object get(String key) {
+        return load(key, STRING_FIELD, () -> redisTemplate.getValueSerializer().deserialize(commands.get(rawKey(key))));
+    }
+
+    /**
+     * 读取哈希表字段
+     *
+     * @param key     key
+     * @param hashKey 字段
+     * @return 值
+     */
+    @SuppressWarnings("unchecked")
+    public Object hGet(String key, String hashKey) {
+        return load(key, hashKey, () -> {
+            byte[] rawHashKey = ((RedisSerializer<String>) redisTemplate.getHashKeySerializer()).serialize(hashKey);
+            return redisTemplate.getHashValueSerializer().deserialize(commands.hget(rawKey(key), rawHashKey));
+        });
+    }
+
+    /**
+     * 判断集合成员
+     *
+     * @param key    key
+     * @param member 成员
+     * @return true: 是集合成员
+     */
+    @SuppressWarnings("unchecked")
+    public boolean sIsMember(String key, Object member) {
+        return Boolean.TRUE.equals(load(key, member, () -> commands.sismember(rawKey(key),
+                ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(member))));
+    }
+    // ===== read ops end =====
+
+    /**
+     * 删除key的本地缓存
+     *
+     * @param key key
+     */
+    public void invalidate(String key) {
+        if (entries != null) {
+            index.computeIfPresent(key, (k, entryKeys) -> {
+                entries.invalidateAll(entryKeys);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * 清空本地缓存
+     */
+    public void invalidateAll() {
+        if (entries != null) {
+            for (String key : index.keySet()) {
+                invalidate(key);
+            }
+            entries.invalidateAll();
+        }
+    }
+
+    /**
+     * 读取本地缓存，未命中时通过tracking连接读取
+     * 读取前先放入占位对象，读取期间收到该key的失效通知时占位被删除，读到的值不再写入
+     * 同一字段已有读取在进行时直接读取redis，不等待也不写入
+     */
+    private Object load(String key, Object field, Supplier<Object> loader) {
+        long startGeneration = generation.get();
+        EntryKey entryKey = new EntryKey(key, field);
+        Object cached = entries.getIfPresent(entryKey);
+        if (cached != null && !(cached instanceof Loading)) {
+            hits.increment();
+            return cached == NULL_VALUE ? null : cached;
+        }
+        misses.increment();
+        Loading loading = new Loading();
+        boolean owner = cached == null && register(entryKey, loading);
+        Object value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException e) {
+            if (owner) {
+                unregister(entryKey, loading);
+            }
+            throw e;
+        }
+        if (owner) {
+            if (!active || generation.get() != startGeneration
+                    || !entries.asMap().replace(entryKey, loading, value == null ? NULL_VALUE : value)) {
+                unregister(entryKey, loading);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 放入占位对象并加入索引，与invalidate在同一个key的compute中执行，失效通知不会漏掉刚放入的条目
+     *
+     * @return true: 放入成功  false: 该条目已存在
+     */
+    private boolean register(EntryKey entryKey, Loading loading) {
+        AtomicBoolean registered = new AtomicBoolean();
+        index.compute(entryKey.key, (k, entryKeys) -> {
+            Set<EntryKey> result = entryKeys == null ? new HashSet<>() : entryKeys;
+            if (entries.asMap().putIfAbsent(entryKey, loading) == null) {
+                registered.set(true);
+                result.add(entryKey);
+            }
+            return result.isEmpty() ? null : result;
+        });
+        return registered.get();
+    }
+
+    /**
+     * 删除仍是占位对象的条目并移出索引，已被失效通知删除时什么也不做
+     */
+    private void unregister(EntryKey entryKey, Loading loading) {
+        index.computeIfPresent(entryKey.key, (k, entryKeys) -> {
+            if (entries.asMap().remove(entryKey, loading)) {
+                entryKeys.remove(entryKey);
+            }
+            return entryKeys.isEmpty() ? null : entryKeys;
+        });
+    }
+
+    /**
+     * 条目被淘汰或过期后移出索引，移除通知是异步的，期间重新放入的条目保留在索引中
+     */
+    private void unindex(EntryKey entryKey) {
+        index.computeIfPresent(entryKey.key, (k, entryKeys) -> {
+            if (!entries.asMap().containsKey(entryKey)) {
+                entryKeys.remove(entryKey);
+            }
+            return entryKeys.isEmpty() ? null : entryKeys;
+        });
+    }
+
+    private static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ===== tracking begin =====
+
+    /**
+     * 建立失效通知连接，并在读取连接上开启tracking
+     */
+    private synchronized void resync() {
+        resyncScheduled.set(false);
+        if (closed) {
+            return;
+        }
+        deactivate();
+        closeInvalidationClient();
+        InvalidationClient client = null;
+        try {
+            InetSocketAddress master = nativeLettuceClient.masterAddress();
+            client = new InvalidationClient(master.getHostString(), master.getPort());
+            client.connect();
+            String password = lettuceConnectionFactory.getPassword();
+            if (StringUtils.hasText(password)) {
+                client.auth(password);
+                client.getStatusCodeReply();
+            }
+            long clientId = client.clientId();
+            client.subscribeInvalidations();
+            // 等待订阅确认后再开启tracking，保证失效通知不会在订阅之前发出
+            client.readMessage();
+            invalidationClient = client;
+            invalidationClientId = clientId;
+            InvalidationClient listening = client;
+            Thread listener = new Thread(() -> listen(listening), "redis-tracking-invalidation");
+            listener.setDaemon(true);
+            listener.start();
+            enableTracking(clientId);
+            generation.incrementAndGet();
+            active = true;
+            logger.info("client tracking enabled, redirect: " + clientId + ", broadcast: "
+                    + properties.isBroadcast() + ", prefixes: " + properties.getPrefixes());
+        } catch (Exception e) {
+            logger.error("enable client tracking error: " + e.getMessage());
+            if (client != null && invalidationClient != client) {
+                client.close();
+            }
+            closeInvalidationClient();
+            scheduleResync(properties.getRetryInterval().toMillis());
+        }
+    }
+
+    private void enableTracking(long clientId) {
+        CommandArgs<byte[], byte[]> off = new CommandArgs<>(ByteArrayCodec.INSTANCE).add("TRACKING").add("off");
+        commands.dispatch(CommandType.CLIENT, new StatusOutput<>(ByteArrayCodec.INSTANCE), off);
+        CommandArgs<byte[], byte[]> on = new CommandArgs<>(ByteArrayCodec.INSTANCE)
+                .add("TRACKING").add("on").add("REDIRECT").add(clientId);
+        if (properties.isBroadcast()) {
+            on.add("BCAST");
+            for (String prefix : properties.getPrefixes()) {
+                on.add("PREFIX").add(prefix);
+            }
+        }
+        commands.dispatch(CommandType.CLIENT, new StatusOutput<>(ByteArrayCodec.INSTANCE), on);
+    }
+
+    /**
+     * 读取失效通知，内容为null表示FLUSHDB/FLUSHALL，广播模式下内容是多个key
+     */
+    private void listen(InvalidationClient client) {
+        try {
+            while (invalidationClient == client) {
+                List<Object> message = client.readMessage();
+                if (message.size() < 3 || !"message".equals(decode(message.get(0)))) {
+                    continue;
+                }
+                Object payload = message.get(2);
+                if (payload == null) {
+                    invalidateAll();
+                } else if (payload instanceof List) {
+                    for (Object key : (List<?>) payload) {
+                        invalidate(decode(key));
+                    }
+                } else {
+                    invalidate(decode(payload));
+                }
+            }
+        } catch (Exception e) {
+            if (invalidationClient == client && !closed) {
+                logger.error("invalidation connection lost: " + e.getMessage());
+                deactivate();
+                scheduleResync(properties.getRetryInterval().toMillis());
+            }
+        }
+    }
+
+    private void deactivate() {
+        active = false;
+        generation.incrementAndGet();
+        invalidateAll();
+    }
+
+    private void scheduleResync(long delayMillis) {
+        if (!closed && resyncScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::resync, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void closeInvalidationClient() {
+        InvalidationClient client = invalidationClient;
+        invalidationClient = null;
+        invalidationClientId = -1;
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private static String decode(Object bytes) {
+        return new String((byte[]) bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 读取连接重连后服务端的tracking状态已丢失，需要重新开启
+     */
+    @Override
+    public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress socketAddress) {
+        if (handler == connection) {
+            scheduleResync(0);
+        }
+    }
+
+    @Override
+    public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+        if (handler == connection) {
+            deactivate();
+        }
+    }
+
+    @Override
+    public void onRedisExceptionCaught(RedisChannelHandler<?, ?> handler, Throwable cause) {
+    }
+    // ===== tracking end =====
+
+    /**
+     * 读取中的占位
+     */
+    private static class Loading {
+    }
+
+    /**
+     * 本地缓存的条目: key和字段
+     */
+    private static class EntryKey {
+
+        private final String key;
+
+        private final Object field;
+
+        private EntryKey(String key, Object field) {
+            this.key = key;
+            this.field = field;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EntryKey)) {
+                return false;
+            }
+            EntryKey that = (EntryKey) o;
+            return key.equals(that.key) && Objects.equals(field, that.field);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * key.hashCode() + Objects.hashCode(field);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.bc.redis.tracking;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 客户端缓存(CLIENT TRACKING)配置
+ *
+ * @author zhou
+ */
+@ConfigurationProperties(prefix = "spring.redis.tracking")
+public class ClientTrackingProperties {
+
+    /**
+     * 是否启用客户端缓存，需要redis 6.0及以上，不支持集群模式
+     */
+    private boolean enabled = false;
+
+    /**
+     * 是否使用广播模式
+     * false: 默认模式，服务端只记录本节点读过的key，失效通知精确，但服务端需要为每个key记录读取的客户端
+     * true: 广播模式，服务端不记录读取的key，prefixes下任意key修改时都会通知，适合前缀下读多写少的数据
+     */
+    private boolean broadcast = false;
+
+    /**
+     * 只缓存这些前缀下的key，为空时缓存所有key；广播模式下同时作为订阅的前缀
+     */
+    private List<String> prefixes = new ArrayList<>();
+
+    /**
+     * 本地缓存的最大条目数，字符串每个key一条，哈希表每个字段一条，集合每个成员一条
+     */
+    private long maximumSize = 10000;
+
+    /**
+     * 本地缓存的过期时间，失效通知丢失时最长读到旧值的时间
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    /**
+     * 失效通知连接断开后重新建立的间隔
+     */
+    private Duration retryInterval = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isBroadcast() {
+        return broadcast;
+    }
+
+    public void setBroadcast(boolean broadcast) {
+        this.broadcast = broadcast;
+    }
+
+    public List<String> getPrefixes() {
+        return prefixes;
+    }
+
+    public void setPrefixes(List<String> prefixes) {
+        this.prefixes = prefixes;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public Duration getRetryInterval() {
+        return retryInterval;
+    }
+
+    public void setRetryInterval(Duration retryInterval) {
+        this.retryInterval = retryInterval;
+    }
+}
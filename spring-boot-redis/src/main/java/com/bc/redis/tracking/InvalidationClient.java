@@ -0,0 +1,49 @@
+package com.bc.redis.tracking;
+
+import redis.clients.jedis.Client;
+import redis.clients.jedis.Protocol;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 接收失效通知的连接
+ * RESP2协议下失效通知是频道__redis__:invalidate上的消息，广播模式下一条消息的内容是多个key组成的数组，
+ * jedis和lettuce的订阅都只支持字符串内容，这里直接读取原始回复
+ *
+ * @author zhou
+ */
+class InvalidationClient extends Client {
+
+    static final byte[] CHANNEL = "__redis__:invalidate".getBytes(StandardCharsets.UTF_8);
+
+    InvalidationClient(String host, int port) {
+        super(host, port);
+    }
+
+    /**
+     * 当前连接的id，作为CLIENT TRACKING REDIRECT的目标
+     */
+    long clientId() {
+        sendCommand(Protocol.Command.CLIENT, "ID");
+        return getIntegerReply();
+    }
+
+    /**
+     * 订阅失效通知，之后只能通过readMessage读取消息
+     */
+    void subscribeInvalidations() {
+        subscribe(CHANNEL);
+        flush();
+        setTimeoutInfinite();
+    }
+
+    /**
+     * 读取一条订阅消息，阻塞直到收到消息或连接断开
+     *
+     * @return [类型, 频道, 内容]
+     */
+    List<Object> readMessage() {
+        return getRawObjectMultiBulkReply();
+    }
+}
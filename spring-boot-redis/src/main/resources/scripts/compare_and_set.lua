@@ -0,0 +1,19 @@
+-- 比较并设置: 当前值等于期望值时设置新值
+-- KEYS[1]: 键
+-- ARGV[1]: 1: 要求当前值等于ARGV[2]  0: 要求key不存在
+-- ARGV[2]: 期望值  ARGV[3]: 新值  ARGV[4]: 过期时间(毫秒)，<=0时不过期
+-- 返回: 1: 设置成功  0: 当前值不匹配
+local current = redis.call('GET', KEYS[1])
+if ARGV[1] == '1' then
+    if current ~= ARGV[2] then
+        return 0
+    end
+elseif current then
+    return 0
+end
+if tonumber(ARGV[4]) > 0 then
+    redis.call('SET', KEYS[1], ARGV[3], 'PX', ARGV[4])
+else
+    redis.call('SET', KEYS[1], ARGV[3])
+end
+return 1
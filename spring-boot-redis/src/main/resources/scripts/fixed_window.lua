@@ -0,0 +1,14 @@
+-- 固定窗口计数: 窗口内计数不超过limit时通过
+-- KEYS[1]: 当前窗口的key
+-- ARGV[1]: 窗口内允许的次数  ARGV[2]: 窗口长度(毫秒)  ARGV[3]: 本次计数
+-- 返回: 1: 通过  0: 超出限制(本次计数会被回退)
+local permits = tonumber(ARGV[3])
+local count = redis.call('INCRBY', KEYS[1], permits)
+if count == permits then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+if count > tonumber(ARGV[1]) then
+    redis.call('DECRBY', KEYS[1], permits)
+    return 0
+end
+return 1
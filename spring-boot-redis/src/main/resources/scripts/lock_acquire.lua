@@ -0,0 +1,12 @@
+-- 获取锁，成功时生成递增的fencing token
+-- KEYS[1]: 锁的key  KEYS[2]: fencing token计数器的key(与锁在同一个slot)
+-- ARGV[1]: 持有者标识  ARGV[2]: 租期(毫秒)
+-- 返回: 成功时返回fencing token(>0)，失败时返回锁的剩余时间的相反数(<=0)
+if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+    return redis.call('INCR', KEYS[2])
+end
+local ttl = redis.call('PTTL', KEYS[1])
+if ttl < 0 then
+    ttl = 0
+end
+return -ttl
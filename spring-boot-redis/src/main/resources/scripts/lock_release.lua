@@ -0,0 +1,10 @@
+-- 释放锁，只有持有者才能释放，释放后通知等待者
+-- KEYS[1]: 锁的key
+-- ARGV[1]: 持有者标识  ARGV[2]: 通知频道  ARGV[3]: 锁名称
+-- 返回: 1: 释放成功  0: 锁已不属于该持有者
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    redis.call('DEL', KEYS[1])
+    redis.call('PUBLISH', ARGV[2], ARGV[3])
+    return 1
+end
+return 0
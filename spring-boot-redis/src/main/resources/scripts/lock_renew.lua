@@ -0,0 +1,8 @@
+-- 续期锁，只有持有者才能续期
+-- KEYS[1]: 锁的key
+-- ARGV[1]: 持有者标识  ARGV[2]: 租期(毫秒)
+-- 返回: 1: 续期成功  0: 锁已不属于该持有者
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return 0
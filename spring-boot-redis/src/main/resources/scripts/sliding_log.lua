@@ -0,0 +1,20 @@
+-- 滑动日志: 用有序集记录窗口内每次请求的时间，窗口内请求数不超过limit时通过
+-- KEYS[1]: 有序集key
+-- ARGV[1]: 窗口内允许的次数  ARGV[2]: 窗口长度(毫秒)  ARGV[3]: 本次计数  ARGV[4]: 请求唯一标识
+-- 返回: 1: 通过  0: 超出限制
+if redis.replicate_commands then
+    redis.replicate_commands()
+end
+local window = tonumber(ARGV[2])
+local permits = tonumber(ARGV[3])
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window)
+if redis.call('ZCARD', KEYS[1]) + permits > tonumber(ARGV[1]) then
+    return 0
+end
+for i = 1, permits do
+    redis.call('ZADD', KEYS[1], now, ARGV[4] .. ':' .. i)
+end
+redis.call('PEXPIRE', KEYS[1], window)
+return 1
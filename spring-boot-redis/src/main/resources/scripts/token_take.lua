@@ -0,0 +1,30 @@
+-- 令牌桶: 按速率补充令牌后尝试取出permits个令牌
+-- KEYS[1]: 令牌桶key(hash: tokens, timestamp)
+-- ARGV[1]: 容量  ARGV[2]: 每秒补充的令牌数  ARGV[3]: 本次取出的令牌数
+-- 返回: 取出成功时返回剩余令牌数(向下取整)，令牌不足时返回-1
+-- 使用redis服务器时间，避免各客户端时钟不一致
+if redis.replicate_commands then
+    redis.replicate_commands()
+end
+local capacity = tonumber(ARGV[1])
+local rate = tonumber(ARGV[2])
+local permits = tonumber(ARGV[3])
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'timestamp')
+local tokens = tonumber(bucket[1])
+local timestamp = tonumber(bucket[2])
+if tokens == nil or timestamp == nil then
+    tokens = capacity
+    timestamp = now
+end
+tokens = math.min(capacity, tokens + math.max(0, now - timestamp) * rate / 1000)
+local result = -1
+if tokens >= permits then
+    tokens = tokens - permits
+    result = math.floor(tokens)
+end
+redis.call('HMSET', KEYS[1], 'tokens', tostring(tokens), 'timestamp', tostring(now))
+-- 令牌补满后key不再需要
+redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate * 1000))
+return result
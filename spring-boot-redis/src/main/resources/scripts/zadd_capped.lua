@@ -0,0 +1,10 @@
+-- 向有序集添加成员，并只保留分数最高的maxSize个成员
+-- KEYS[1]: 有序集key
+-- ARGV[1]: 分数  ARGV[2]: 成员  ARGV[3]: 最大成员数
+-- 返回被移除的成员数量
+redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2])
+local overflow = redis.call('ZCARD', KEYS[1]) - tonumber(ARGV[3])
+if overflow > 0 then
+    return redis.call('ZREMRANGEBYRANK', KEYS[1], 0, overflow - 1)
+end
+return 0
@@ -0,0 +1,72 @@
+package com.bc.redis.benchmark;
+
+import com.bc.redis.RedisApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.embedded.RedisExecProvider;
+import redis.embedded.RedisServer;
+import redis.embedded.RedisServerBuilder;
+import redis.embedded.util.OS;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试使用的spring容器和redis
+ * 默认连接application.properties中配置的redis
+ * -Dbenchmark.redis.embedded=true时启动一个内嵌的redis(默认端口6380)，
+ * 内嵌redis的版本较旧，可以通过-Dbenchmark.redis.executable指定本地的redis-server
+ * JMH在单独的JVM中运行基准测试，系统属性需要通过-jvmArgs传入
+ *
+ * @author zhou
+ */
+final class RedisBenchmarkContext implements AutoCloseable {
+
+    private static final String EMBEDDED_PASSWORD = "benchmark";
+
+    private final RedisServer redisServer;
+
+    private final ConfigurableApplicationContext applicationContext;
+
+    private RedisBenchmarkContext(RedisServer redisServer, ConfigurableApplicationContext applicationContext) {
+        this.redisServer = redisServer;
+        this.applicationContext = applicationContext;
+    }
+
+    static RedisBenchmarkContext start() {
+        List<String> args = new ArrayList<>();
+        args.add("--logging.level.root=WARN");
+        RedisServer redisServer = null;
+        if (Boolean.getBoolean("benchmark.redis.embedded")) {
+            int port = Integer.getInteger("benchmark.redis.port", 6380);
+            RedisServerBuilder builder = new RedisServerBuilder().port(port)
+                    .setting("requirepass " + EMBEDDED_PASSWORD);
+            String executable = System.getProperty("benchmark.redis.executable");
+            if (executable != null) {
+                builder.redisExecProvider(RedisExecProvider.defaultProvider().override(OS.UNIX, executable));
+            }
+            redisServer = builder.build();
+            redisServer.start();
+            args.add("--spring.redis.host=127.0.0.1");
+            args.add("--spring.redis.port=" + port);
+            args.add("--spring.redis.password=" + EMBEDDED_PASSWORD);
+        }
+        ConfigurableApplicationContext applicationContext = new SpringApplicationBuilder(RedisApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+        return new RedisBenchmarkContext(redisServer, applicationContext);
+    }
+
+    <T> T getBean(Class<T> type) {
+        return applicationContext.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        applicationContext.close();
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+}
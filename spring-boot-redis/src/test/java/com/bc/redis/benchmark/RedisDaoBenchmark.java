@@ -0,0 +1,130 @@
+package com.bc.redis.benchmark;
+
+import com.bc.redis.dao.RedisDao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * RedisDao各类操作的基准测试
+ * 每个方法对应一类操作，结果为单次调用的平均耗时
+ *
+ * @author zhou
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class RedisDaoBenchmark {
+
+    private static final String KEY_PREFIX = "benchmark:dao:";
+
+    private static final int KEY_COUNT = 1000;
+
+    /**
+     * 值的大小(字节)
+     */
+    @Param({"16", "1024"})
+    private int valueSize;
+
+    private RedisBenchmarkContext context;
+
+    private RedisDao redisDao;
+
+    private String value;
+
+    private List<String> multiKeys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = RedisBenchmarkContext.start();
+        redisDao = context.getBean(RedisDao.class);
+        StringBuilder sb = new StringBuilder(valueSize);
+        for (int i = 0; i < valueSize; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        value = sb.toString();
+        Map<String, Object> map = new HashMap<>(KEY_COUNT);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            map.put(KEY_PREFIX + "string:" + i, value);
+        }
+        redisDao.multiSet(map);
+        multiKeys = new ArrayList<>(map.keySet()).subList(0, 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try (Stream<String> keys = redisDao.stream(redisDao.scanKeys(KEY_PREFIX + "*", 1000))) {
+            redisDao.delete(keys.collect(Collectors.toList()));
+        }
+        context.close();
+    }
+
+    private static int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(KEY_COUNT);
+    }
+
+    @Benchmark
+    public Object stringSetGet() {
+        String key = KEY_PREFIX + "string:" + randomIndex();
+        redisDao.set(key, value);
+        return redisDao.get(key);
+    }
+
+    @Benchmark
+    public List<Object> stringMultiGet() {
+        return redisDao.multiGet(multiKeys);
+    }
+
+    @Benchmark
+    public long increment() {
+        return redisDao.increment(KEY_PREFIX + "counter:" + randomIndex(), 1);
+    }
+
+    @Benchmark
+    public Object listPushPop() {
+        String key = KEY_PREFIX + "list:" + randomIndex();
+        redisDao.lRightPush(key, value);
+        return redisDao.lLeftPop(key);
+    }
+
+    @Benchmark
+    public Object hashPutGet() {
+        String field = "field" + randomIndex();
+        redisDao.hPut(KEY_PREFIX + "hash", field, value);
+        return redisDao.hGet(KEY_PREFIX + "hash", field);
+    }
+
+    @Benchmark
+    public boolean setAddIsMember() {
+        String member = "member" + randomIndex();
+        redisDao.sAdd(KEY_PREFIX + "set", member);
+        return redisDao.sIsMember(KEY_PREFIX + "set", member);
+    }
+
+    @Benchmark
+    public double zSetIncrementScore() {
+        return redisDao.zIncrementScore(KEY_PREFIX + "zset", "member" + randomIndex(), 1);
+    }
+}
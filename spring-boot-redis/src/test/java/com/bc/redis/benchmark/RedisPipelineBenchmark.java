@@ -0,0 +1,75 @@
+package com.bc.redis.benchmark;
+
+import com.bc.redis.dao.RedisBatch;
+import com.bc.redis.dao.RedisDao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逐条发送与pipeline批量发送的对比
+ * 每次调用写入BATCH_SIZE个key，结果为单个命令的平均耗时
+ *
+ * @author zhou
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RedisPipelineBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private RedisBenchmarkContext context;
+
+    private RedisDao redisDao;
+
+    private final List<String> keys = new ArrayList<>(BATCH_SIZE);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = RedisBenchmarkContext.start();
+        redisDao = context.getBean(RedisDao.class);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            keys.add("benchmark:pipeline:" + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redisDao.delete(keys);
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void unpipelined() {
+        for (String key : keys) {
+            redisDao.set(key, key);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public RedisBatch.Result pipelined() {
+        RedisBatch batch = redisDao.batch();
+        for (String key : keys) {
+            batch.set(key, key);
+        }
+        return batch.execute();
+    }
+}
@@ -0,0 +1,93 @@
+package com.bc.redis.benchmark;
+
+import com.bc.redis.serializer.RedisSerializerFactory;
+import com.bc.redis.serializer.RedisSerializerProperties;
+import com.bc.redis.serializer.SerializerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 值序列化器的基准测试，不需要redis
+ * 序列化器与RedisConfig.redisTemplate()一样由RedisSerializerFactory创建
+ *
+ * @author zhou
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({"JACKSON", "KRYO", "JDK"})
+    private SerializerType type;
+
+    /**
+     * 压缩阈值，0表示不压缩
+     */
+    @Param({"0", "1024"})
+    private int compressionThreshold;
+
+    /**
+     * 列表中的元素数量，决定序列化结果的大小
+     */
+    @Param({"10", "1000"})
+    private int size;
+
+    private RedisSerializer<Object> serializer;
+
+    private Map<String, Object> value;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        RedisSerializerProperties properties = new RedisSerializerProperties();
+        properties.setType(type);
+        properties.setCompressionThreshold(compressionThreshold);
+        properties.setRegisteredClasses(Arrays.asList("java.util.ArrayList", "java.util.HashMap",
+                "java.util.HashSet", "java.util.Date"));
+        serializer = RedisSerializerFactory.create(properties);
+        List<Object> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("id", (long) i);
+            item.put("name", "item" + i);
+            item.put("price", i * 1.5D);
+            items.add(item);
+        }
+        value = new HashMap<>();
+        value.put("items", items);
+        value.put("createTime", new Date(0));
+        bytes = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+}
@@ -0,0 +1,105 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.cache.BatchCache;
+import com.bc.redis.cache.BatchCacheable;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试批量缓存
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = {RedisApplication.class, TestBatchCache.UserNameService.class})
+public class TestBatchCache {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestBatchCache.class);
+
+    @Resource
+    private CacheManager cacheManager;
+
+    @Resource
+    private UserNameService userNameService;
+
+    /**
+     * 测试批量写入和读取
+     */
+    @Test
+    public void testPutAllAndGetAll() {
+        BatchCache cache = (BatchCache) cacheManager.getCache("batchCache");
+        Map<Object, Object> entries = new HashMap<>();
+        entries.put("k1", "v1");
+        entries.put("k2", "v2");
+        cache.putAll(entries);
+        Map<Object, Cache.ValueWrapper> values = cache.getAll(Arrays.asList("k1", "k2", "k3"));
+        logger.info("get all: " + values.keySet());
+        Assert.assertEquals("v1", values.get("k1").get());
+        Assert.assertFalse(values.containsKey("k3"));
+    }
+
+    /**
+     * 测试@BatchCacheable只加载未命中的id
+     */
+    @Test
+    public void testBatchCacheable() {
+        Cache cache = cacheManager.getCache("userName");
+        cache.evict(1L);
+        cache.evict(2L);
+        cache.evict(3L);
+        cache.put(2L, "user2");
+        userNameService.resetLoadCount();
+
+        Map<Long, String> names = userNameService.getNames(Arrays.asList(1L, 2L, 3L));
+        logger.info("names: " + names);
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L), Arrays.asList(names.keySet().toArray()));
+        Assert.assertEquals(2, userNameService.getLoadCount());
+
+        userNameService.getNames(Arrays.asList(1L, 2L, 3L));
+        Assert.assertEquals(2, userNameService.getLoadCount());
+        Assert.assertEquals("user3", cache.get(3L, String.class));
+    }
+
+    @Component
+    public static class UserNameService {
+
+        private final AtomicInteger loadCount = new AtomicInteger();
+
+        @BatchCacheable(cacheName = "userName")
+        public Map<Long, String> getNames(Collection<Long> ids) {
+            Map<Long, String> names = new HashMap<>();
+            for (Long id : ids) {
+                loadCount.incrementAndGet();
+                names.put(id, "user" + id);
+            }
+            return names;
+        }
+
+        public int getLoadCount() {
+            return loadCount.get();
+        }
+
+        public void resetLoadCount() {
+            loadCount.set(0);
+        }
+    }
+}
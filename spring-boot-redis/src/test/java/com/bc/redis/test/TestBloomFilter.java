@@ -0,0 +1,93 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.bloom.BloomFilter;
+import com.bc.redis.bloom.BloomFilterManager;
+import com.bc.redis.dao.RedisDao;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 测试布隆过滤器和HyperLogLog
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class)
+public class TestBloomFilter {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestBloomFilter.class);
+
+    @Resource
+    private BloomFilterManager bloomFilterManager;
+
+    @Resource
+    private RedisDao redisDao;
+
+    /**
+     * 测试添加、判断和误判率
+     */
+    @Test
+    public void testBloomFilter() {
+        BloomFilter bloomFilter = bloomFilterManager.getBloomFilter("testBloom", 10000, 0.01);
+        logger.info("bitSize: " + bloomFilter.getBitSize() + ", hashFunctions: " + bloomFilter.getHashFunctions());
+        logger.info("add user1: " + bloomFilter.add("user1") + ", add again: " + bloomFilter.add("user1"));
+        logger.info("contains user1: " + bloomFilter.mightContain("user1") + ", user2: "
+                + bloomFilter.mightContain("user2"));
+        List<Object> added = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            added.add("id" + i);
+        }
+        long start = System.currentTimeMillis();
+        bloomFilter.addAll(added);
+        logger.info("add all cost: " + (System.currentTimeMillis() - start) + "ms, approximate count: "
+                + bloomFilter.approximateCount());
+        logger.info("all added contained: " + !bloomFilter.mightContainAll(added).contains(false));
+        List<Object> absent = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            absent.add("absent" + i);
+        }
+        long falsePositives = bloomFilter.mightContainAll(absent).stream().filter(Boolean::booleanValue).count();
+        logger.info("false positive rate: " + falsePositives / 10000.0);
+        bloomFilter.delete();
+    }
+
+    /**
+     * 测试同名布隆过滤器使用不同参数
+     */
+    @Test
+    public void testConfigMismatch() {
+        BloomFilter bloomFilter = bloomFilterManager.getBloomFilter("testBloomConfig", 1000, 0.01);
+        try {
+            bloomFilterManager.getBloomFilter("testBloomConfig", 1000, 0.001);
+        } catch (IllegalStateException e) {
+            logger.info("config mismatch: " + e.getMessage());
+        } finally {
+            bloomFilter.delete();
+        }
+    }
+
+    /**
+     * 测试PFADD、PFCOUNT、PFMERGE
+     */
+    @Test
+    public void testHyperLogLog() {
+        for (int i = 0; i < 1000; i++) {
+            redisDao.pfAdd("{uv}:day1", "user" + i);
+            redisDao.pfAdd("{uv}:day2", "user" + (i + 500));
+        }
+        logger.info("day1: " + redisDao.pfCount("{uv}:day1") + ", day2: " + redisDao.pfCount("{uv}:day2")
+                + ", union: " + redisDao.pfCount("{uv}:day1", "{uv}:day2"));
+        logger.info("merged: " + redisDao.pfMerge("{uv}:all", "{uv}:day1", "{uv}:day2"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.dao.RedisDao;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试缓存过期、单飞加载和提前刷新
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class, properties = {
+        "spring.cache.expiry.caches.earlyRefreshCache.ttl=200ms",
+        "spring.cache.expiry.caches.earlyRefreshCache.early-refresh-beta=1000"})
+public class TestCacheExpiry {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestCacheExpiry.class);
+
+    @Resource
+    private CacheManager cacheManager;
+
+    @Resource
+    private RedisDao redisDao;
+
+    /**
+     * 测试过期时间在 [ttl, ttl * (1 + jitter)) 之间
+     */
+    @Test
+    public void testTtlJitter() {
+        Cache cache = cacheManager.getCache("expiryCache");
+        cache.put("ttlKey", "ttlValue");
+        long expire = redisDao.getExpire("expiryCache::ttlKey");
+        logger.info("expire: " + expire);
+        Assert.assertTrue(expire > 30 * 60 - 5 && expire <= 33 * 60);
+        Assert.assertEquals("ttlValue", cache.get("ttlKey", String.class));
+    }
+
+    /**
+     * 测试并发加载同一个key时只加载一次
+     */
+    @Test
+    public void testSingleFlight() throws Exception {
+        Cache cache = cacheManager.getCache("expiryCache");
+        cache.evict("flightKey");
+        AtomicInteger loadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> cache.get("flightKey", () -> {
+                    loadCount.incrementAndGet();
+                    TimeUnit.MILLISECONDS.sleep(200);
+                    return "flightValue";
+                }), executor));
+            }
+            for (CompletableFuture<String> future : futures) {
+                Assert.assertEquals("flightValue", future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        logger.info("load count: " + loadCount.get());
+        Assert.assertEquals(1, loadCount.get());
+    }
+
+    /**
+     * 测试加载很慢、快过期的值会被提前刷新
+     */
+    @Test
+    public void testEarlyRefresh() throws InterruptedException {
+        Cache cache = cacheManager.getCache("earlyRefreshCache");
+        cache.evict("earlyKey");
+        // 加载耗时100ms，ttl为200ms，150ms后读取时几乎必然提前刷新
+        cache.get("earlyKey", () -> {
+            TimeUnit.MILLISECONDS.sleep(100);
+            return "v1";
+        });
+        TimeUnit.MILLISECONDS.sleep(150);
+        AtomicInteger refreshCount = new AtomicInteger();
+        String value = cache.get("earlyKey", () -> {
+            refreshCount.incrementAndGet();
+            return "v2";
+        });
+        logger.info("value: " + value + ", refresh count: " + refreshCount.get());
+        Assert.assertEquals("v2", value);
+    }
+}
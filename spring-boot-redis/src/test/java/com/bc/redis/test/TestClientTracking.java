@@ -0,0 +1,209 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.dao.RedisDao;
+import com.bc.redis.hotkey.HotKeyDetector;
+import com.bc.redis.tracking.ClientTrackingCache;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 测试基于CLIENT TRACKING的客户端缓存
+ * 通过redisTemplate直接修改redis，模拟其他节点的写入，只能由服务端的失效通知删除本地缓存
+ * 同时开启热点key探测，本地副本有效期设为60秒，客户端缓存的key如果被当作热点key读取副本，其他节点的写入在测试期间不可见
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class, properties = {
+        "spring.redis.tracking.enabled=true",
+        "spring.redis.tracking.prefixes=tracking:",
+        "spring.redis.hot-key.enabled=true",
+        "spring.redis.hot-key.sample-rate=1",
+        "spring.redis.hot-key.threshold=10",
+        "spring.redis.hot-key.local-ttl=60s"})
+public class TestClientTracking {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestClientTracking.class);
+
+    /**
+     * 测试FLUSHDB使用的db，不存放数据
+     */
+    private static final int FLUSH_DATABASE = 15;
+
+    @Resource
+    private RedisDao redisDao;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private ClientTrackingCache clientTrackingCache;
+
+    @Resource
+    private HotKeyDetector hotKeyDetector;
+
+    /**
+     * 测试字符串的本地缓存和失效通知
+     */
+    @Test
+    public void testGet() throws InterruptedException {
+        String key = "tracking:string";
+        redisDao.set(key, "v1");
+        Assert.assertEquals("v1", redisDao.get(key));
+        long hits = clientTrackingCache.getHitCount();
+        Assert.assertEquals("v1", redisDao.get(key));
+        Assert.assertEquals(hits + 1, clientTrackingCache.getHitCount());
+        redisTemplate.opsForValue().set(key, "v2");
+        Assert.assertEquals("v2", await(() -> redisDao.get(key), "v2"));
+        redisTemplate.delete(key);
+        Assert.assertNull(await(() -> redisDao.get(key), null));
+        long misses = clientTrackingCache.getMissCount();
+        redisDao.get("other:string");
+        Assert.assertEquals(misses, clientTrackingCache.getMissCount());
+        logger.info("hits: " + clientTrackingCache.getHitCount() + ", misses: " + clientTrackingCache.getMissCount()
+                + ", cache size: " + clientTrackingCache.getSize());
+    }
+
+    /**
+     * 测试开启热点key探测时，频繁读取的key仍由客户端缓存负责，其他节点的写入可见
+     */
+    @Test
+    public void testHotKey() throws InterruptedException {
+        String key = "tracking:hot";
+        String hashKey = "tracking:hotHash";
+        redisDao.set(key, "v1");
+        redisDao.hPut(hashKey, "field", "v1");
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("v1", redisDao.get(key));
+            Assert.assertEquals("v1", redisDao.hGet(hashKey, "field"));
+        }
+        Assert.assertFalse(hotKeyDetector.isHot(key));
+        Assert.assertFalse(hotKeyDetector.isHot(hashKey));
+        redisTemplate.opsForValue().set(key, "v2");
+        redisTemplate.opsForHash().put(hashKey, "field", "v2");
+        Assert.assertEquals("v2", await(() -> redisDao.get(key), "v2"));
+        Assert.assertEquals("v2", await(() -> redisDao.hGet(hashKey, "field"), "v2"));
+        // 不在客户端缓存前缀下的key仍做热点探测
+        for (int i = 0; i < 100; i++) {
+            redisDao.get("other:hot");
+        }
+        Assert.assertTrue(hotKeyDetector.isHot("other:hot"));
+        redisTemplate.delete(Arrays.asList(key, hashKey));
+    }
+
+    /**
+     * 测试哈希表和集合的本地缓存
+     */
+    @Test
+    public void testHashAndSet() throws InterruptedException {
+        redisTemplate.delete(Arrays.asList("tracking:hash", "tracking:set"));
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("name", "zhou");
+        fields.put("age", 18);
+        redisDao.hPutAll("tracking:hash", fields);
+        Assert.assertEquals("zhou", redisDao.hGet("tracking:hash", "name"));
+        Assert.assertEquals(18, redisDao.hGet("tracking:hash", "age"));
+        redisTemplate.opsForHash().put("tracking:hash", "name", "bc");
+        Assert.assertEquals("bc", await(() -> redisDao.hGet("tracking:hash", "name"), "bc"));
+        Assert.assertEquals(18, redisDao.hGet("tracking:hash", "age"));
+
+        redisDao.sAdd("tracking:set", "a", "b");
+        Assert.assertTrue(redisDao.sIsMember("tracking:set", "a"));
+        Assert.assertFalse(redisDao.sIsMember("tracking:set", "c"));
+        redisTemplate.opsForSet().add("tracking:set", "c");
+        Assert.assertEquals(true, await(() -> redisDao.sIsMember("tracking:set", "c"), true));
+        redisTemplate.delete(Arrays.asList("tracking:hash", "tracking:set"));
+    }
+
+    /**
+     * 测试本节点写入后立即读到新值
+     */
+    @Test
+    public void testReadYourWrites() {
+        String key = "tracking:own";
+        redisDao.set(key, "v1");
+        Assert.assertEquals("v1", redisDao.get(key));
+        redisDao.set(key, "v2");
+        Assert.assertEquals("v2", redisDao.get(key));
+    }
+
+    /**
+     * 测试FLUSHDB清空本地缓存
+     * 服务端对任一db执行FLUSHDB都会向所有开启tracking的连接发送清空通知，这里清空不使用的db，不影响其他数据
+     */
+    @Test
+    public void testFlush() throws InterruptedException {
+        String key = "tracking:flush";
+        redisDao.set(key, "v");
+        Assert.assertEquals("v", redisDao.get(key));
+        Assert.assertTrue(clientTrackingCache.getSize() > 0);
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.select(FLUSH_DATABASE);
+            try {
+                connection.flushDb();
+            } finally {
+                connection.select(0);
+            }
+            return null;
+        });
+        Assert.assertEquals(0L, await(clientTrackingCache::getSize, 0L));
+        long misses = clientTrackingCache.getMissCount();
+        Assert.assertEquals("v", redisDao.get(key));
+        Assert.assertEquals(misses + 1, clientTrackingCache.getMissCount());
+        redisTemplate.delete(key);
+    }
+
+    /**
+     * 测试失效通知连接断开后清空本地缓存并重新开启tracking，只断开本节点的失效通知连接
+     */
+    @Test
+    public void testReconnect() throws InterruptedException {
+        String key = "tracking:reconnect";
+        redisDao.set(key, "v1");
+        Assert.assertEquals("v1", redisDao.get(key));
+        long clientId = clientTrackingCache.getInvalidationClientId();
+        Assert.assertTrue(clientId > 0);
+        redisTemplate.execute((RedisCallback<Object>) connection -> connection.execute("CLIENT",
+                "KILL".getBytes(), "ID".getBytes(), String.valueOf(clientId).getBytes()));
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((!clientTrackingCache.isActive() || clientTrackingCache.getInvalidationClientId() == clientId)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(clientTrackingCache.isActive());
+        Assert.assertNotEquals(clientId, clientTrackingCache.getInvalidationClientId());
+        Assert.assertEquals("v1", redisDao.get(key));
+        redisTemplate.opsForValue().set(key, "v2");
+        Assert.assertEquals("v2", await(() -> redisDao.get(key), "v2"));
+    }
+
+    /**
+     * 失效通知是异步的，最多等待1秒
+     */
+    private static Object await(Supplier<Object> reader, Object expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        Object value = reader.get();
+        while (!Objects.equals(value, expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            value = reader.get();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,156 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.dao.RedisDao;
+import com.bc.redis.lock.DistributedLock;
+import com.bc.redis.lock.DistributedLockManager;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试redis分布式锁
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class)
+public class TestDistributedLock {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestDistributedLock.class);
+
+    @Resource
+    private DistributedLockManager distributedLockManager;
+
+    @Resource
+    private RedisDao redisDao;
+
+    /**
+     * 测试加锁、重入和fencing token
+     */
+    @Test
+    public void testLock() throws InterruptedException {
+        DistributedLock lock = distributedLockManager.getLock("testLock");
+        lock.lock();
+        try {
+            logger.info("reentrant: " + lock.tryLock(0, TimeUnit.SECONDS) + ", fencingToken: "
+                    + lock.getFencingToken());
+            lock.unlock();
+            logger.info("held after one unlock: " + lock.isHeldByCurrentThread());
+        } finally {
+            lock.unlock();
+        }
+        logger.info("held after unlock: " + lock.isHeldByCurrentThread());
+    }
+
+    /**
+     * 测试多线程竞争，等待者通过释放通知唤醒
+     */
+    @Test
+    public void testContention() throws InterruptedException {
+        DistributedLock lock = distributedLockManager.getLock("testContention");
+        AtomicInteger counter = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 25; j++) {
+                    try {
+                        if (lock.tryLock(10, 5, TimeUnit.SECONDS)) {
+                            try {
+                                counter.incrementAndGet();
+                            } finally {
+                                lock.unlock();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        logger.info("contention counter: " + counter.get() + ", cost: " + (System.currentTimeMillis() - start)
+                + "ms");
+    }
+
+    /**
+     * 测试租期到期且锁被其他持有者获取后，重入在redis中确认失败
+     */
+    @Test
+    public void testReentryAfterLeaseExpired() throws InterruptedException {
+        DistributedLock lock = distributedLockManager.getLock("testLeaseExpired");
+        Assert.assertTrue(lock.tryLock(0, 200, TimeUnit.MILLISECONDS));
+        Thread.sleep(300);
+        Assert.assertFalse(lock.isHeldByCurrentThread());
+        lockByOtherThread("testLeaseExpired");
+        Assert.assertFalse(lock.tryLock(0, TimeUnit.SECONDS));
+        Assert.assertFalse(lock.isHeldByCurrentThread());
+        try {
+            lock.unlock();
+            Assert.fail("unlock should fail after lease expired");
+        } catch (IllegalMonitorStateException e) {
+            logger.info("unlock after lease expired: " + e.getMessage());
+        }
+
+        // 本地租期未到，但redis中的锁已被其他进程获取
+        DistributedLock taken = distributedLockManager.getLock("testLockTaken");
+        Assert.assertTrue(taken.tryLock(0, 10, TimeUnit.SECONDS));
+        redisDao.set("lock:{testLockTaken}", "otherProcess");
+        try {
+            Assert.assertFalse(taken.tryLock(0, TimeUnit.SECONDS));
+            Assert.assertFalse(taken.isHeldByCurrentThread());
+        } finally {
+            redisDao.delete("lock:{testLockTaken}");
+        }
+    }
+
+    /**
+     * 在其他线程获取锁，其他线程的持有者标识不同，相当于另一个进程
+     */
+    private void lockByOtherThread(String name) throws InterruptedException {
+        Thread other = new Thread(() -> {
+            try {
+                Assert.assertTrue(distributedLockManager.getLock(name).tryLock(0, 5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        other.start();
+        other.join();
+    }
+
+    /**
+     * 测试最后一个持有者释放后，本节点不再保留锁的状态
+     */
+    @Test
+    public void testLockStateRemoved() throws InterruptedException {
+        int before = distributedLockManager.getActiveLockCount();
+        for (int i = 0; i < 100; i++) {
+            DistributedLock lock = distributedLockManager.getLock("testLockState:" + i);
+            lock.lock();
+            lock.lock();
+            Assert.assertEquals(before + 1, distributedLockManager.getActiveLockCount());
+            lock.unlock();
+            lock.unlock();
+        }
+        Assert.assertEquals(before, distributedLockManager.getActiveLockCount());
+    }
+}
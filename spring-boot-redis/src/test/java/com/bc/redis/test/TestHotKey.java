@@ -0,0 +1,87 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.dao.RedisDao;
+import com.bc.redis.hotkey.HotKeyDetector;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试热点key探测
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class, properties = {
+        "spring.redis.hot-key.sample-rate=1", "spring.redis.hot-key.threshold=100",
+        "spring.redis.hot-key.window=60s", "spring.redis.hot-key.local-ttl=60s"})
+public class TestHotKey {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestHotKey.class);
+
+    @Resource
+    private RedisDao redisDao;
+
+    @Resource
+    private HotKeyDetector hotKeyDetector;
+
+    /**
+     * 测试get热点探测和本地副本
+     */
+    @Test
+    public void testGet() {
+        redisDao.set("hotKey", "v1");
+        for (int i = 0; i < 200; i++) {
+            redisDao.get("hotKey");
+        }
+        logger.info("hot keys: " + hotKeyDetector.getHotKeys());
+        Assert.assertTrue(hotKeyDetector.isHot("hotKey"));
+        Assert.assertEquals("v1", redisDao.get("hotKey"));
+        // 本节点的写入删除本地副本
+        redisDao.set("hotKey", "v2");
+        Assert.assertEquals("v2", redisDao.get("hotKey"));
+        redisDao.delete("hotKey");
+        Assert.assertNull(redisDao.get("hotKey"));
+    }
+
+    /**
+     * 测试hGet热点探测和本地副本
+     */
+    @Test
+    public void testHGet() {
+        redisDao.hPut("hotHashKey", "field", "v1");
+        for (int i = 0; i < 200; i++) {
+            redisDao.hGet("hotHashKey", "field");
+        }
+        Assert.assertTrue(hotKeyDetector.isHot("hotHashKey"));
+        Assert.assertEquals("v1", redisDao.hGet("hotHashKey", "field"));
+        redisDao.hPut("hotHashKey", "field", "v2");
+        Assert.assertEquals("v2", redisDao.hGet("hotHashKey", "field"));
+        logger.info("local size: " + hotKeyDetector.getLocalSize());
+    }
+
+    /**
+     * 测试字段为null时不保存副本
+     */
+    @Test
+    public void testHGetNullHashKey() {
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals("loaded", hotKeyDetector.hGet("hotHashKey", null, f -> {
+                loads.incrementAndGet();
+                return "loaded";
+            }));
+        }
+        Assert.assertEquals(2, loads.get());
+    }
+}
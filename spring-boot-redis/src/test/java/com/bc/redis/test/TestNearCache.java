@@ -0,0 +1,63 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+
+/**
+ * 测试二级缓存
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class)
+public class TestNearCache {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestNearCache.class);
+
+    @Resource
+    private CacheManager cacheManager;
+
+    /**
+     * 测试写入后读取(第二次读取命中本地缓存)
+     */
+    @Test
+    public void testPutAndGet() {
+        Cache cache = cacheManager.getCache("nearCache");
+        cache.put("nearKey", "nearValue");
+        logger.info("cache type: " + cache.getClass().getSimpleName() + ", value: " + cache.get("nearKey", String.class));
+        logger.info("value from local: " + cache.get("nearKey", String.class));
+    }
+
+    /**
+     * 测试失效
+     */
+    @Test
+    public void testEvict() {
+        Cache cache = cacheManager.getCache("nearCache");
+        cache.put("nearKey", "nearValue");
+        cache.evict("nearKey");
+        logger.info("value after evict: " + cache.get("nearKey"));
+    }
+
+    /**
+     * 测试加载
+     */
+    @Test
+    public void testGetWithValueLoader() {
+        Cache cache = cacheManager.getCache("nearCache");
+        cache.evict("loaderKey");
+        String value = cache.get("loaderKey", () -> "loadedValue");
+        logger.info("loaded value: " + value + ", cached value: " + cache.get("loaderKey", String.class));
+    }
+}
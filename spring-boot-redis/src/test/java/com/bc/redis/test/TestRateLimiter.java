@@ -0,0 +1,86 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.ratelimit.BatchedFixedWindowRateLimiter;
+import com.bc.redis.ratelimit.RateLimitAlgorithm;
+import com.bc.redis.ratelimit.RateLimiter;
+import com.bc.redis.ratelimit.RateLimiterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+
+/**
+ * 测试redis限流
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class)
+public class TestRateLimiter {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestRateLimiter.class);
+
+    @Resource
+    private RateLimiterRegistry rateLimiterRegistry;
+
+    /**
+     * 测试令牌桶
+     */
+    @Test
+    public void testTokenBucket() {
+        testRateLimiter(RateLimitAlgorithm.TOKEN_BUCKET);
+    }
+
+    /**
+     * 测试固定窗口
+     */
+    @Test
+    public void testFixedWindow() {
+        testRateLimiter(RateLimitAlgorithm.FIXED_WINDOW);
+    }
+
+    /**
+     * 测试滑动日志
+     */
+    @Test
+    public void testSlidingLog() {
+        testRateLimiter(RateLimitAlgorithm.SLIDING_LOG);
+    }
+
+    /**
+     * 测试本地预聚合的固定窗口
+     */
+    @Test
+    public void testBatchedFixedWindow() {
+        BatchedFixedWindowRateLimiter rateLimiter = (BatchedFixedWindowRateLimiter) rateLimiterRegistry
+                .getRateLimiter(RateLimitAlgorithm.BATCHED_FIXED_WINDOW, 1000, 60000);
+        String key = rateLimiterRegistry.getKey("testBatchedFixedWindow:" + System.nanoTime());
+        int acquired = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (rateLimiter.tryAcquire(key)) {
+                acquired++;
+            }
+        }
+        rateLimiter.flush();
+        logger.info("batched fixed window acquired: " + acquired + "/100000");
+    }
+
+    private void testRateLimiter(RateLimitAlgorithm algorithm) {
+        RateLimiter rateLimiter = rateLimiterRegistry.getRateLimiter(algorithm, 10, 60000);
+        String key = rateLimiterRegistry.getKey("test" + algorithm + ":" + System.nanoTime());
+        int acquired = 0;
+        for (int i = 0; i < 20; i++) {
+            if (rateLimiter.tryAcquire(key)) {
+                acquired++;
+            }
+        }
+        logger.info(algorithm + " acquired: " + acquired + "/20");
+    }
+}
@@ -0,0 +1,71 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.dao.ReactiveRedisDao;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 测试redis响应式操作
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class)
+public class TestReactiveRedisDao {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestReactiveRedisDao.class);
+
+    @Resource
+    private ReactiveRedisDao reactiveRedisDao;
+
+    /**
+     * 测试set和get
+     */
+    @Test
+    public void testSetAndGet() {
+        String key = "reactiveKey";
+        Object value = reactiveRedisDao.set(key, "reactiveValue")
+                .then(reactiveRedisDao.get(key))
+                .block();
+        logger.info("value: " + value);
+    }
+
+    /**
+     * 测试hash
+     */
+    @Test
+    public void testHash() {
+        String key = "reactiveHashKey";
+        Map<String, Object> hValueMap = new HashMap<>();
+        hValueMap.put("field1", "value1");
+        hValueMap.put("field2", 2);
+        reactiveRedisDao.hPutAll(key, hValueMap)
+                .thenMany(reactiveRedisDao.hValues(key))
+                .doOnNext(value -> logger.info("hash value: " + value))
+                .blockLast();
+    }
+
+    /**
+     * 测试zset
+     */
+    @Test
+    public void testZSet() {
+        String key = "reactiveZSetKey";
+        reactiveRedisDao.zAdd(key, "zsetValue1", 1.0)
+                .then(reactiveRedisDao.zAdd(key, "zsetValue2", 2.0))
+                .thenMany(reactiveRedisDao.zReverseRangeWithScores(key, 0, -1))
+                .doOnNext(tuple -> logger.info("value: " + tuple.getValue() + ", score: " + tuple.getScore()))
+                .blockLast();
+    }
+}
@@ -0,0 +1,64 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.dao.RedisBatch;
+import com.bc.redis.dao.RedisDao;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 测试redis批量操作
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class)
+public class TestRedisBatch {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestRedisBatch.class);
+
+    @Resource
+    private RedisDao redisDao;
+
+    /**
+     * 测试不同类型命令的批量执行
+     */
+    @Test
+    public void testBatch() {
+        Map<String, Object> hValueMap = new HashMap<>();
+        hValueMap.put("field1", "value1");
+        hValueMap.put("field2", "value2");
+        RedisBatch.Result result = redisDao.batch()
+                .set("batchKey", "batchValue")
+                .hPutAll("batchHashKey", hValueMap)
+                .hPut("batchHashKey", "field3", "value3")
+                .lRightPush("batchListKey", "listValue")
+                .sAdd("batchSetKey", "setValue1", "setValue2")
+                .zAdd("batchZSetKey", "zsetValue", 1.5)
+                .execute();
+        logger.info("batch result size: " + result.size() + ", results: " + result.asList());
+    }
+
+    /**
+     * 测试按flushSize分多次pipeline发送
+     */
+    @Test
+    public void testBatchWithFlushSize() {
+        RedisBatch batch = redisDao.batch(100);
+        for (int i = 0; i < 1000; i++) {
+            batch.zAdd("batchZSetKey", "zsetValue" + i, i);
+        }
+        RedisBatch.Result result = batch.execute();
+        logger.info("batch result size: " + result.size() + ", first result: " + result.getBoolean(0));
+    }
+}
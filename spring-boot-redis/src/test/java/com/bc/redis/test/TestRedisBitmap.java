@@ -0,0 +1,101 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.dao.RedisBatch;
+import com.bc.redis.dao.RedisDao;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+import java.util.BitSet;
+
+/**
+ * 测试redis位图和BITFIELD
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class)
+public class TestRedisBitmap {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestRedisBitmap.class);
+
+    @Resource
+    private RedisDao redisDao;
+
+    /**
+     * 测试SETBIT、GETBIT、BITCOUNT、BITPOS
+     */
+    @Test
+    public void testBit() {
+        String key = "active:20261018";
+        logger.info("setBit: " + redisDao.setBit(key, 7, true) + ", again: " + redisDao.setBit(key, 7, true));
+        logger.info("getBit 7: " + redisDao.getBit(key, 7) + ", getBit 8: " + redisDao.getBit(key, 8));
+        logger.info("setBits: " + redisDao.setBits(key, true, 1, 100, 1000));
+        logger.info("getBits: " + redisDao.getBits(key, 1, 2, 100, 1000));
+        logger.info("bitCount: " + redisDao.bitCount(key) + ", first byte: " + redisDao.bitCount(key, 0, 0));
+        logger.info("bitPos 1: " + redisDao.bitPos(key, true) + ", from byte 1: " + redisDao.bitPos(key, true, 1, -1));
+    }
+
+    /**
+     * 测试BITOP统计连续活跃用户
+     */
+    @Test
+    public void testBitOp() {
+        redisDao.setBits("{active}:day1", true, 1, 2, 3, 5);
+        redisDao.setBits("{active}:day2", true, 2, 3, 8);
+        logger.info("and length: " + redisDao.bitOp(RedisStringCommands.BitOperation.AND, "{active}:both",
+                "{active}:day1", "{active}:day2") + ", both days: " + redisDao.bitCount("{active}:both"));
+        redisDao.bitOp(RedisStringCommands.BitOperation.OR, "{active}:any", "{active}:day1", "{active}:day2");
+        logger.info("any day: " + redisDao.getBitSet("{active}:any"));
+    }
+
+    /**
+     * 测试BitSet视图
+     */
+    @Test
+    public void testBitSet() {
+        String key = "bitSetKey";
+        redisDao.setBits(key, true, 0, 9, 17, 23, 100);
+        logger.info("bitSet: " + redisDao.getBitSet(key));
+        logger.info("bitSet of bytes 1-2: " + redisDao.getBitSet(key, 1, 2));
+    }
+
+    /**
+     * 测试BITFIELD紧凑计数器
+     */
+    @Test
+    public void testBitFieldCounter() {
+        String key = "counterKey";
+        for (int i = 0; i < 300; i++) {
+            redisDao.bitFieldIncrement(key, BitFieldSubCommands.BitFieldType.UINT_8, 3, 1);
+        }
+        redisDao.bitFieldIncrement(key, BitFieldSubCommands.BitFieldType.UINT_8, 1, 5);
+        logger.info("counters: " + redisDao.bitFieldGet(key, BitFieldSubCommands.BitFieldType.UINT_8, 0, 5));
+    }
+
+    /**
+     * 测试批量位操作
+     */
+    @Test
+    public void testBatch() {
+        RedisBatch batch = redisDao.batch();
+        for (int i = 0; i < 10; i++) {
+            batch.setBit("batchBit:" + i, i, true);
+        }
+        for (int i = 0; i < 10; i++) {
+            batch.bitCount("batchBit:" + i);
+        }
+        batch.bitField("batchBit:0", BitFieldSubCommands.create().get(BitFieldSubCommands.BitFieldType.UINT_8)
+                .valueAt(0));
+        logger.info("batch results: " + batch.execute().asList());
+    }
+}
@@ -0,0 +1,120 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.dao.RedisDao;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 测试redis地理位置
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class)
+public class TestRedisGeo {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestRedisGeo.class);
+
+    @Resource
+    private RedisDao redisDao;
+
+    /**
+     * 测试GEOADD、GEOPOS、GEODIST、GEOHASH
+     */
+    @Test
+    public void testGeo() {
+        String key = "store:geo";
+        Map<Object, Point> stores = new HashMap<>();
+        stores.put("xujiahui", new Point(121.4365, 31.1885));
+        stores.put("jingan", new Point(121.4480, 31.2290));
+        stores.put("lujiazui", new Point(121.5020, 31.2390));
+        logger.info("geoAdd: " + redisDao.geoAdd(key, stores) + ", again: "
+                + redisDao.geoAdd(key, new Point(121.4365, 31.1885), "xujiahui"));
+        logger.info("geoPos: " + redisDao.geoPos(key, "jingan", "unknown"));
+        logger.info("geoDist: " + redisDao.geoDist(key, "xujiahui", "lujiazui", Metrics.KILOMETERS));
+        logger.info("geoHash: " + redisDao.geoHash(key, "xujiahui", "jingan"));
+        logger.info("geoRemove: " + redisDao.geoRemove(key, "lujiazui", "unknown"));
+    }
+
+    /**
+     * 测试GEOSEARCH按半径、按成员、按矩形查询
+     */
+    @Test
+    public void testGeoSearch() {
+        String key = "store:geo:search";
+        Map<Object, Point> stores = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            stores.put("store-" + i, new Point(121.40 + i * 0.001, 31.20 + i * 0.001));
+        }
+        redisDao.geoAdd(key, stores);
+        Point center = new Point(121.40, 31.20);
+        GeoResults<RedisGeoCommands.GeoLocation<Object>> nearest = redisDao.geoSearch(key, center,
+                new Distance(1, Metrics.KILOMETERS), 3);
+        logger.info("geoSearch nearest 3: " + nearest.getContent());
+        logger.info("geoSearch by member size: " + redisDao.geoSearch(key, "store-50",
+                new Distance(500, Metrics.NEUTRAL), 0).getContent().size());
+        logger.info("geoSearchBox size: " + redisDao.geoSearchBox(key, center, 2, 2, Metrics.KILOMETERS, 0)
+                .getContent().size());
+    }
+
+    /**
+     * 测试pipeline批量查询多个圆心
+     */
+    @Test
+    public void testGeoSearchBatch() {
+        String key = "store:geo:batch";
+        Map<Object, Point> stores = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            stores.put("store-" + i, new Point(121.40 + i * 0.001, 31.20 + i * 0.001));
+        }
+        redisDao.geoAdd(key, stores);
+        List<Point> centers = Arrays.asList(new Point(121.40, 31.20), new Point(121.45, 31.25),
+                new Point(120.00, 30.00));
+        List<GeoResults<RedisGeoCommands.GeoLocation<Object>>> results = redisDao.geoSearch(key, centers,
+                new Distance(1, Metrics.KILOMETERS), 5);
+        for (int i = 0; i < centers.size(); i++) {
+            logger.info("center: " + centers.get(i) + ", size: " + results.get(i).getContent().size());
+        }
+    }
+
+    /**
+     * 测试分页流式读取大半径查询结果
+     */
+    @Test
+    public void testGeoSearchStream() {
+        String key = "store:geo:stream";
+        Map<Object, Point> stores = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            stores.put("store-" + i, new Point(121.0 + (i % 50) * 0.01, 31.0 + (i / 50) * 0.01));
+        }
+        redisDao.geoAdd(key, stores);
+        try (Stream<GeoResult<RedisGeoCommands.GeoLocation<Object>>> stream = redisDao.geoSearchStream(key,
+                new Point(121.25, 31.2), new Distance(100, Metrics.KILOMETERS))) {
+            logger.info("geoSearchStream count: " + stream.count());
+        }
+        try (Stream<GeoResult<RedisGeoCommands.GeoLocation<Object>>> stream = redisDao.geoSearchStream(key,
+                new Point(121.25, 31.2), new Distance(2, Metrics.KILOMETERS))) {
+            stream.limit(3).forEach(result -> logger.info("geoSearchStream: " + result));
+        }
+    }
+}
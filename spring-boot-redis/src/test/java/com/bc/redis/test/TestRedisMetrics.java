@@ -0,0 +1,87 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.dao.RedisDao;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 测试redis指标统计
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class)
+public class TestRedisMetrics {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestRedisMetrics.class);
+
+    @Resource
+    private RedisDao redisDao;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 测试命令耗时和序列化字节数
+     */
+    @Test
+    public void testMetrics() {
+        for (int i = 0; i < 100; i++) {
+            redisDao.set("metricsKey", "metricsValue" + i);
+            redisDao.get("metricsKey");
+        }
+        for (Timer timer : meterRegistry.find("redis.dao").timers()) {
+            logger.info("redis.dao " + timer.getId().getTag("operation") + ": count=" + timer.count()
+                    + ", mean=" + timer.mean(TimeUnit.MICROSECONDS) + "us");
+        }
+        for (Timer timer : meterRegistry.find("redis.command").timers()) {
+            logger.info("redis.command " + timer.getId().getTag("command") + "(" + timer.getId().getTag("exception")
+                    + "): count=" + timer.count() + ", max=" + timer.max(TimeUnit.MICROSECONDS) + "us");
+        }
+        for (DistributionSummary summary : meterRegistry.find("redis.serializer.bytes").summaries()) {
+            logger.info("redis.serializer.bytes " + summary.getId().getTag("direction") + ": count="
+                    + summary.count() + ", total=" + summary.totalAmount());
+        }
+        for (Gauge gauge : meterRegistry.find("redis.pool.idle").gauges()) {
+            logger.info("redis.pool.idle: " + gauge.value());
+        }
+    }
+
+    /**
+     * 测试连接池指标统计的是redisTemplate实际使用的连接池
+     */
+    @Test
+    public void testPoolMetrics() {
+        Gauge active = meterRegistry.find("redis.pool.active").gauge();
+        Assert.assertNotNull(active);
+        double before = active.value();
+        double during = redisTemplate.execute((RedisCallback<Double>) connection -> {
+            connection.ping();
+            return active.value();
+        });
+        double after = active.value();
+        logger.info("redis.pool.active before: " + before + ", during: " + during + ", after: " + after);
+        Assert.assertTrue(during >= 1);
+        Assert.assertTrue(during > after);
+    }
+}
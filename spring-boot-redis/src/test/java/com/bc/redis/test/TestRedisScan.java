@@ -0,0 +1,110 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.dao.RedisDao;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 测试redis游标遍历
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class)
+public class TestRedisScan {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestRedisScan.class);
+
+    @Resource
+    private RedisDao redisDao;
+
+    /**
+     * 测试SCAN
+     */
+    @Test
+    public void testScanKeys() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            redisDao.set("scanKey:" + i, i);
+        }
+        int count = 0;
+        try (Cursor<String> cursor = redisDao.scanKeys("scanKey:*")) {
+            while (cursor.hasNext()) {
+                cursor.next();
+                count++;
+            }
+        }
+        logger.info("scan keys count: " + count);
+    }
+
+    /**
+     * 测试流式SCAN
+     */
+    @Test
+    public void testScanKeysStream() {
+        for (int i = 0; i < 100; i++) {
+            redisDao.set("scanKey:" + i, i);
+        }
+        try (Stream<String> stream = redisDao.stream(redisDao.scanKeys("scanKey:1*", 20))) {
+            logger.info("scan keys stream count: " + stream.distinct().count());
+        }
+    }
+
+    /**
+     * 测试HSCAN
+     */
+    @Test
+    public void testHScan() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            redisDao.hPut("scanHashKey", "field" + i, "value" + i);
+        }
+        try (Cursor<Map.Entry<Object, Object>> cursor = redisDao.hScan("scanHashKey", "field1*", 20)) {
+            while (cursor.hasNext()) {
+                Map.Entry<Object, Object> entry = cursor.next();
+                logger.info("hscan: " + entry.getKey() + " -> " + entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 测试SSCAN
+     */
+    @Test
+    public void testSScan() {
+        for (int i = 0; i < 100; i++) {
+            redisDao.sAdd("scanSetKey", "member" + i);
+        }
+        try (Stream<Object> stream = redisDao.stream(redisDao.sScan("scanSetKey", null, 20))) {
+            logger.info("sscan count: " + stream.count());
+        }
+    }
+
+    /**
+     * 测试ZSCAN
+     */
+    @Test
+    public void testZScan() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            redisDao.zAdd("scanZSetKey", "member" + i, i);
+        }
+        try (Cursor<ZSetOperations.TypedTuple<Object>> cursor = redisDao.zScan("scanZSetKey", "member9*", 20)) {
+            while (cursor.hasNext()) {
+                ZSetOperations.TypedTuple<Object> tuple = cursor.next();
+                logger.info("zscan: " + tuple.getValue() + " -> " + tuple.getScore());
+            }
+        }
+    }
+}
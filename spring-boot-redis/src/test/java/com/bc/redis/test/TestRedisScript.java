@@ -0,0 +1,67 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.dao.RedisDao;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+
+/**
+ * 测试redis lua脚本操作
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class)
+public class TestRedisScript {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestRedisScript.class);
+
+    @Resource
+    private RedisDao redisDao;
+
+    /**
+     * 测试有上限的有序集添加
+     */
+    @Test
+    public void testZAddCapped() {
+        redisDao.delete("cappedZSetKey");
+        long removed = 0;
+        for (int i = 0; i < 20; i++) {
+            removed += redisDao.zAddCapped("cappedZSetKey", "member" + i, i, 10);
+        }
+        logger.info("zAddCapped removed: " + removed + ", size: " + redisDao.zCard("cappedZSetKey")
+                + ", members: " + redisDao.zReverseRange("cappedZSetKey", 0, -1));
+    }
+
+    /**
+     * 测试令牌桶
+     */
+    @Test
+    public void testTryAcquireToken() {
+        redisDao.delete("tokenBucketKey");
+        for (int i = 0; i < 12; i++) {
+            logger.info("tryAcquireToken: " + redisDao.tryAcquireToken("tokenBucketKey", 10, 1, 1));
+        }
+    }
+
+    /**
+     * 测试比较并设置
+     */
+    @Test
+    public void testCompareAndSet() {
+        redisDao.delete("casKey");
+        logger.info("compareAndSet(absent): " + redisDao.compareAndSet("casKey", null, "value1"));
+        logger.info("compareAndSet(absent) again: " + redisDao.compareAndSet("casKey", null, "value1"));
+        logger.info("compareAndSet(match): " + redisDao.compareAndSet("casKey", "value1", "value2", 60));
+        logger.info("compareAndSet(mismatch): " + redisDao.compareAndSet("casKey", "value1", "value3"));
+        logger.info("casKey: " + redisDao.get("casKey") + ", expire: " + redisDao.getExpire("casKey"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.bc.redis.test;
+
+import com.bc.redis.serializer.CompressionRedisSerializer;
+import com.bc.redis.serializer.KryoRedisSerializer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 测试redis值序列化
+ *
+ * @author zhou
+ */
+public class TestRedisSerializer {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestRedisSerializer.class);
+
+    private final RedisSerializer<Object> serializer = new CompressionRedisSerializer<>(
+            new KryoRedisSerializer(Collections.singletonList(HashMap.class)), 1024);
+
+    /**
+     * 测试对象序列化
+     */
+    @Test
+    public void testRoundTrip() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", "zhou");
+        map.put("age", 18);
+        byte[] bytes = serializer.serialize(map);
+        logger.info("serialized size: " + bytes.length);
+        Assert.assertEquals(map, serializer.deserialize(bytes));
+    }
+
+    /**
+     * 测试超过阈值时压缩
+     */
+    @Test
+    public void testCompression() {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add("value" + i);
+        }
+        byte[] bytes = serializer.serialize(list);
+        logger.info("compressed size: " + bytes.length);
+        Assert.assertEquals(list, serializer.deserialize(bytes));
+    }
+
+    /**
+     * 测试开启压缩前写入的数据仍可读取，未达到阈值时不加头部
+     */
+    @Test
+    public void testUncompressedValue() {
+        KryoRedisSerializer kryo = new KryoRedisSerializer(Collections.singletonList(HashMap.class));
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", "zhou");
+        byte[] bytes = kryo.serialize(map);
+        Assert.assertArrayEquals(bytes, serializer.serialize(map));
+        Assert.assertEquals(map, serializer.deserialize(bytes));
+    }
+
+    /**
+     * 测试魔数匹配但格式未知时报错
+     */
+    @Test(expected = SerializationException.class)
+    public void testUnknownFormat() {
+        serializer.deserialize(new byte[]{(byte) 0xFF, (byte) 0xC3, 9, 0, 0, 0, 1, 0});
+    }
+
+    /**
+     * 测试INCR写入的数字文本
+     */
+    @Test
+    public void testNumericText() {
+        Assert.assertEquals(12L, serializer.deserialize("12".getBytes(StandardCharsets.US_ASCII)));
+        Assert.assertEquals(-1.5, serializer.deserialize("-1.5".getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,126 @@
+package com.bc.redis.test;
+
+import com.bc.redis.RedisApplication;
+import com.bc.redis.dao.RedisDao;
+import com.bc.redis.stream.StreamListenerContainer;
+import com.bc.redis.stream.StreamPendingEntry;
+import com.bc.redis.stream.StreamRecord;
+import com.bc.redis.stream.StreamSubscription;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试redis stream
+ *
+ * @author zhou
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = RedisApplication.class, properties = {
+        "spring.redis.stream.block-timeout=500",
+        "spring.redis.stream.reclaim-interval=200",
+        "spring.redis.stream.reclaim-min-idle=100",
+        "spring.redis.stream.max-deliveries=2"})
+public class TestRedisStream {
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TestRedisStream.class);
+
+    @Resource
+    private RedisDao redisDao;
+
+    @Resource
+    private StreamListenerContainer streamListenerContainer;
+
+    /**
+     * 测试XADD、XREADGROUP、XACK和XPENDING
+     */
+    @Test
+    public void testReadGroup() {
+        String key = "testStream";
+        logger.info("group created: " + redisDao.xGroupCreate(key, "group1", "0"));
+        logger.info("group created again: " + redisDao.xGroupCreate(key, "group1", "0"));
+        for (int i = 0; i < 10; i++) {
+            redisDao.xAdd(key, message(i), 1000);
+        }
+        logger.info("xlen: " + redisDao.xLen(key));
+        List<StreamRecord> records = redisDao.xReadGroup(key, "group1", "consumer1", 5);
+        logger.info("read: " + records);
+        logger.info("ack: " + redisDao.xAck(key, "group1", records.get(0).getId(), records.get(1).getId()));
+        List<StreamPendingEntry> pending = redisDao.xPending(key, "group1", 10);
+        logger.info("pending: " + pending);
+        List<StreamRecord> claimed = redisDao.xClaim(key, "group1", "consumer2", 0, pending.get(0).getId());
+        logger.info("claimed: " + claimed);
+        logger.info("xdel: " + redisDao.xDel(key, records.get(4).getId()));
+        logger.info("xtrim: " + redisDao.xTrim(key, 0) + ", xlen: " + redisDao.xLen(key));
+    }
+
+    /**
+     * 测试监听容器多线程消费
+     */
+    @Test
+    public void testListenerContainer() throws InterruptedException {
+        String key = "testStreamContainer";
+        CountDownLatch latch = new CountDownLatch(200);
+        StreamSubscription subscription = streamListenerContainer.register(key, "group1", record -> latch.countDown(),
+                4);
+        for (int i = 0; i < 200; i++) {
+            redisDao.xAdd(key, message(i));
+        }
+        logger.info("consumed all: " + latch.await(10, TimeUnit.SECONDS));
+        subscription.cancel();
+        logger.info("pending after consume: " + redisDao.xPending(key, "group1", 10).size());
+    }
+
+    /**
+     * 测试处理失败的消息被重新投递，超过最大投递次数后转入死信stream
+     */
+    @Test
+    public void testReclaimAndDeadLetter() throws InterruptedException {
+        String key = "testStreamReclaim";
+        redisDao.delete(Arrays.asList(key, key + ":dlq"));
+        AtomicInteger deliveries = new AtomicInteger();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        StreamSubscription subscription = streamListenerContainer.register(key, "group1", record -> {
+            deliveries.incrementAndGet();
+            threads.add(Thread.currentThread().getName());
+            throw new IllegalStateException("always fail");
+        }, 1);
+        redisDao.xAdd(key, message(0));
+        long deadline = System.currentTimeMillis() + 10000;
+        while (redisDao.xLen(key + ":dlq") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        subscription.cancel();
+        logger.info("deliveries: " + deliveries.get() + ", dead letters: " + redisDao.xLen(key + ":dlq")
+                + ", pending: " + redisDao.xPending(key, "group1", 10).size() + ", threads: " + threads);
+        Assert.assertEquals(1, redisDao.xLen(key + ":dlq"));
+        Assert.assertTrue(deliveries.get() >= 2);
+        // 重新投递也在订阅的消费线程中处理，不占用容器共用的接管线程
+        Assert.assertEquals(Collections.singleton("redis-stream-" + key + "-0"), threads);
+    }
+
+    private static Map<String, Object> message(int i) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("index", i);
+        fields.put("name", "message" + i);
+        return fields;
+    }
+}